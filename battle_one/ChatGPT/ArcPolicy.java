@@ -0,0 +1,86 @@
+import java.util.LinkedHashSet;
+
+// Adaptive Replacement Cache: balances recently and frequently used keys using ghost lists
+// of recently evicted keys
+public final class ArcPolicy<K> implements EvictionPolicy<K> {
+    private final int capacity;
+    private final LinkedHashSet<K> recent;
+    private final LinkedHashSet<K> frequent;
+    private final LinkedHashSet<K> recentGhosts;
+    private final LinkedHashSet<K> frequentGhosts;
+    private int recentTarget;
+    private boolean frequentGhostHit;
+
+    public ArcPolicy(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+
+        this.capacity = maxSize;
+        this.recent = new LinkedHashSet<>();
+        this.frequent = new LinkedHashSet<>();
+        this.recentGhosts = new LinkedHashSet<>();
+        this.frequentGhosts = new LinkedHashSet<>();
+    }
+
+    @Override
+    public void onInsert(K key) {
+        int recentGhostCount = recentGhosts.size();
+        int frequentGhostCount = frequentGhosts.size();
+        if (recentGhosts.remove(key)) {
+            // T1 was too small to keep this key: grow its target
+            recentTarget = Math.min(capacity, recentTarget + Math.max(1, frequentGhostCount / recentGhostCount));
+            frequent.add(key);
+        } else if (frequentGhosts.remove(key)) {
+            // T2 was too small to keep this key: shrink T1's target in its favour
+            recentTarget = Math.max(0, recentTarget - Math.max(1, recentGhostCount / frequentGhostCount));
+            frequent.add(key);
+            frequentGhostHit = true;
+        } else {
+            recent.add(key);
+        }
+    }
+
+    @Override
+    public void onAccess(K key) {
+        if (recent.remove(key) || frequent.remove(key)) {
+            frequent.add(key);
+        }
+    }
+
+    @Override
+    public void onRemove(K key) {
+        if (!recent.remove(key)) {
+            frequent.remove(key);
+        }
+    }
+
+    @Override
+    // Evict from T1 while it is above its adaptive target, otherwise from T2
+    public K evict() {
+        K victim;
+        int recentSize = recent.size();
+        if (recentSize > 0 && (recentSize > recentTarget || (frequentGhostHit && recentSize == recentTarget)
+                || frequent.isEmpty())) {
+            victim = SegmentedLruPolicy.pollFirst(recent);
+            recentGhosts.add(victim);
+        } else {
+            victim = SegmentedLruPolicy.pollFirst(frequent);
+            if (victim == null) {
+                return null;
+            }
+            frequentGhosts.add(victim);
+        }
+        frequentGhostHit = false;
+
+        // Keep |T1| + |B1| <= c and the whole directory within 2c
+        while (recent.size() + recentGhosts.size() > capacity && !recentGhosts.isEmpty()) {
+            SegmentedLruPolicy.pollFirst(recentGhosts);
+        }
+        while (recent.size() + frequent.size() + recentGhosts.size() + frequentGhosts.size() > 2 * capacity
+                && !frequentGhosts.isEmpty()) {
+            SegmentedLruPolicy.pollFirst(frequentGhosts);
+        }
+        return victim;
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// LRUCache in front of a slow PriceCatalog: cached items are served locally and all misses
+// go to the source in one getPrices call. A newer source version drops the whole cache; each
+// entry also remembers its version so a late write from an older fetch is never served. A caller
+// holding an older version never clears the cache again or moves cachedVersion back.
+public class CachingPriceCatalog implements PriceCatalog {
+
+    private final PriceCatalog source;
+    private final LRUCache<String, CachedPrice> cache;
+    private volatile long cachedVersion;
+
+    public CachingPriceCatalog(PriceCatalog source, int maxSize) {
+        if (source == null) {
+            throw new NullPointerException("Source catalog must not be null");
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+        this.source = source;
+        this.cache = new LRUCache<>(maxSize);
+        this.cachedVersion = source.version();
+    }
+
+    @Override
+    public Map<String, Long> getPrices(Set<String> itemIds) {
+        long version = source.version();
+        if (version > cachedVersion) {
+            synchronized (this) {
+                if (version > cachedVersion) {
+                    cache.clear();
+                    cachedVersion = version;
+                }
+            }
+        }
+
+        Map<String, Long> prices = new HashMap<>();
+        Set<String> misses = new HashSet<>();
+        for (String itemId : itemIds) {
+            CachedPrice cached = cache.get(itemId);
+            if (cached != null && cached.version >= version) {
+                prices.put(itemId, cached.cents);
+            } else {
+                misses.add(itemId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<String, Long> fetched = source.getPrices(misses);
+            for (String itemId : misses) {
+                Long price = fetched.get(itemId);
+                if (price != null) {
+                    cache.put(itemId, new CachedPrice(version, price));
+                    prices.put(itemId, price);
+                }
+            }
+        }
+        return prices;
+    }
+
+    @Override
+    public long version() {
+        return source.version();
+    }
+
+    private static final class CachedPrice {
+        final long version;
+        final long cents;
+
+        CachedPrice(long version, long cents) {
+            this.version = version;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+// Chooses which key a cache evicts once it is over capacity.
+// Called by a single cache under its lock, so implementations need no synchronization.
+public interface EvictionPolicy<K> {
+    // A key was added to the cache
+    void onInsert(K key);
+
+    // A key was read or updated
+    void onAccess(K key);
+
+    // A key left the cache for a reason other than evict()
+    void onRemove(K key);
+
+    // Pick the next key to evict and stop tracking it; may return the key just inserted
+    K evict();
+}
@@ -0,0 +1,56 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process stand-in for the remote catalog, for tests and offline runs.
+// Counts batch calls so tests can check how often the source was hit.
+public class InMemoryPriceCatalog implements PriceCatalog {
+
+    private final Map<String, Long> pricesCents = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    public InMemoryPriceCatalog() {
+    }
+
+    public InMemoryPriceCatalog(Map<String, Long> pricesCents) {
+        if (pricesCents == null) {
+            throw new IllegalArgumentException("Price list must not be null");
+        }
+        pricesCents.forEach(this::setPrice);
+        version.set(0);
+    }
+
+    // Bumps the version so caches and carts reprice
+    public void setPrice(String itemId, Long priceCents) {
+        if (itemId == null || priceCents == null || priceCents < 0) {
+            throw new IllegalArgumentException("Item ID and a non-negative price are required");
+        }
+        pricesCents.put(itemId, priceCents);
+        version.incrementAndGet();
+    }
+
+    @Override
+    public Map<String, Long> getPrices(Set<String> itemIds) {
+        batchCount.incrementAndGet();
+        Map<String, Long> prices = new HashMap<>();
+        for (String itemId : itemIds) {
+            Long price = pricesCents.get(itemId);
+            if (price != null) {
+                prices.put(itemId, price);
+            }
+        }
+        return prices;
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+}
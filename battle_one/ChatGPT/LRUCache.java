@@ -1,38 +1,179 @@
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 
 public class LRUCache<K, V> {
     private final int maxSize;
+    private final long maxWeight;
+    private final Weigher<K, V> weigher;
+    private final EvictionPolicy<K> policy;
     private final Map<K, V> cache;
+    private final List<Runnable> pendingNotifications = new ArrayList<>();
+    private volatile RemovalListener<K, V> removalListener;
+    private Executor listenerExecutor;
+    private long totalWeight;
+
+    // Statistics; LongAdders so stats() can read them without taking the cache's lock
+    private volatile boolean recordingStats;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
 
     public LRUCache(int maxSize) {
+        this(maxSize, 0, null, null);
+    }
+
+    // Let a policy such as SLRU, ARC or W-TinyLFU choose the victims instead of plain LRU
+    public LRUCache(int maxSize, EvictionPolicy<K> policy) {
+        this(maxSize, 0, null, policy);
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+        if (policy == null) {
+            throw new NullPointerException("Eviction policy must not be null");
+        }
+    }
+
+    // Bound the cache by the total weight of its entries instead of their count
+    public LRUCache(long maxWeight, Weigher<K, V> weigher) {
+        this(Integer.MAX_VALUE, maxWeight, weigher, null);
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Max weight must be positive");
+        }
+        if (weigher == null) {
+            throw new NullPointerException("Weigher must not be null");
+        }
+    }
+
+    private LRUCache(int maxSize, long maxWeight, Weigher<K, V> weigher, EvictionPolicy<K> policy) {
         this.maxSize = maxSize;
-        this.cache = new LinkedHashMap<>(maxSize, 0.75f, true) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.policy = policy;
+        this.cache = new LinkedHashMap<>(weigher == null ? maxSize : 16, 0.75f, true) {
             @Override
             protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-                return size() > LRUCache.this.maxSize;
+                if (LRUCache.this.policy == null && size() > LRUCache.this.maxSize) {
+                    notifyRemoval(eldest.getKey(), eldest.getValue(), RemovalCause.EVICTED);
+                    return true;
+                }
+                return false;
             }
         };
     }
 
+    // Get notified about evictions, replacements and removals. The listener runs on the executor
+    // after the cache is unlocked, so a slow listener does not slow down put or remove.
+    public synchronized void setRemovalListener(RemovalListener<K, V> listener, Executor executor) {
+        if (listener == null || executor == null) {
+            throw new NullPointerException("Removal listener and executor must not be null");
+        }
+        this.listenerExecutor = executor;
+        this.removalListener = listener;
+    }
+
+    // Count hits, misses and evictions from now on; off by default, so an unmonitored cache only
+    // pays one branch per operation
+    public void setRecordingStats(boolean recordingStats) {
+        this.recordingStats = recordingStats;
+    }
+
+    // Snapshot of the counters since stats recording was first turned on
+    public Stats stats() {
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
     // Add an item to the cache
-    public synchronized void put(K key, V value) {
-        cache.put(key, value);
+    public void put(K key, V value) {
+        putEntry(key, value);
+        dispatchNotifications();
+    }
+
+    private synchronized void putEntry(K key, V value) {
+        if (policy != null) {
+            boolean existed = cache.containsKey(key);
+            V replaced = cache.put(key, value);
+            if (replaced != null) {
+                notifyRemoval(key, replaced, RemovalCause.REPLACED);
+            }
+            if (existed) {
+                policy.onAccess(key);
+            } else {
+                policy.onInsert(key);
+            }
+            evictByPolicy();
+            return;
+        }
+        V previous = cache.put(key, value);
+        if (previous != null) {
+            notifyRemoval(key, previous, RemovalCause.REPLACED);
+        }
+        if (weigher == null) {
+            return;
+        }
+        if (previous != null) {
+            totalWeight -= weigher.weigh(key, previous);
+        }
+        int weight = weigher.weigh(key, value);
+        totalWeight += weight;
+
+        // An entry that can never fit is dropped instead of flushing the whole cache
+        if (weight > maxWeight) {
+            cache.remove(key);
+            totalWeight -= weight;
+            notifyRemoval(key, value, RemovalCause.EVICTED);
+        }
+        evictOverweightEntries();
     }
 
     // Retrieve an item from the cache
     public synchronized V get(K key) {
-        return cache.get(key);
+        if (policy != null && cache.containsKey(key)) {
+            policy.onAccess(key);
+        }
+        V value = cache.get(key);
+        if (recordingStats) {
+            (value != null ? hitCount : missCount).increment();
+        }
+        return value;
     }
 
     // Remove an item from the cache
-    public synchronized V remove(K key) {
-        return cache.remove(key);
+    public V remove(K key) {
+        V removed = removeEntry(key);
+        dispatchNotifications();
+        return removed;
+    }
+
+    private synchronized V removeEntry(K key) {
+        if (policy != null && cache.containsKey(key)) {
+            policy.onRemove(key);
+        }
+        V removed = cache.remove(key);
+        if (removed != null) {
+            notifyRemoval(key, removed, RemovalCause.EXPLICIT);
+            if (weigher != null) {
+                totalWeight -= weigher.weigh(key, removed);
+            }
+        }
+        return removed;
     }
 
     // Clear the cache
-    public synchronized void clear() {
-        cache.clear();
+    public void clear() {
+        synchronized (this) {
+            if (policy != null) {
+                cache.keySet().forEach(policy::onRemove);
+            }
+            cache.forEach((key, value) -> notifyRemoval(key, value, RemovalCause.EXPLICIT));
+            cache.clear();
+            totalWeight = 0;
+        }
+        dispatchNotifications();
     }
 
     // Get the current size of the cache
@@ -40,13 +181,115 @@ public class LRUCache<K, V> {
         return cache.size();
     }
 
+    // Get the total weight of the cached entries (0 when no weigher is used)
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
     // Check if the cache contains a key
     public synchronized boolean containsKey(K key) {
         return cache.containsKey(key);
     }
 
-    // Print cache contents for debugging
-    public synchronized void printCache() {
-        System.out.println("Cache contents: " + cache);
+    // Print cache contents for debugging; the entries are copied under the lock but formatted and
+    // printed outside it, so slow console output does not block other threads
+    public void printCache() {
+        Map<K, V> snapshot;
+        synchronized (this) {
+            snapshot = new LinkedHashMap<>(cache);
+        }
+        System.out.println("Cache contents: " + snapshot);
+    }
+
+    // Evict the policy's victims until the cache is back within its max size
+    private void evictByPolicy() {
+        while (cache.size() > maxSize) {
+            K victim = policy.evict();
+            if (victim == null) {
+                break;
+            }
+            V evicted = cache.remove(victim);
+            if (evicted != null) {
+                notifyRemoval(victim, evicted, RemovalCause.EVICTED);
+            }
+        }
+    }
+
+    // Remove the least recently used entries until the total weight fits again
+    private void evictOverweightEntries() {
+        Iterator<Map.Entry<K, V>> iterator = cache.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            Map.Entry<K, V> eldest = iterator.next();
+            totalWeight -= weigher.weigh(eldest.getKey(), eldest.getValue());
+            notifyRemoval(eldest.getKey(), eldest.getValue(), RemovalCause.EVICTED);
+            iterator.remove();
+        }
+    }
+
+    // Called under the lock; only counts the eviction and queues the notification
+    private void notifyRemoval(K key, V value, RemovalCause cause) {
+        if (recordingStats && cause == RemovalCause.EVICTED) {
+            evictionCount.increment();
+        }
+        RemovalListener<K, V> listener = removalListener;
+        if (listener != null) {
+            pendingNotifications.add(() -> listener.onRemoval(key, value, cause));
+        }
+    }
+
+    // Hand the queued notifications to the executor once the lock is released
+    private void dispatchNotifications() {
+        if (removalListener == null) {
+            return;
+        }
+        List<Runnable> notifications;
+        Executor executor;
+        synchronized (this) {
+            if (pendingNotifications.isEmpty()) {
+                return;
+            }
+            notifications = new ArrayList<>(pendingNotifications);
+            pendingNotifications.clear();
+            executor = listenerExecutor;
+        }
+        for (Runnable notification : notifications) {
+            executor.execute(notification);
+        }
+    }
+
+    // Immutable snapshot of the cache statistics
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        Stats(long hitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        // 1.0 when there were no lookups at all
+        public double getHitRate() {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "}";
+        }
     }
 }
@@ -0,0 +1,153 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LRUCacheTest {
+    private LRUCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LRUCache<>(10, (key, value) -> value.length());
+    }
+
+    @Test
+    void testPut_withinMaxSize() {
+        LRUCache<String, Integer> counted = new LRUCache<>(2);
+        counted.put("a", 1);
+        counted.put("b", 2);
+        counted.get("a");
+        counted.put("c", 3);
+        assertTrue(counted.containsKey("a"));
+        assertFalse(counted.containsKey("b"));
+    }
+
+    @Test
+    void testPut_evictsUntilWithinMaxWeight() {
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+        cache.put("c", "xxxx");
+        assertFalse(cache.containsKey("a"));
+        assertEquals(8, cache.getTotalWeight());
+    }
+
+    @Test
+    void testPut_replacedEntryChangesWeight() {
+        cache.put("a", "xx");
+        cache.put("b", "xx");
+        cache.put("b", "xxxxxxx");
+        assertEquals(9, cache.getTotalWeight());
+        cache.put("a", "xxxxx"); // Evicts b, the least recently used entry
+        assertFalse(cache.containsKey("b"));
+        assertEquals(5, cache.getTotalWeight());
+    }
+
+    @Test
+    void testPut_entryHeavierThanMaxWeight() {
+        cache.put("a", "xxx");
+        cache.put("b", "xxxxxxxxxxxx");
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("a"));
+        assertEquals(3, cache.getTotalWeight());
+    }
+
+    @Test
+    void testRemoveAndClear_resetWeight() {
+        cache.put("a", "xxx");
+        cache.put("b", "xxx");
+        cache.remove("a");
+        assertEquals(3, cache.getTotalWeight());
+        cache.clear();
+        assertEquals(0, cache.getTotalWeight());
+    }
+
+    @Test
+    void testConstructor_invalidMaxWeight() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            new LRUCache<String, String>(0L, (key, value) -> 1);
+        });
+        assertEquals("Max weight must be positive", exception.getMessage());
+    }
+
+    @Test
+    void testPut_scanWithPolicyKeepsHotKeys() {
+        LRUCache<Integer, Integer> counted = new LRUCache<>(100, new SegmentedLruPolicy<>(100));
+        for (int key = 0; key < 50; key++) {
+            counted.put(key, key);
+            counted.get(key);
+        }
+        for (int key = 1000; key < 2000; key++) {
+            counted.put(key, key);
+        }
+        assertEquals(100, counted.size());
+        for (int key = 0; key < 50; key++) {
+            assertTrue(counted.containsKey(key));
+        }
+    }
+
+    @Test
+    void testPut_tinyLfuRejectsOneHitWonders() {
+        LRUCache<Integer, Integer> counted = new LRUCache<>(10, new WindowTinyLfuPolicy<>(10));
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 10; key++) {
+                if (counted.get(key) == null) {
+                    counted.put(key, key);
+                }
+            }
+        }
+        for (int key = 100; key < 120; key++) {
+            counted.put(key, key);
+        }
+        assertEquals(10, counted.size());
+        int hot = 0;
+        for (int key = 0; key < 10; key++) {
+            hot += counted.containsKey(key) ? 1 : 0;
+        }
+        assertTrue(hot >= 8);
+    }
+
+    @Test
+    void testConstructor_invalidPolicyArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new LRUCache<String, String>(0, new ArcPolicy<>(1)));
+        assertThrows(NullPointerException.class, () -> new LRUCache<String, String>(10, (EvictionPolicy<String>) null));
+    }
+
+    @Test
+    void testRemovalListener_notifiedAfterUnlockWithCause() {
+        List<Runnable> tasks = new ArrayList<>();
+        List<String> notifications = new ArrayList<>();
+        LRUCache<String, Integer> listened = new LRUCache<>(2);
+        listened.setRemovalListener((key, value, cause) -> notifications.add(key + "=" + value + ":" + cause), tasks::add);
+        listened.put("a", 1);
+        listened.put("a", 2);
+        listened.put("b", 3);
+        listened.put("c", 4);
+        listened.remove("b");
+        assertTrue(notifications.isEmpty());
+
+        tasks.forEach(Runnable::run);
+        assertEquals(List.of("a=1:REPLACED", "a=2:EVICTED", "b=3:EXPLICIT"), notifications);
+    }
+
+    @Test
+    void testStats_countsHitsMissesAndEvictionsOnlyWhenEnabled() {
+        LRUCache<String, Integer> counted = new LRUCache<>(2);
+        counted.put("a", 1);
+        counted.get("a");
+        assertEquals(0, counted.stats().getHitCount());
+
+        counted.setRecordingStats(true);
+        counted.get("a");
+        counted.get("missing");
+        counted.put("b", 2);
+        counted.put("c", 3);
+        LRUCache.Stats stats = counted.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(0.5, stats.getHitRate());
+    }
+}
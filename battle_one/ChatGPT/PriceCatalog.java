@@ -0,0 +1,12 @@
+import java.util.Map;
+import java.util.Set;
+
+// Source of unit prices in cents, queried many items per call so a big cart costs one round trip.
+// version() must be cheap: carts and caches call it on every total to spot changed prices.
+public interface PriceCatalog {
+    // Prices of the known items among itemIds; unknown items are left out
+    Map<String, Long> getPrices(Set<String> itemIds);
+
+    // Increases whenever any price changes
+    long version();
+}
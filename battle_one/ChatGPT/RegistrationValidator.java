@@ -0,0 +1,249 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Headless validation of the registration form's fields. Rules scan the input in place and errors
+// are enum constants, so a valid registration allocates nothing. Stateless and thread-safe.
+public class RegistrationValidator {
+
+    public enum Field { USERNAME, EMAIL, PASSWORD, BIRTH_DATE, GENDER }
+
+    public enum FieldError {
+        USERNAME_REQUIRED(Field.USERNAME, "Username is required."),
+        EMAIL_INVALID(Field.EMAIL, "Enter a valid email address."),
+        PASSWORD_REQUIRED(Field.PASSWORD, "Password is required."),
+        BIRTH_DATE_INVALID(Field.BIRTH_DATE, "Enter a valid birth date in the format yyyy-MM-dd."),
+        GENDER_REQUIRED(Field.GENDER, "Select a gender.");
+
+        private final Field field;
+        private final String message;
+
+        FieldError(Field field, String message) {
+            this.field = field;
+            this.message = message;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // Plain form input; any field may be null when left empty
+    public static class Registration {
+        private final String username;
+        private final String email;
+        private final char[] password;
+        private final String birthDate;
+        private final String gender;
+
+        public Registration(String username, String email, char[] password, String birthDate, String gender) {
+            this.username = username;
+            this.email = email;
+            this.password = password;
+            this.birthDate = birthDate;
+            this.gender = gender;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public char[] getPassword() {
+            return password;
+        }
+
+        public String getBirthDate() {
+            return birthDate;
+        }
+
+        public String getGender() {
+            return gender;
+        }
+    }
+
+    public static class Result {
+        public static final Result VALID = new Result(Collections.emptyList());
+
+        private final List<FieldError> errors;
+
+        private Result(List<FieldError> errors) {
+            this.errors = errors;
+        }
+
+        public boolean isValid() {
+            return errors.isEmpty();
+        }
+
+        public List<FieldError> getErrors() {
+            return errors;
+        }
+    }
+
+    public Result validate(Registration registration) {
+        List<FieldError> errors = null;
+        errors = add(errors, validateUsername(registration.getUsername()));
+        errors = add(errors, validateEmail(registration.getEmail()));
+        errors = add(errors, validatePassword(registration.getPassword()));
+        errors = add(errors, validateBirthDate(registration.getBirthDate()));
+        errors = add(errors, validateGender(registration.getGender()));
+        return errors == null ? Result.VALID : new Result(Collections.unmodifiableList(errors));
+    }
+
+    public FieldError validateUsername(String username) {
+        return isBlank(username) ? FieldError.USERNAME_REQUIRED : null;
+    }
+
+    // Same language as ^[\w-.]+@[\w-.]+\.[a-zA-Z]{2,}$ on the trimmed address
+    public FieldError validateEmail(String email) {
+        if (email == null) {
+            return FieldError.EMAIL_INVALID;
+        }
+        int start = trimStart(email);
+        int end = trimEnd(email, start);
+        int at = start;
+        while (at < end && isWordOrDotOrDash(email.charAt(at))) {
+            at++;
+        }
+        if (at == start || at == end || email.charAt(at) != '@') {
+            return FieldError.EMAIL_INVALID;
+        }
+        int lastDot = -1;
+        for (int i = at + 1; i < end; i++) {
+            char c = email.charAt(i);
+            if (!isWordOrDotOrDash(c)) {
+                return FieldError.EMAIL_INVALID;
+            }
+            if (c == '.') {
+                lastDot = i;
+            }
+        }
+        // Needs a non-empty domain before the last dot and at least two letters after it
+        if (lastDot <= at + 1 || end - lastDot - 1 < 2) {
+            return FieldError.EMAIL_INVALID;
+        }
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!isLetter(email.charAt(i))) {
+                return FieldError.EMAIL_INVALID;
+            }
+        }
+        return null;
+    }
+
+    public FieldError validatePassword(char[] password) {
+        if (password != null) {
+            for (char c : password) {
+                if (c > ' ') {
+                    return null;
+                }
+            }
+        }
+        return FieldError.PASSWORD_REQUIRED;
+    }
+
+    // Strict yyyy-MM-dd (month and day may have one digit): the month and day must exist and
+    // nothing may follow the date
+    public FieldError validateBirthDate(String birthDate) {
+        if (birthDate == null) {
+            return FieldError.BIRTH_DATE_INVALID;
+        }
+        int start = trimStart(birthDate);
+        int end = trimEnd(birthDate, start);
+        int yearEnd = start + 4;
+        if (yearEnd >= end || birthDate.charAt(yearEnd) != '-') {
+            return FieldError.BIRTH_DATE_INVALID;
+        }
+        int monthEnd = birthDate.indexOf('-', yearEnd + 1);
+        if (monthEnd < 0 || monthEnd >= end) {
+            return FieldError.BIRTH_DATE_INVALID;
+        }
+        int year = parseDigits(birthDate, start, yearEnd, 4);
+        int month = parseDigits(birthDate, yearEnd + 1, monthEnd, 2);
+        int day = parseDigits(birthDate, monthEnd + 1, end, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return FieldError.BIRTH_DATE_INVALID;
+        }
+        return null;
+    }
+
+    public FieldError validateGender(String gender) {
+        return gender == null ? FieldError.GENDER_REQUIRED : null;
+    }
+
+    private static List<FieldError> add(List<FieldError> errors, FieldError error) {
+        if (error == null) {
+            return errors;
+        }
+        if (errors == null) {
+            errors = new ArrayList<>();
+        }
+        errors.add(error);
+        return errors;
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || trimStart(text) == text.length();
+    }
+
+    private static int trimStart(String text) {
+        int start = 0;
+        while (start < text.length() && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(String text, int start) {
+        int end = text.length();
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWordOrDotOrDash(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9') || c == '_' || c == '.' || c == '-';
+    }
+
+    // Returns -1 unless [from, to) is 1 to maxDigits ASCII digits
+    private static int parseDigits(String text, int from, int to, int maxDigits) {
+        if (to <= from || to - from > maxDigits) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistrationValidatorTest {
+    private RegistrationValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new RegistrationValidator();
+    }
+
+    @Test
+    void testValidate_validRegistration() {
+        RegistrationValidator.Result result = validator.validate(new RegistrationValidator.Registration(
+                "alice", "alice@example.com", "secret".toCharArray(), "1990-04-12", "Female"));
+        assertTrue(result.isValid());
+        assertSame(RegistrationValidator.Result.VALID, result);
+    }
+
+    @Test
+    void testValidate_reportsAllErrorsInOrder() {
+        RegistrationValidator.Result result = validator.validate(new RegistrationValidator.Registration(
+                " ", "", "  ".toCharArray(), "", null));
+        assertEquals(List.of(RegistrationValidator.FieldError.USERNAME_REQUIRED,
+                RegistrationValidator.FieldError.EMAIL_INVALID,
+                RegistrationValidator.FieldError.PASSWORD_REQUIRED,
+                RegistrationValidator.FieldError.BIRTH_DATE_INVALID,
+                RegistrationValidator.FieldError.GENDER_REQUIRED), result.getErrors());
+    }
+
+    @Test
+    void testValidateEmail_matchesOriginalPattern() {
+        assertNull(validator.validateEmail("john.doe-1@mail.example.org"));
+        assertNull(validator.validateEmail(" a@b.co "));
+        assertNotNull(validator.validateEmail("a@b.c"));
+        assertNotNull(validator.validateEmail("a@.com"));
+        assertNotNull(validator.validateEmail("a+b@example.com"));
+        assertNotNull(validator.validateEmail("a@example.c0m"));
+        assertNotNull(validator.validateEmail("a@b@example.com"));
+        assertNotNull(validator.validateEmail("example.com"));
+    }
+
+    @Test
+    void testValidateBirthDate_strictFormat() {
+        assertNull(validator.validateBirthDate("2000-02-29"));
+        assertNull(validator.validateBirthDate("2000-2-9"));
+        assertNotNull(validator.validateBirthDate("1900-02-29"));
+        assertNotNull(validator.validateBirthDate("2020-13-01"));
+        assertNotNull(validator.validateBirthDate("2020-04-31"));
+        assertNotNull(validator.validateBirthDate("2020-01-01abc"));
+        assertNotNull(validator.validateBirthDate("01/01/2020"));
+    }
+}
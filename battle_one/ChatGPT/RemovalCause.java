@@ -0,0 +1,6 @@
+// Why an entry left the cache
+public enum RemovalCause {
+    EXPLICIT, // removed through remove() or clear()
+    REPLACED, // overwritten by a put for the same key
+    EVICTED   // dropped to stay within the max size or max weight
+}
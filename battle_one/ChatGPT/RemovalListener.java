@@ -0,0 +1,5 @@
+// Gets told about every entry that leaves the cache, e.g. to close a handle or write a value back.
+// Runs on the executor passed to setRemovalListener, never while the cache is locked.
+public interface RemovalListener<K, V> {
+    void onRemoval(K key, V value, RemovalCause cause);
+}
@@ -0,0 +1,83 @@
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+// Segmented LRU: keys start in probation and move to a protected segment on their second use,
+// so one-off keys such as those of a scan are evicted first
+public final class SegmentedLruPolicy<K> implements EvictionPolicy<K> {
+    private static final double DEFAULT_PROTECTED_SHARE = 0.8;
+
+    private final int protectedCapacity;
+    private final LinkedHashSet<K> probation;
+    private final LinkedHashSet<K> protectedSegment;
+
+    // Reserve 80% of the capacity for protected keys
+    public SegmentedLruPolicy(int maxSize) {
+        this(maxSize, DEFAULT_PROTECTED_SHARE);
+    }
+
+    public SegmentedLruPolicy(int maxSize, double protectedShare) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+        if (!(protectedShare >= 0.0 && protectedShare < 1.0)) {
+            throw new IllegalArgumentException("Protected share must be in [0, 1)");
+        }
+
+        this.protectedCapacity = (int) (maxSize * protectedShare);
+        this.probation = new LinkedHashSet<>();
+        this.protectedSegment = new LinkedHashSet<>();
+    }
+
+    @Override
+    public void onInsert(K key) {
+        probation.add(key);
+    }
+
+    @Override
+    public void onAccess(K key) {
+        if (probation.remove(key)) {
+            protectedSegment.add(key);
+            if (protectedSegment.size() > protectedCapacity) {
+                probation.add(pollFirst(protectedSegment));
+            }
+        } else if (protectedSegment.remove(key)) {
+            protectedSegment.add(key);
+        }
+    }
+
+    @Override
+    public void onRemove(K key) {
+        if (!probation.remove(key)) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    @Override
+    public K evict() {
+        K victim = pollFirst(probation);
+        return victim != null ? victim : pollFirst(protectedSegment);
+    }
+
+    // The key evict() would return, without removing it
+    K peekVictim() {
+        if (!probation.isEmpty()) {
+            return probation.iterator().next();
+        }
+        return protectedSegment.isEmpty() ? null : protectedSegment.iterator().next();
+    }
+
+    int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    // Remove and return the least recently used key of a segment, or null if empty
+    static <K> K pollFirst(LinkedHashSet<K> segment) {
+        Iterator<K> iterator = segment.iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        K first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+}
@@ -0,0 +1,265 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shopping cart with an O(1) running subtotal kept in integer cents.
+// Prices come from a PriceCatalog at getTotal time: all unpriced lines are fetched in one batch,
+// and a new catalog version reprices every line. Priced lines live in parallel primitive arrays
+// found through an open-addressing table, so big carts hold no per-line objects. Their item IDs
+// are interned to ints shared by all carts, but only once the catalog has priced them: a new line
+// waits under its String ID until then, so unknown IDs never enter the global table. Not thread-safe.
+public class ShoppingCart {
+
+    private static final Map<String, Long> DEFAULT_PRICES_CENTS = Map.of("item1", 1000L, "item2", 2000L);
+    private static final int BASIS_POINTS = 10000;
+    private static final long UNPRICED = -1;
+
+    // Global item ID <-> int index
+    private static final ConcurrentHashMap<String, Integer> ITEM_INDEXES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, String> ITEM_IDS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ITEM_INDEX = new AtomicInteger();
+
+    private final PriceCatalog catalog;
+    private int[] itemIndexes = new int[8];
+    private int[] quantities = new int[8];
+    private long[] unitPricesCents = new long[8];
+    private int[] slots = new int[16]; // line + 1, 0 = empty; kept at most half full
+    private int lineCount;
+    private final Map<String, Integer> pendingQuantities = new HashMap<>(); // new lines, not priced or interned yet
+    private long subtotalCents; // priced lines only
+    private int unpricedLineCount;
+    private long pricedVersion;
+    private int discountBasisPoints;
+
+    public ShoppingCart() {
+        this(DEFAULT_PRICES_CENTS);
+    }
+
+    public ShoppingCart(Map<String, Long> pricesCents) {
+        this(new InMemoryPriceCatalog(pricesCents));
+    }
+
+    public ShoppingCart(PriceCatalog catalog) {
+        if (catalog == null) {
+            throw new IllegalArgumentException("Price catalog must not be null");
+        }
+        this.catalog = catalog;
+        this.pricedVersion = catalog.version();
+    }
+
+    public void addItem(String itemId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (itemId == null) {
+            throw new IllegalArgumentException("Item ID must not be null");
+        }
+
+        int line = findLine(itemId);
+        if (line < 0) {
+            pendingQuantities.merge(itemId, quantity, Math::addExact); // priced in the next getTotal batch
+            return;
+        }
+        int newQuantity = Math.addExact(quantities[line], quantity);
+        if (unitPricesCents[line] != UNPRICED) {
+            subtotalCents = Math.addExact(subtotalCents, Math.multiplyExact(unitPricesCents[line], (long) quantity));
+        }
+        quantities[line] = newQuantity;
+    }
+
+    // Removing an item that is not in the cart is a no-op
+    public void removeItem(String itemId) {
+        if (itemId != null && pendingQuantities.remove(itemId) != null) {
+            return;
+        }
+        int line = findLine(itemId);
+        if (line < 0) {
+            return;
+        }
+        if (unitPricesCents[line] == UNPRICED) {
+            unpricedLineCount--;
+        } else {
+            subtotalCents -= unitPricesCents[line] * quantities[line];
+        }
+        removeLine(line);
+    }
+
+    public int getItemQuantity(String itemId) {
+        Integer pending = itemId == null ? null : pendingQuantities.get(itemId);
+        if (pending != null) {
+            return pending;
+        }
+        int line = findLine(itemId);
+        return line < 0 ? 0 : quantities[line];
+    }
+
+    public int getLineCount() {
+        return lineCount + pendingQuantities.size();
+    }
+
+    // Replaces any previous discount; stored in basis points (hundredths of a percent)
+    public void applyDiscount(double percentage) {
+        if (!(percentage >= 0 && percentage <= 100)) {
+            throw new IllegalArgumentException("Discount percentage must be between 0 and 100");
+        }
+        discountBasisPoints = (int) Math.round(percentage * 100);
+    }
+
+    // Discount rounded half up to the cent; split to avoid overflowing subtotal * 10000
+    // Throws IllegalStateException if the catalog has no price for some item in the cart
+    public long getTotalCents() {
+        priceLines();
+        long discount = (subtotalCents / BASIS_POINTS) * discountBasisPoints
+                + ((subtotalCents % BASIS_POINTS) * discountBasisPoints + BASIS_POINTS / 2) / BASIS_POINTS;
+        return subtotalCents - discount;
+    }
+
+    public double getTotal() {
+        return getTotalCents() / 100.0;
+    }
+
+    // One catalog call for every unpriced and pending line; nothing changes unless all of them get a price
+    private void priceLines() {
+        long version = catalog.version();
+        if (version != pricedVersion) {
+            Arrays.fill(unitPricesCents, 0, lineCount, UNPRICED);
+            subtotalCents = 0;
+            unpricedLineCount = lineCount;
+            pricedVersion = version;
+        }
+        if (unpricedLineCount == 0 && pendingQuantities.isEmpty()) {
+            return;
+        }
+
+        List<Integer> unpriced = new ArrayList<>();
+        Set<String> itemIds = new HashSet<>(pendingQuantities.keySet());
+        for (int line = 0; line < lineCount; line++) {
+            if (unitPricesCents[line] == UNPRICED) {
+                unpriced.add(line);
+                itemIds.add(itemIdOf(itemIndexes[line]));
+            }
+        }
+        Map<String, Long> prices = catalog.getPrices(itemIds);
+        long newSubtotal = subtotalCents;
+        for (int line : unpriced) {
+            long price = priceOf(prices, itemIdOf(itemIndexes[line]));
+            newSubtotal = Math.addExact(newSubtotal, Math.multiplyExact(price, (long) quantities[line]));
+        }
+        for (Map.Entry<String, Integer> pending : pendingQuantities.entrySet()) {
+            long price = priceOf(prices, pending.getKey());
+            newSubtotal = Math.addExact(newSubtotal, Math.multiplyExact(price, (long) pending.getValue()));
+        }
+        for (int line : unpriced) {
+            unitPricesCents[line] = prices.get(itemIdOf(itemIndexes[line]));
+        }
+        for (Map.Entry<String, Integer> pending : pendingQuantities.entrySet()) {
+            addLine(internItem(pending.getKey()), pending.getValue(), prices.get(pending.getKey()));
+        }
+        pendingQuantities.clear();
+        subtotalCents = newSubtotal;
+        unpricedLineCount = 0;
+    }
+
+    private static long priceOf(Map<String, Long> prices, String itemId) {
+        Long price = prices.get(itemId);
+        if (price == null || price < 0) {
+            throw new IllegalStateException("No price for item: " + itemId);
+        }
+        return price;
+    }
+
+    private static int internItem(String itemId) {
+        return ITEM_INDEXES.computeIfAbsent(itemId, id -> {
+            int index = NEXT_ITEM_INDEX.getAndIncrement();
+            ITEM_IDS.put(index, id);
+            return index;
+        });
+    }
+
+    private static String itemIdOf(int item) {
+        return ITEM_IDS.get(item);
+    }
+
+    private int findLine(String itemId) {
+        Integer item = itemId == null ? null : ITEM_INDEXES.get(itemId);
+        return item == null ? -1 : findLine(item);
+    }
+
+    private int findLine(int item) {
+        int mask = slots.length - 1;
+        for (int slot = hash(item) & mask; ; slot = (slot + 1) & mask) {
+            int line = slots[slot] - 1;
+            if (line < 0 || itemIndexes[line] == item) {
+                return line;
+            }
+        }
+    }
+
+    private void addLine(int item, int quantity, long unitPriceCents) {
+        if (lineCount == itemIndexes.length) {
+            int capacity = lineCount * 2;
+            itemIndexes = Arrays.copyOf(itemIndexes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            unitPricesCents = Arrays.copyOf(unitPricesCents, capacity);
+            slots = new int[capacity * 2];
+            for (int line = 0; line < lineCount; line++) {
+                placeLine(line);
+            }
+        }
+        itemIndexes[lineCount] = item;
+        quantities[lineCount] = quantity;
+        unitPricesCents[lineCount] = unitPriceCents;
+        placeLine(lineCount++);
+    }
+
+    private void placeLine(int line) {
+        int mask = slots.length - 1;
+        int slot = hash(itemIndexes[line]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = line + 1;
+    }
+
+    // Backward-shift delete of the line's slot (no tombstones), then swap the last line into the gap
+    private void removeLine(int line) {
+        int mask = slots.length - 1;
+        int hole = slotOf(line);
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            int home = hash(itemIndexes[slots[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+
+        int last = --lineCount;
+        if (line != last) {
+            slots[slotOf(last)] = line + 1;
+            itemIndexes[line] = itemIndexes[last];
+            quantities[line] = quantities[last];
+            unitPricesCents[line] = unitPricesCents[last];
+        }
+    }
+
+    private int slotOf(int line) {
+        int mask = slots.length - 1;
+        int slot = hash(itemIndexes[line]) & mask;
+        while (slots[slot] != line + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(int item) {
+        int h = item * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
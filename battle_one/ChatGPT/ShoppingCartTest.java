@@ -3,6 +3,13 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
 class ShoppingCartTest {
     private ShoppingCart shoppingCart;
 
@@ -106,4 +113,120 @@ class ShoppingCartTest {
         shoppingCart.removeItem("item1");
         assertEquals(20, shoppingCart.getTotal(), 0.001); // Only item2 remains
     }
+
+    @Test
+    void testLargeCart_removeEveryOtherLine() {
+        Map<String, Long> prices = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            prices.put("item" + i, 1L);
+        }
+        ShoppingCart cart = new ShoppingCart(prices);
+        for (int i = 0; i < 10000; i++) {
+            cart.addItem("item" + i, 1);
+        }
+        for (int i = 1; i < 10000; i += 2) {
+            cart.removeItem("item" + i);
+        }
+        assertEquals(5000, cart.getLineCount());
+        assertEquals(5000, cart.getTotalCents()); // one cent per remaining line
+        assertEquals(1, cart.getItemQuantity("item9998"));
+        assertEquals(0, cart.getItemQuantity("item9999"));
+    }
+
+    @Test
+    void testGetTotalCents_tenDimesMakeOneDollar() {
+        ShoppingCart cart = new ShoppingCart(Map.of("dime", 10L));
+        for (int i = 0; i < 10; i++) {
+            cart.addItem("dime", 1);
+        }
+        assertEquals(100, cart.getTotalCents());
+        assertEquals(1.0, cart.getTotal(), 0.0); // summing 0.1 ten times in doubles gives 0.9999999999999999
+    }
+
+    @Test
+    void testGetTotal_newLinesPricedInOneBatch() {
+        InMemoryPriceCatalog catalog = new InMemoryPriceCatalog(Map.of("item1", 1000L, "item2", 2000L, "item3", 500L));
+        ShoppingCart cart = new ShoppingCart(catalog);
+        cart.addItem("item1", 1);
+        cart.addItem("item2", 1);
+        cart.addItem("item3", 2);
+        assertEquals(4000, cart.getTotalCents());
+        assertEquals(1, catalog.getBatchCount()); // one call for all three lines
+        cart.addItem("item1", 1);
+        assertEquals(5000, cart.getTotalCents());
+        assertEquals(1, catalog.getBatchCount()); // line already priced
+    }
+
+    @Test
+    void testGetTotal_repricesAfterCatalogVersionChange() {
+        InMemoryPriceCatalog catalog = new InMemoryPriceCatalog(Map.of("item1", 1000L, "item2", 2000L));
+        ShoppingCart cart = new ShoppingCart(catalog);
+        cart.addItem("item1", 2);
+        cart.addItem("item2", 1);
+        assertEquals(4000, cart.getTotalCents());
+        catalog.setPrice("item2", 2500L);
+        assertEquals(4500, cart.getTotalCents());
+    }
+
+    @Test
+    void testGetTotal_unknownItemFails() {
+        shoppingCart.addItem("unknown", 1);
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> shoppingCart.getTotal());
+        assertEquals("No price for item: unknown", exception.getMessage());
+    }
+
+    @Test
+    void testCachingCatalog_fetchesOnlyMissesInOneBatch() {
+        InMemoryPriceCatalog source = new InMemoryPriceCatalog(Map.of("a", 100L, "b", 200L, "c", 300L));
+        List<Set<String>> requests = new ArrayList<>();
+        CachingPriceCatalog cached = new CachingPriceCatalog(recording(source, source::version, requests), 100);
+        ShoppingCart first = new ShoppingCart(cached);
+        first.addItem("a", 1);
+        first.addItem("b", 1);
+        assertEquals(300, first.getTotalCents());
+        ShoppingCart second = new ShoppingCart(cached);
+        second.addItem("b", 1);
+        second.addItem("c", 1);
+        assertEquals(500, second.getTotalCents());
+        assertEquals(List.of(Set.of("a", "b"), Set.of("c")), requests); // second cart only fetched "c"
+
+        source.setPrice("b", 250L); // new version drops every cached price
+        assertEquals(550, second.getTotalCents());
+        assertEquals(Set.of("b", "c"), requests.get(2));
+        assertEquals(350, first.getTotalCents());
+        assertEquals(Set.of("a"), requests.get(3));
+    }
+
+    @Test
+    void testCachingCatalog_olderVersionReadKeepsCache() {
+        InMemoryPriceCatalog source = new InMemoryPriceCatalog(Map.of("a", 100L));
+        long[] version = {1};
+        List<Set<String>> requests = new ArrayList<>();
+        CachingPriceCatalog cached = new CachingPriceCatalog(recording(source, () -> version[0], requests), 100);
+        version[0] = 2;
+        assertEquals(Map.of("a", 100L), cached.getPrices(Set.of("a")));
+
+        version[0] = 1; // a caller that read the version just before it moved to 2
+        assertEquals(Map.of("a", 100L), cached.getPrices(Set.of("a")));
+        version[0] = 2;
+        assertEquals(Map.of("a", 100L), cached.getPrices(Set.of("a")));
+        assertEquals(1, requests.size()); // neither call cleared the cache
+    }
+
+    // Source that logs every batch it is asked for and reports the given version
+    private static PriceCatalog recording(PriceCatalog source, LongSupplier version,
+                                          List<Set<String>> requests) {
+        return new PriceCatalog() {
+            @Override
+            public Map<String, Long> getPrices(Set<String> itemIds) {
+                requests.add(Set.copyOf(itemIds));
+                return source.getPrices(itemIds);
+            }
+
+            @Override
+            public long version() {
+                return version.getAsLong();
+            }
+        };
+    }
 }
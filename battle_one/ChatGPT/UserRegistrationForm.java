@@ -2,9 +2,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
 
 public class UserRegistrationForm extends JFrame {
 
@@ -16,6 +20,13 @@ public class UserRegistrationForm extends JFrame {
     private JRadioButton femaleButton;
     private JRadioButton otherButton;
     private JButton submitButton;
+    private JLabel errorLabel;
+    private final RegistrationValidator validator = new RegistrationValidator();
+    // Current error per field, kept in form order
+    private final Map<RegistrationValidator.Field, RegistrationValidator.FieldError> fieldErrors =
+            new EnumMap<>(RegistrationValidator.Field.class);
+
+    private static final int VALIDATION_DELAY_MS = 300;
 
     public UserRegistrationForm() {
         setTitle("User Registration");
@@ -58,6 +69,12 @@ public class UserRegistrationForm extends JFrame {
         genderPanel.add(otherButton);
         add(genderPanel);
 
+        // Errors
+        add(new JLabel());
+        errorLabel = new JLabel();
+        errorLabel.setForeground(Color.RED);
+        add(errorLabel);
+
         // Submit Button
         submitButton = new JButton("Submit");
         add(new JLabel()); // Empty label for alignment
@@ -71,55 +88,145 @@ public class UserRegistrationForm extends JFrame {
             }
         });
 
-        setVisible(true);
+        // Debounced per-field checks while typing
+        validateWhileTyping(usernameField, RegistrationValidator.Field.USERNAME);
+        validateWhileTyping(emailField, RegistrationValidator.Field.EMAIL);
+        validateWhileTyping(passwordField, RegistrationValidator.Field.PASSWORD);
+        validateWhileTyping(birthDateField, RegistrationValidator.Field.BIRTH_DATE);
+        ActionListener genderListener = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showFieldError(RegistrationValidator.Field.GENDER, validator.validateGender(selectedGender()));
+            }
+        };
+        maleButton.addActionListener(genderListener);
+        femaleButton.addActionListener(genderListener);
+        otherButton.addActionListener(genderListener);
     }
 
+    // Validation (and any future registration work) runs on a SwingWorker, not the EDT
     private void handleSubmit() {
-        String username = usernameField.getText().trim();
-        String email = emailField.getText().trim();
-        String password = new String(passwordField.getPassword()).trim();
-        String birthDateStr = birthDateField.getText().trim();
-        String gender = null;
+        final RegistrationValidator.Registration registration = new RegistrationValidator.Registration(
+                usernameField.getText(), emailField.getText(), passwordField.getPassword(),
+                birthDateField.getText(), selectedGender());
+        submitButton.setEnabled(false);
+
+        new SwingWorker<RegistrationValidator.Result, Void>() {
+            @Override
+            protected RegistrationValidator.Result doInBackground() {
+                return validator.validate(registration);
+            }
+
+            @Override
+            protected void done() {
+                Arrays.fill(registration.getPassword(), '\0'); // don't leave the password copy in memory
+                submitButton.setEnabled(true);
+                RegistrationValidator.Result result;
+                try {
+                    result = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    // Show the cause's own message, not the wrapper's "java.lang.X: ..." text
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    errorLabel.setText("Registration failed: " + cause.getMessage());
+                    return;
+                }
+
+                fieldErrors.clear();
+                for (RegistrationValidator.FieldError error : result.getErrors()) {
+                    fieldErrors.put(error.getField(), error);
+                }
+                showErrors();
+                if (result.isValid()) {
+                    JOptionPane.showMessageDialog(UserRegistrationForm.this, "Registration successful!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                }
+            }
+        }.execute();
+    }
 
+    private String selectedGender() {
         if (maleButton.isSelected()) {
-            gender = "Male";
+            return "Male";
         } else if (femaleButton.isSelected()) {
-            gender = "Female";
+            return "Female";
         } else if (otherButton.isSelected()) {
-            gender = "Other";
+            return "Other";
         }
+        return null;
+    }
 
-        // Validate inputs
-        StringBuilder errors = new StringBuilder();
+    // Re-checks only this field once typing pauses
+    private void validateWhileTyping(final JTextComponent field, final RegistrationValidator.Field which) {
+        final Timer timer = new Timer(VALIDATION_DELAY_MS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showFieldError(which, validateField(which));
+            }
+        });
+        timer.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timer.restart();
+            }
 
-        if (username.isEmpty()) {
-            errors.append("- Username is required.\n");
-        }
-        if (email.isEmpty() || !email.matches("^[\\w-\\.]+@[\\w-\\.]+\\.[a-zA-Z]{2,}$")) {
-            errors.append("- Enter a valid email address.\n");
-        }
-        if (password.isEmpty()) {
-            errors.append("- Password is required.\n");
-        }
-        Date birthDate = null;
-        try {
-            birthDate = new SimpleDateFormat("yyyy-MM-dd").parse(birthDateStr);
-        } catch (ParseException e) {
-            errors.append("- Enter a valid birth date in the format yyyy-MM-dd.\n");
-        }
-        if (gender == null) {
-            errors.append("- Select a gender.\n");
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+        });
+    }
+
+    private RegistrationValidator.FieldError validateField(RegistrationValidator.Field field) {
+        switch (field) {
+            case USERNAME:
+                return validator.validateUsername(usernameField.getText());
+            case EMAIL:
+                return validator.validateEmail(emailField.getText());
+            case PASSWORD:
+                char[] password = passwordField.getPassword();
+                RegistrationValidator.FieldError error = validator.validatePassword(password);
+                Arrays.fill(password, '\0');
+                return error;
+            case BIRTH_DATE:
+                return validator.validateBirthDate(birthDateField.getText());
+            default:
+                return validator.validateGender(selectedGender());
         }
+    }
 
-        // Show errors or success message
-        if (errors.length() > 0) {
-            JOptionPane.showMessageDialog(this, errors.toString(), "Validation Errors", JOptionPane.ERROR_MESSAGE);
+    private void showFieldError(RegistrationValidator.Field field, RegistrationValidator.FieldError error) {
+        if (error == null) {
+            fieldErrors.remove(field);
         } else {
-            JOptionPane.showMessageDialog(this, "Registration successful!", "Success", JOptionPane.INFORMATION_MESSAGE);
+            fieldErrors.put(field, error);
         }
+        showErrors();
+    }
+
+    private void showErrors() {
+        if (fieldErrors.isEmpty()) {
+            errorLabel.setText("");
+            return;
+        }
+        StringBuilder errors = new StringBuilder("<html>");
+        for (RegistrationValidator.FieldError error : fieldErrors.values()) {
+            errors.append("- ").append(error.getMessage()).append("<br>");
+        }
+        errorLabel.setText(errors.append("</html>").toString());
     }
 
     public static void main(String[] args) {
-        new UserRegistrationForm();
+        // Build and show the form on the EDT; showing it is left to the caller
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                new UserRegistrationForm().setVisible(true);
+            }
+        });
     }
 }
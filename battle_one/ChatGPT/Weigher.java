@@ -0,0 +1,5 @@
+// Computes the weight of a cache entry, e.g. its size in bytes.
+// Must return the same weight for the same entry every time it is called.
+public interface Weigher<K, V> {
+    int weigh(K key, V value);
+}
@@ -0,0 +1,69 @@
+import java.util.LinkedHashSet;
+
+// W-TinyLFU: a small LRU window in front of a segmented LRU main space; a key leaving the window
+// is only admitted if it is used more often than the main space's victim
+public final class WindowTinyLfuPolicy<K> implements EvictionPolicy<K> {
+    private static final double WINDOW_SHARE = 0.01;
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final LinkedHashSet<K> window;
+    private final SegmentedLruPolicy<K> main;
+    private final CountMinSketch sketch;
+
+    public WindowTinyLfuPolicy(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+
+        this.windowCapacity = Math.max(1, (int) (maxSize * WINDOW_SHARE));
+        this.mainCapacity = Math.max(1, maxSize - windowCapacity);
+        this.window = new LinkedHashSet<>();
+        this.main = new SegmentedLruPolicy<>(mainCapacity);
+        this.sketch = new CountMinSketch(maxSize);
+    }
+
+    @Override
+    public void onInsert(K key) {
+        sketch.increment(key);
+        window.add(key);
+    }
+
+    @Override
+    public void onAccess(K key) {
+        sketch.increment(key);
+        if (window.remove(key)) {
+            window.add(key);
+        } else {
+            main.onAccess(key);
+        }
+    }
+
+    @Override
+    public void onRemove(K key) {
+        if (!window.remove(key)) {
+            main.onRemove(key);
+        }
+    }
+
+    @Override
+    public K evict() {
+        // While the main space is filling up, keys leave the window without a contest
+        while (window.size() > windowCapacity && main.size() < mainCapacity) {
+            main.onInsert(SegmentedLruPolicy.pollFirst(window));
+        }
+        if (window.size() <= windowCapacity) {
+            K victim = main.evict();
+            return victim != null ? victim : SegmentedLruPolicy.pollFirst(window);
+        }
+
+        K candidate = SegmentedLruPolicy.pollFirst(window);
+        K victim = main.peekVictim();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            main.onRemove(victim);
+            main.onInsert(candidate);
+            return victim;
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.LinkedHashSet;
+
+/**
+ * Adaptive Replacement Cache (Megiddo and Modha). Resident keys are split between a list of keys
+ * seen once (T1) and a list of keys seen at least twice (T2). Evicted keys are remembered in ghost
+ * lists B1 and B2, and a later miss on a ghost shifts the target size of T1 toward whichever list
+ * would have kept it. The policy thereby tunes itself between recency and frequency, and a scan
+ * only churns T1 while T2 keeps the working set.
+ *
+ * The ghost lists hold up to another maxSize keys, but no values.
+ * @param <K> the type of keys tracked by the policy
+ */
+public final class ArcPolicy<K> implements EvictionPolicy<K> {
+    private final int capacity;
+    private final LinkedHashSet<K> recent;
+    private final LinkedHashSet<K> frequent;
+    private final LinkedHashSet<K> recentGhosts;
+    private final LinkedHashSet<K> frequentGhosts;
+    private int recentTarget;
+    private boolean frequentGhostHit;
+    
+    /**
+     * Creates an ARC policy for a cache of the given size.
+     * @param maxSize the number of entries the cache holds
+     * @throws IllegalArgumentException if maxSize is less than 1
+     */
+    public ArcPolicy(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        
+        this.capacity = maxSize;
+        this.recent = new LinkedHashSet<>();
+        this.frequent = new LinkedHashSet<>();
+        this.recentGhosts = new LinkedHashSet<>();
+        this.frequentGhosts = new LinkedHashSet<>();
+    }
+    
+    @Override
+    public void onInsert(K key) {
+        int recentGhostCount = recentGhosts.size();
+        int frequentGhostCount = frequentGhosts.size();
+        if (recentGhosts.remove(key)) {
+            // T1 was too small to keep this key: grow its target
+            recentTarget = Math.min(capacity, recentTarget + Math.max(1, frequentGhostCount / recentGhostCount));
+            frequent.add(key);
+        } else if (frequentGhosts.remove(key)) {
+            // T2 was too small to keep this key: shrink T1's target in its favour
+            recentTarget = Math.max(0, recentTarget - Math.max(1, recentGhostCount / frequentGhostCount));
+            frequent.add(key);
+            frequentGhostHit = true;
+        } else {
+            recent.add(key);
+        }
+    }
+    
+    @Override
+    public void onAccess(K key) {
+        if (recent.remove(key) || frequent.remove(key)) {
+            frequent.add(key);
+        }
+    }
+    
+    @Override
+    public void onRemove(K key) {
+        if (!recent.remove(key)) {
+            frequent.remove(key);
+        }
+    }
+    
+    @Override
+    public K evict() {
+        K victim;
+        int recentSize = recent.size();
+        if (recentSize > 0 && (recentSize > recentTarget || (frequentGhostHit && recentSize == recentTarget)
+                || frequent.isEmpty())) {
+            victim = SegmentedLruPolicy.pollFirst(recent);
+            recentGhosts.add(victim);
+        } else {
+            victim = SegmentedLruPolicy.pollFirst(frequent);
+            if (victim == null) {
+                return null;
+            }
+            frequentGhosts.add(victim);
+        }
+        frequentGhostHit = false;
+        
+        // Keep |T1| + |B1| <= c and the whole directory within 2c
+        while (recent.size() + recentGhosts.size() > capacity && !recentGhosts.isEmpty()) {
+            SegmentedLruPolicy.pollFirst(recentGhosts);
+        }
+        while (recent.size() + frequent.size() + recentGhosts.size() + frequentGhosts.size() > 2 * capacity
+                && !frequentGhosts.isEmpty()) {
+            SegmentedLruPolicy.pollFirst(frequentGhosts);
+        }
+        return victim;
+    }
+}
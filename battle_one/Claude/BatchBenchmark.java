@@ -0,0 +1,101 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the throughput of per-key and batched access to {@link LRUCache}, the way a request
+ * handler that needs a batch of keys at once would use it. Every thread repeatedly picks a batch of
+ * random keys and either reads or writes them, one call per key or one bulk call per batch.
+ *
+ * Usage: {@code java BatchBenchmark [threads] [batchSize] [seconds]}, defaulting to 4 threads,
+ * batches of 100 keys and 3 seconds per measurement. Results are in keys per second.
+ */
+public final class BatchBenchmark {
+    private static final int CACHE_SIZE = 50_000;
+    private static final int KEY_SPACE = 100_000;
+    
+    private BatchBenchmark() {
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        System.out.printf("%d threads, batches of %d keys, %d s per run%n", threads, batchSize, seconds);
+        
+        LRUCache<Integer, Integer> cache = new LRUCache<>(CACHE_SIZE);
+        for (int key = 0; key < KEY_SPACE; key += 2) {
+            cache.put(key, key);
+        }
+        
+        // The first pass warms up the JIT; only the second is reported
+        for (int pass = 0; pass < 2; pass++) {
+            boolean report = pass == 1;
+            run("get, per key", threads, batchSize, seconds, report, batch -> {
+                for (Integer key : batch) {
+                    cache.get(key);
+                }
+            });
+            run("getAll", threads, batchSize, seconds, report, cache::getAll);
+            run("put, per key", threads, batchSize, seconds, report, batch -> {
+                for (Integer key : batch) {
+                    cache.put(key, key);
+                }
+            });
+            run("putAll", threads, batchSize, seconds, report, batch -> {
+                Map<Integer, Integer> entries = new LinkedHashMap<>();
+                for (Integer key : batch) {
+                    entries.put(key, key);
+                }
+                cache.putAll(entries);
+            });
+        }
+    }
+    
+    private static void run(String name, int threads, int batchSize, int seconds, boolean report,
+                            BatchOperation operation) throws InterruptedException {
+        LongAdder keys = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long durationNanos = seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Integer> batch = new ArrayList<>(batchSize);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long deadline = System.nanoTime() + durationNanos;
+                while (System.nanoTime() < deadline) {
+                    batch.clear();
+                    for (int i = 0; i < batchSize; i++) {
+                        batch.add(random.nextInt(KEY_SPACE));
+                    }
+                    operation.apply(batch);
+                    keys.add(batchSize);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (report) {
+            System.out.printf("%-14s %,15.0f keys/s%n", name, keys.sum() / (double) seconds);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface BatchOperation {
+        void apply(List<Integer> batch);
+    }
+}
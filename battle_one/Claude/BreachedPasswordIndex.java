@@ -0,0 +1,195 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Rejects passwords that appear in a breach corpus, checked offline against a local file of
+ * SHA-1 hashes written by {@link #build}. Only the first 8 bytes of every hash are kept: 500
+ * million of them take 4 GB, and a password that is not in the corpus collides with one of them
+ * with a probability of about 3 in 100 billion.
+ *
+ * The file is a sorted array of fixed-width prefixes read through memory maps of 1 GiB each,
+ * so the heap only holds the maps themselves. SHA-1 hashes are uniformly distributed, so an
+ * interpolation search, which guesses where a prefix must be from its value, finds it in a
+ * handful of probes where a binary search would need around thirty; it falls back to bisecting
+ * should the guesses stop narrowing the range. Lookups are thread-safe.
+ */
+public class BreachedPasswordIndex implements RegistrationCheck {
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+    private static final int MAX_INTERPOLATION_PROBES = 8;
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(BreachedPasswordIndex::sha1);
+    
+    private final LongBuffer[] segments;
+    private final long count;
+    
+    private BreachedPasswordIndex(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = IndexFiles.readHeader(channel, BreachedPasswordIndexBuilder.HEADER_SIZE,
+                BreachedPasswordIndexBuilder.MAGIC, BreachedPasswordIndexBuilder.VERSION, "breached password index", file);
+            this.count = header.getLong();
+            if (count < 0 || BreachedPasswordIndexBuilder.HEADER_SIZE + count * Long.BYTES > channel.size()) {
+                throw new IOException("Truncated breached password index: " + file);
+            }
+            
+            // The mappings stay valid after the channel is closed
+            this.segments = new LongBuffer[(int) ((count + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long entries = Math.min(SEGMENT_ENTRIES, count - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    BreachedPasswordIndexBuilder.HEADER_SIZE + first * Long.BYTES, entries * Long.BYTES).asLongBuffer();
+            }
+        }
+    }
+    
+    /**
+     * Opens an index file.
+     * @param file an index file written by {@link #build}
+     * @return the index
+     * @throws IOException if the file cannot be read or is not a breached password index
+     */
+    public static BreachedPasswordIndex open(Path file) throws IOException {
+        return new BreachedPasswordIndex(file);
+    }
+    
+    /**
+     * Builds an index file from a text list, replacing the file atomically. The list is sorted on
+     * disk, so it may be far larger than the heap.
+     * @param list a UTF-8 text file with one entry per line
+     * @param plaintext true if the lines are passwords, false if they are SHA-1 hashes in hex,
+     *                  optionally followed by a colon and a count as in breach corpus downloads
+     * @param file the index file to write
+     * @return the number of distinct hash prefixes in the index
+     * @throws IOException if a file cannot be read or written, or a line is not a SHA-1 hash
+     */
+    public static long build(Path list, boolean plaintext, Path file) throws IOException {
+        if (list == null || file == null) {
+            throw new NullPointerException("Files cannot be null");
+        }
+        return BreachedPasswordIndexBuilder.build(list, plaintext, file);
+    }
+    
+    /**
+     * Builds an index from the command line.
+     * Usage: {@code java BreachedPasswordIndex [--plaintext] <list.txt> <index>}
+     * @param args the optional plaintext flag, the list and the index file
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        boolean plaintext = args.length == 3 && args[0].equals("--plaintext");
+        if (args.length != 2 && !plaintext) {
+            System.err.println("Usage: BreachedPasswordIndex [--plaintext] <list.txt> <index>");
+            System.exit(2);
+        }
+        long started = System.nanoTime();
+        long count = build(Path.of(args[args.length - 2]), plaintext, Path.of(args[args.length - 1]));
+        System.out.printf("Indexed %,d hashes in %.1f s%n", count, (System.nanoTime() - started) / 1e9);
+    }
+    
+    /**
+     * Returns whether a password appears in the breach corpus.
+     * @param password the password
+     * @return true if the index holds the prefix of the password's SHA-1 hash
+     * @throws NullPointerException if password is null
+     */
+    public boolean contains(char[] password) {
+        if (password == null) {
+            throw new NullPointerException("Password cannot be null");
+        }
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        MessageDigest sha1 = SHA1.get();
+        sha1.update(encoded.duplicate());
+        // The encoder's buffer holds the password in clear text
+        encoded.clear();
+        while (encoded.hasRemaining()) {
+            encoded.put((byte) 0);
+        }
+        return containsPrefix(prefixOf(sha1.digest()));
+    }
+    
+    /**
+     * Returns the number of distinct hash prefixes in the index.
+     * @return the entry count
+     */
+    public long size() {
+        return count;
+    }
+    
+    @Override
+    public FieldError.Field field() {
+        return FieldError.Field.PASSWORD;
+    }
+    
+    @Override
+    public FieldError check(Registration registration) {
+        return contains(registration.password()) ? FieldError.PASSWORD_BREACHED : null;
+    }
+    
+    /**
+     * Searches for a hash prefix, comparing prefixes as unsigned numbers.
+     */
+    boolean containsPrefix(long prefix) {
+        long low = 0;
+        long high = count - 1;
+        int probes = 0;
+        while (low <= high) {
+            long lowValue = get(low);
+            long highValue = get(high);
+            if (Long.compareUnsigned(prefix, lowValue) < 0 || Long.compareUnsigned(prefix, highValue) > 0) {
+                return false;
+            }
+            long middle;
+            if (probes++ < MAX_INTERPOLATION_PROBES && highValue != lowValue) {
+                // Guess the position from where the prefix lies between the values at the ends
+                double fraction = unsignedToDouble(prefix - lowValue) / unsignedToDouble(highValue - lowValue);
+                middle = low + (long) (fraction * (high - low));
+                middle = Math.max(low, Math.min(high, middle));
+            } else {
+                middle = (low + high) >>> 1;
+            }
+            int cmp = Long.compareUnsigned(get(middle), prefix);
+            if (cmp == 0) {
+                return true;
+            }
+            if (cmp < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return false;
+    }
+    
+    static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every Java platform is required to support SHA-1", e);
+        }
+    }
+    
+    static long prefixOf(byte[] hash) {
+        long prefix = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            prefix = prefix << 8 | (hash[i] & 0xFF);
+        }
+        return prefix;
+    }
+    
+    private long get(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & (SEGMENT_ENTRIES - 1)));
+    }
+    
+    private static double unsignedToDouble(long value) {
+        double d = (double) (value >>> 1) * 2.0;
+        return d + (value & 1);
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Writes the file read by {@link BreachedPasswordIndex}: a header of magic (int), version (int)
+ * and entry count (long), followed by the distinct 8-byte SHA-1 prefixes in ascending unsigned
+ * order, big-endian. The prefixes are sorted with an external merge sort in runs of 8M entries,
+ * so building an index of hundreds of millions of entries needs 64 MiB of heap.
+ */
+final class BreachedPasswordIndexBuilder {
+    static final int MAGIC = 0x42505749;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    
+    private static final int RUN_SIZE = 8 << 20;
+    
+    private BreachedPasswordIndexBuilder() {
+    }
+    
+    /**
+     * Builds an index from a text list and atomically replaces the target file.
+     * @param list a UTF-8 text file with one entry per line
+     * @param plaintext true if the lines are passwords, false if they are SHA-1 hashes in hex,
+     *                  optionally followed by a colon and a count as in breach corpus downloads
+     * @param target the index file to write
+     * @return the number of distinct prefixes written
+     * @throws IOException if a file cannot be read or written, or a hash line is malformed
+     */
+    static long build(Path list, boolean plaintext, Path target) throws IOException {
+        try (IndexFiles.Runs runs = new IndexFiles.Runs(target.toAbsolutePath().getParent(), "breached-")) {
+            long[] run = new long[RUN_SIZE];
+            int size = 0;
+            MessageDigest sha1 = BreachedPasswordIndex.sha1();
+            try (BufferedReader reader = Files.newBufferedReader(list, StandardCharsets.UTF_8)) {
+                String line;
+                long lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    long prefix;
+                    if (plaintext) {
+                        prefix = BreachedPasswordIndex.prefixOf(sha1.digest(line.getBytes(StandardCharsets.UTF_8)));
+                    } else if (isSha1Hex(line)) {
+                        prefix = Long.parseUnsignedLong(line, 0, 16, 16);
+                    } else {
+                        throw new IOException("Line " + lineNumber + " of " + list + " is not a SHA-1 hash");
+                    }
+                    // Flipping the sign bit makes signed order match unsigned order, so runs sort natively
+                    run[size++] = prefix ^ Long.MIN_VALUE;
+                    if (size == RUN_SIZE) {
+                        spill(run, size, runs);
+                        size = 0;
+                    }
+                }
+            }
+            if (size > 0) {
+                spill(run, size, runs);
+            }
+            return IndexFiles.replace(target, channel -> write(runs, channel));
+        }
+    }
+    
+    // Whether the line is 40 hex digits, optionally followed by a colon and anything else
+    private static boolean isSha1Hex(String line) {
+        int end = line.indexOf(':');
+        if (end < 0) {
+            end = line.length();
+            while (end > 0 && line.charAt(end - 1) <= ' ') {
+                end--;
+            }
+        }
+        if (end != 40) {
+            return false;
+        }
+        for (int i = 0; i < end; i++) {
+            if (Character.digit(line.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static void spill(long[] run, int size, IndexFiles.Runs runs) throws IOException {
+        Arrays.sort(run, 0, size);
+        runs.spill(out -> {
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || run[i] != run[i - 1]) {
+                    out.writeLong(run[i]);
+                }
+            }
+        });
+    }
+    
+    private static long write(IndexFiles.Runs runs, FileChannel channel) throws IOException {
+        channel.position(HEADER_SIZE);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        long count = 0;
+        long previous = 0;
+        try (IndexFiles.Merge<PrefixReader> merge = runs.merge(PrefixReader::new,
+                 (a, b) -> Long.compare(a.current, b.current))) {
+            PrefixReader reader;
+            while ((reader = merge.next()) != null) {
+                long value = reader.current;
+                if (count > 0 && value == previous) {
+                    continue;
+                }
+                out.writeLong(value ^ Long.MIN_VALUE);
+                previous = value;
+                count++;
+            }
+        }
+        out.flush();
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(count);
+        channel.write(header.flip(), 0);
+        return count;
+    }
+    
+    /**
+     * Reads the prefixes of a spilled run back in order.
+     */
+    private static final class PrefixReader extends IndexFiles.RunReader {
+        private long current;
+        
+        PrefixReader(Path run) throws IOException {
+            super(run);
+        }
+        
+        @Override
+        boolean advance() throws IOException {
+            try {
+                current = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+class BreachedPasswordIndexTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should find passwords from a plaintext list and no others")
+    void contains_PlaintextList_FindsListedPasswords() throws IOException {
+        Path list = Files.write(directory.resolve("passwords.txt"), List.of("123456", "password", "qwerty", "123456"));
+        Path file = directory.resolve("breached.idx");
+
+        assertEquals(3, BreachedPasswordIndex.build(list, true, file));
+        BreachedPasswordIndex index = BreachedPasswordIndex.open(file);
+
+        assertTrue(index.contains("password".toCharArray()));
+        assertTrue(index.contains("123456".toCharArray()));
+        assertFalse(index.contains("correct horse battery staple".toCharArray()));
+        assertFalse(index.contains("Password".toCharArray()));
+    }
+
+    @Test
+    @DisplayName("Should read hash lists with counts, as in breach corpus downloads")
+    void build_HashListWithCounts_IndexesHashes() throws IOException {
+        // SHA-1 of "password" and of "letmein"
+        Path list = Files.write(directory.resolve("hashes.txt"), List.of(
+            "5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8:3861493",
+            "b7a875fc1ea228b9061041b7cec4bd3c52ab3ce3:171245"));
+        Path file = directory.resolve("breached.idx");
+
+        assertEquals(2, BreachedPasswordIndex.build(list, false, file));
+        BreachedPasswordIndex index = BreachedPasswordIndex.open(file);
+
+        assertTrue(index.contains("password".toCharArray()));
+        assertTrue(index.contains("letmein".toCharArray()));
+        assertFalse(index.contains("hunter2".toCharArray()));
+    }
+
+    @Test
+    @DisplayName("Should find every prefix of a large random corpus with interpolation search")
+    void containsPrefix_RandomCorpus_FindsExactlyTheIndexedPrefixes() throws IOException {
+        Random random = new Random(3);
+        Set<Long> prefixes = new HashSet<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            long prefix = random.nextLong();
+            prefixes.add(prefix);
+            lines.add(String.format("%016X%024X", prefix, 0));
+        }
+        // Extremes of the unsigned range
+        prefixes.add(0L);
+        lines.add(String.format("%040X", 0));
+        prefixes.add(-1L);
+        lines.add("F".repeat(40));
+        Path file = directory.resolve("breached.idx");
+
+        assertEquals(prefixes.size(), BreachedPasswordIndex.build(Files.write(directory.resolve("hashes.txt"), lines), false, file));
+        BreachedPasswordIndex index = BreachedPasswordIndex.open(file);
+
+        for (long prefix : prefixes) {
+            assertTrue(index.containsPrefix(prefix), Long.toHexString(prefix));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            long prefix = random.nextLong();
+            assertEquals(prefixes.contains(prefix), index.containsPrefix(prefix));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a breached password only once it passes the length rule")
+    void validate_BreachedPassword_ReportsPasswordBreached() throws IOException {
+        Path file = directory.resolve("breached.idx");
+        BreachedPasswordIndex.build(Files.write(directory.resolve("passwords.txt"), List.of("password", "12345")), true, file);
+        RegistrationValidator validator = new RegistrationValidator(Clock.systemUTC(), BreachedPasswordIndex.open(file));
+
+        assertEquals(List.of(FieldError.PASSWORD_BREACHED), validator.validate(new Registration("alice",
+            "alice@example.com", "password".toCharArray(), new Date(0), Registration.Gender.FEMALE)).errors());
+        assertEquals(List.of(FieldError.PASSWORD_TOO_SHORT), validator.validate(new Registration("alice",
+            "alice@example.com", "12345".toCharArray(), new Date(0), Registration.Gender.FEMALE)).errors());
+    }
+
+    @Test
+    @DisplayName("Should refuse a list line that is not a SHA-1 hash")
+    void build_MalformedHash_ThrowsIOException() throws IOException {
+        Path list = Files.write(directory.resolve("hashes.txt"), List.of("not a hash"));
+
+        assertThrows(IOException.class, () -> BreachedPasswordIndex.build(list, false, directory.resolve("breached.idx")));
+        assertFalse(Files.exists(directory.resolve("breached.idx")));
+    }
+}
@@ -0,0 +1,262 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The file format of {@link LRUCache#snapshot} and {@link LRUCache#restore}. A snapshot is a
+ * fixed header followed by one record per entry, from the least to the most recently used:
+ *
+ * <pre>
+ * header: magic (int), version (int), completion time in epoch millis (long),
+ *         end of the last record (long), record count (int)
+ * record: key length (int), value length (int), nanos until the write deadline (long),
+ *         nanos until the entry expires (long), expire-after-access nanos (long),
+ *         key bytes, value bytes, record length without this field (int)
+ * </pre>
+ *
+ * The trailing length lets a reader walk the records backwards, most recently used first, so a
+ * restore that is cut short keeps the hottest entries. Times are stored relative to the moment the
+ * entry was copied, because ticker readings do not carry over to another process; -1 stands for
+ * no expiration. Files are read and written through memory-mapped windows, so a snapshot larger
+ * than the heap never has to fit in memory.
+ */
+final class CacheSnapshot {
+    static final long NO_EXPIRATION = -1;
+    
+    private static final int MAGIC = 0x4C525553;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+    private static final int RECORD_OVERHEAD = 36;
+    private static final int WINDOW_SIZE = 8 << 20;
+    
+    private CacheSnapshot() {
+    }
+    
+    /**
+     * One entry as it is written to or read from a snapshot.
+     */
+    static final class Entry<K, V> {
+        final K key;
+        final V value;
+        final long writeNanos;
+        final long expiresNanos;
+        final long accessNanos;
+        
+        Entry(K key, V value, long writeNanos, long expiresNanos, long accessNanos) {
+            this.key = key;
+            this.value = value;
+            this.writeNanos = writeNanos;
+            this.expiresNanos = expiresNanos;
+            this.accessNanos = accessNanos;
+        }
+    }
+    
+    /**
+     * Appends records to a temporary file next to the target and moves it into place when
+     * finished, so that an interrupted snapshot never replaces a complete one. Each writer has a
+     * temporary file of its own, so concurrent snapshots to the same target do not mix their
+     * records; the last one to finish wins.
+     */
+    static final class Writer<K, V> implements Closeable {
+        private final Path target;
+        private final Path temporary;
+        private final Serializer<K> keySerializer;
+        private final Serializer<V> valueSerializer;
+        private final FileChannel channel;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private int count;
+        private boolean finished;
+        
+        Writer(Path target, Serializer<K> keySerializer, Serializer<V> valueSerializer) throws IOException {
+            this.target = target;
+            this.temporary = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".tmp");
+            this.keySerializer = keySerializer;
+            this.valueSerializer = valueSerializer;
+            try {
+                this.channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            this.windowStart = HEADER_SIZE;
+            try {
+                this.window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, WINDOW_SIZE);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+        
+        void append(Entry<K, V> entry) throws IOException {
+            int keySize = keySerializer.serializedSize(entry.key);
+            int valueSize = valueSerializer.serializedSize(entry.value);
+            int length = RECORD_OVERHEAD - Integer.BYTES + keySize + valueSize;
+            if (length < 0) {
+                throw new IOException("Entry too large for a snapshot: " + entry.key);
+            }
+            ensureCapacity(length + Integer.BYTES);
+            
+            window.putInt(keySize);
+            window.putInt(valueSize);
+            window.putLong(entry.writeNanos);
+            window.putLong(entry.expiresNanos);
+            window.putLong(entry.accessNanos);
+            keySerializer.write(entry.key, window.slice(window.position(), keySize));
+            window.position(window.position() + keySize);
+            valueSerializer.write(entry.value, window.slice(window.position(), valueSize));
+            window.position(window.position() + valueSize);
+            window.putInt(length);
+            count++;
+        }
+        
+        /**
+         * Writes the header, flushes the records to disk and replaces the target file.
+         */
+        void finish() throws IOException {
+            long end = windowStart + window.position();
+            window.force();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).putLong(end).putInt(count);
+            channel.write(header.flip(), 0);
+            try {
+                // Drop the unused tail of the last window; some platforms refuse while it is mapped
+                channel.truncate(end);
+            } catch (IOException e) {
+                // The header records the end, so the padding is only wasted space
+            }
+            channel.force(true);
+            channel.close();
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            finished = true;
+        }
+        
+        int count() {
+            return count;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                channel.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+        
+        private void ensureCapacity(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                window.force();
+                windowStart += window.position();
+                window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_SIZE, bytes));
+            }
+        }
+    }
+    
+    /**
+     * Reads the records of a snapshot from the most to the least recently used.
+     */
+    static final class Reader<K, V> implements Closeable {
+        private final Serializer<K> keySerializer;
+        private final Serializer<V> valueSerializer;
+        private final FileChannel channel;
+        private final long createdMillis;
+        private final int count;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long windowEnd;
+        private long position;
+        
+        Reader(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer) throws IOException {
+            this.keySerializer = keySerializer;
+            this.valueSerializer = valueSerializer;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                    // Keep reading until the header is complete or the file ends
+                }
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                    throw new IOException("Not a complete cache snapshot: " + file);
+                }
+                int version = header.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported cache snapshot version " + version + ": " + file);
+                }
+                this.createdMillis = header.getLong();
+                this.position = header.getLong();
+                this.count = header.getInt();
+                if (position < HEADER_SIZE || position > channel.size()) {
+                    throw new IOException("Truncated cache snapshot: " + file);
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        
+        long createdMillis() {
+            return createdMillis;
+        }
+        
+        int count() {
+            return count;
+        }
+        
+        /**
+         * Reads the next record, moving from the most recently used entry towards the least.
+         * @return the entry, or null after the last one
+         */
+        Entry<K, V> previous() throws IOException {
+            if (position == HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer trailer = map(position - Integer.BYTES, position);
+            int length = trailer.getInt(0);
+            long start = position - Integer.BYTES - length;
+            if (length < RECORD_OVERHEAD - Integer.BYTES || start < HEADER_SIZE) {
+                throw new IOException("Corrupt cache snapshot record ending at offset " + position);
+            }
+            
+            ByteBuffer record = map(start, position - Integer.BYTES);
+            int keySize = record.getInt();
+            int valueSize = record.getInt();
+            if (keySize < 0 || valueSize < 0 || RECORD_OVERHEAD - Integer.BYTES + keySize + valueSize != length) {
+                throw new IOException("Corrupt cache snapshot record ending at offset " + position);
+            }
+            long writeNanos = record.getLong();
+            long expiresNanos = record.getLong();
+            long accessNanos = record.getLong();
+            K key = keySerializer.read(record.slice(record.position(), keySize));
+            V value = valueSerializer.read(record.slice(record.position() + keySize, valueSize));
+            position = start;
+            return new Entry<>(key, value, writeNanos, expiresNanos, accessNanos);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+        
+        // Returns a buffer over [from, to), remapping the window backwards when it does not cover it
+        private ByteBuffer map(long from, long to) throws IOException {
+            if (window == null || from < windowStart || to > windowEnd) {
+                windowEnd = to;
+                windowStart = Math.max(HEADER_SIZE, Math.min(from, to - WINDOW_SIZE));
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            }
+            return window.slice((int) (from - windowStart), (int) (to - from));
+        }
+    }
+}
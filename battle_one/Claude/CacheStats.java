@@ -0,0 +1,179 @@
+/**
+ * An immutable snapshot of a cache's statistics. Counters start at zero when the cache is created
+ * and only grow, so the activity in an interval is the difference of two snapshots, see
+ * {@link #minus(CacheStats)}. A cache built without statistics reports all zeros.
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final long lockWaitCount;
+    private final long totalLockWaitTime;
+    private final LatencyHistogram getLatency;
+    private final LatencyHistogram putLatency;
+    
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+               long totalLoadTime, long evictionCount, long evictionWeight, long lockWaitCount,
+               long totalLockWaitTime, LatencyHistogram getLatency, LatencyHistogram putLatency) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.lockWaitCount = lockWaitCount;
+        this.totalLockWaitTime = totalLockWaitTime;
+        this.getLatency = getLatency;
+        this.putLatency = putLatency;
+    }
+    
+    /**
+     * Returns the number of lookups that found a live entry.
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+    
+    /**
+     * Returns the number of lookups that found no entry or an expired one.
+     * @return the miss count
+     */
+    public long missCount() {
+        return missCount;
+    }
+    
+    /**
+     * Returns the number of lookups, hits and misses together.
+     * @return the request count
+     */
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+    
+    /**
+     * Returns the share of lookups that hit, or 1 if there were none.
+     * @return the hit rate between 0 and 1
+     */
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+    
+    /**
+     * Returns the number of loads and refreshes that produced a value.
+     * @return the successful load count
+     */
+    public long loadSuccessCount() {
+        return loadSuccessCount;
+    }
+    
+    /**
+     * Returns the number of loads and refreshes that threw or returned null.
+     * @return the failed load count
+     */
+    public long loadFailureCount() {
+        return loadFailureCount;
+    }
+    
+    /**
+     * Returns the time spent in loaders, successful or not.
+     * @return the total load time in nanoseconds
+     */
+    public long totalLoadTime() {
+        return totalLoadTime;
+    }
+    
+    /**
+     * Returns the average time a load took, or 0 if there were none.
+     * @return the average load penalty in nanoseconds
+     */
+    public double averageLoadPenalty() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+    }
+    
+    /**
+     * Returns the number of entries removed to respect the size or weight bound, or because they
+     * expired. Explicit removals and replacements are not counted.
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+    
+    /**
+     * Returns the summed weight of the evicted entries.
+     * @return the eviction weight
+     */
+    public long evictionWeight() {
+        return evictionWeight;
+    }
+    
+    /**
+     * Returns how often a thread found the cache's write lock taken and had to wait for it.
+     * @return the number of contended lock acquisitions
+     */
+    public long lockWaitCount() {
+        return lockWaitCount;
+    }
+    
+    /**
+     * Returns the time threads spent waiting for the write lock.
+     * @return the total lock wait time in nanoseconds
+     */
+    public long totalLockWaitTime() {
+        return totalLockWaitTime;
+    }
+    
+    /**
+     * Returns the sampled latencies of get, or null if latency sampling is off.
+     * @return the get latency histogram, or null
+     */
+    public LatencyHistogram getLatency() {
+        return getLatency;
+    }
+    
+    /**
+     * Returns the sampled latencies of put, or null if latency sampling is off.
+     * @return the put latency histogram, or null
+     */
+    public LatencyHistogram putLatency() {
+        return putLatency;
+    }
+    
+    /**
+     * Returns the counts accumulated since an earlier snapshot of the same cache. Latency
+     * histograms are cumulative and are taken from this snapshot as they are.
+     * @param earlier the earlier snapshot
+     * @return the difference of the counters, never negative
+     */
+    public CacheStats minus(CacheStats earlier) {
+        return new CacheStats(
+            Math.max(0, hitCount - earlier.hitCount),
+            Math.max(0, missCount - earlier.missCount),
+            Math.max(0, loadSuccessCount - earlier.loadSuccessCount),
+            Math.max(0, loadFailureCount - earlier.loadFailureCount),
+            Math.max(0, totalLoadTime - earlier.totalLoadTime),
+            Math.max(0, evictionCount - earlier.evictionCount),
+            Math.max(0, evictionWeight - earlier.evictionWeight),
+            Math.max(0, lockWaitCount - earlier.lockWaitCount),
+            Math.max(0, totalLockWaitTime - earlier.totalLockWaitTime),
+            getLatency,
+            putLatency);
+    }
+    
+    @Override
+    public String toString() {
+        return "CacheStats[hits=" + hitCount + ", misses=" + missCount
+            + ", loadSuccesses=" + loadSuccessCount + ", loadFailures=" + loadFailureCount
+            + ", totalLoadTime=" + totalLoadTime + "ns, evictions=" + evictionCount
+            + ", evictionWeight=" + evictionWeight + ", lockWaits=" + lockWaitCount
+            + ", totalLockWaitTime=" + totalLockWaitTime + "ns]";
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * The management interface through which {@link LRUCache#registerStatsMBean(String)} exposes a
+ * cache's statistics to JMX consoles such as JConsole or VisualVM. Every attribute is read from a
+ * fresh snapshot when it is requested.
+ */
+public interface CacheStatsMXBean {
+    /**
+     * @return the number of entries, including expired entries not yet cleaned up
+     */
+    long getEstimatedSize();
+    
+    /**
+     * @return the number of lookups that found a live entry
+     */
+    long getHitCount();
+    
+    /**
+     * @return the number of lookups that found no live entry
+     */
+    long getMissCount();
+    
+    /**
+     * @return the share of lookups that hit, between 0 and 1
+     */
+    double getHitRate();
+    
+    /**
+     * @return the number of loads that produced a value
+     */
+    long getLoadSuccessCount();
+    
+    /**
+     * @return the number of loads that failed
+     */
+    long getLoadFailureCount();
+    
+    /**
+     * @return the average time a load took, in nanoseconds
+     */
+    double getAverageLoadPenaltyNanos();
+    
+    /**
+     * @return the number of entries evicted for size or weight, or expired
+     */
+    long getEvictionCount();
+    
+    /**
+     * @return the number of times a thread had to wait for the write lock
+     */
+    long getLockWaitCount();
+    
+    /**
+     * @return the total time threads waited for the write lock, in nanoseconds
+     */
+    long getTotalLockWaitNanos();
+    
+    /**
+     * @return the sampled 99th percentile get latency in nanoseconds, or 0 without sampling
+     */
+    long getGetLatencyP99Nanos();
+    
+    /**
+     * @return the sampled 99th percentile put latency in nanoseconds, or 0 without sampling
+     */
+    long getPutLatencyP99Nanos();
+}
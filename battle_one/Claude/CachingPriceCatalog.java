@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link PriceCatalog} that caches the prices of another in an {@link LRUCache}. Items that are
+ * not cached are fetched from the source in a single batch per call, through
+ * {@link LRUCache#getAllOrLoad}, so concurrent callers missing the same item share one fetch.
+ *
+ * Every cached price is tagged with the source's version at the time it was fetched. When the
+ * source reports a newer version the whole cache is dropped, and a price tagged with an older
+ * version that a slow concurrent fetch stored afterwards is refetched rather than returned. A
+ * caller that read the version before it moved on neither drops the cache again nor moves the
+ * cached version back; it is served prices at least as new as the version it read.
+ * Thread-safe if the source is.
+ */
+public class CachingPriceCatalog implements PriceCatalog {
+    private final PriceCatalog source;
+    private final LRUCache<String, Price> cache;
+    private volatile long cachedVersion;
+    
+    /**
+     * Creates a caching catalog.
+     * @param source the catalog to fetch prices from
+     * @param maxSize the maximum number of prices to cache
+     * @throws NullPointerException if source is null
+     * @throws IllegalArgumentException if maxSize is less than 1
+     */
+    public CachingPriceCatalog(PriceCatalog source, int maxSize) {
+        if (source == null) {
+            throw new NullPointerException("Source catalog cannot be null");
+        }
+        this.source = source;
+        this.cache = new LRUCache<>(maxSize);
+        this.cachedVersion = source.version();
+    }
+    
+    @Override
+    public Map<String, Long> getPrices(Set<String> itemIds) {
+        if (itemIds == null) {
+            throw new NullPointerException("Item IDs cannot be null");
+        }
+        long version = source.version();
+        if (version > cachedVersion) {
+            synchronized (this) {
+                if (version > cachedVersion) {
+                    cache.clear();
+                    cachedVersion = version;
+                }
+            }
+        }
+        
+        Map<String, Long> prices = new HashMap<>();
+        List<String> stale = null;
+        for (Map.Entry<String, Price> entry : cache.getAllOrLoad(itemIds, missing -> fetch(missing, version)).entrySet()) {
+            if (entry.getValue().version >= version) {
+                prices.put(entry.getKey(), entry.getValue().cents);
+            } else {
+                if (stale == null) {
+                    stale = new ArrayList<>();
+                }
+                stale.add(entry.getKey());
+            }
+        }
+        if (stale != null) {
+            cache.invalidateAll(stale);
+            for (Map.Entry<String, Price> entry : cache.getAllOrLoad(stale, missing -> fetch(missing, version)).entrySet()) {
+                prices.put(entry.getKey(), entry.getValue().cents);
+            }
+        }
+        return prices;
+    }
+    
+    @Override
+    public long version() {
+        return source.version();
+    }
+    
+    /**
+     * Drops every cached price.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+    
+    private Map<String, Price> fetch(Set<String> itemIds, long version) {
+        Map<String, Price> fetched = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> price : source.getPrices(itemIds).entrySet()) {
+            if (price.getValue() != null) {
+                fetched.put(price.getKey(), new Price(version, price.getValue()));
+            }
+        }
+        return fetched;
+    }
+    
+    /**
+     * A cached price and the source version it was fetched at.
+     */
+    private static final class Price {
+        final long version;
+        final long cents;
+        
+        Price(long version, long cents) {
+            this.version = version;
+            this.cents = cents;
+        }
+    }
+}
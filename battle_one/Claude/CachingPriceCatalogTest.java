@@ -0,0 +1,101 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class CachingPriceCatalogTest {
+    private InMemoryPriceCatalog source;
+    private List<Set<String>> requests;
+    private CachingPriceCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        source = new InMemoryPriceCatalog(Map.of("A", 100L, "B", 200L, "C", 300L));
+        requests = new ArrayList<>();
+        PriceCatalog recording = new PriceCatalog() {
+            public Map<String, Long> getPrices(Set<String> itemIds) {
+                requests.add(Set.copyOf(itemIds));
+                return source.getPrices(itemIds);
+            }
+
+            public long version() {
+                return source.version();
+            }
+        };
+        catalog = new CachingPriceCatalog(recording, 100);
+    }
+
+    @Test
+    @DisplayName("Should fetch only the uncached items, all in one call")
+    void getPrices_PartlyCached_FetchesMissesInOneBatch() {
+        assertEquals(Map.of("A", 100L, "B", 200L), catalog.getPrices(Set.of("A", "B")));
+        assertEquals(Map.of("A", 100L, "B", 200L, "C", 300L), catalog.getPrices(Set.of("A", "B", "C")));
+        assertEquals(Map.of("A", 100L, "C", 300L), catalog.getPrices(Set.of("A", "C")));
+
+        assertEquals(List.of(Set.of("A", "B"), Set.of("C")), requests);
+    }
+
+    @Test
+    @DisplayName("Should leave out unknown items and ask for them again next time")
+    void getPrices_UnknownItem_IsLeftOutAndNotCached() {
+        assertEquals(Map.of("A", 100L), catalog.getPrices(Set.of("A", "X")));
+        assertEquals(Map.of(), catalog.getPrices(Set.of("X")));
+
+        assertEquals(List.of(Set.of("A", "X"), Set.of("X")), requests);
+    }
+
+    @Test
+    @DisplayName("Should drop cached prices once the source has a new version")
+    void getPrices_SourceVersionChanged_Refetches() {
+        catalog.getPrices(Set.of("A", "B"));
+        source.setPrice("A", 150L);
+
+        assertEquals(Map.of("A", 150L, "B", 200L), catalog.getPrices(Set.of("A", "B")));
+        assertEquals(source.version(), catalog.version());
+        assertEquals(List.of(Set.of("A", "B"), Set.of("A", "B")), requests);
+    }
+
+    @Test
+    @DisplayName("Should keep the cache when a caller read a version older than the cached one")
+    void getPrices_OlderVersionRead_KeepsCache() {
+        long[] version = {1};
+        PriceCatalog versioned = new PriceCatalog() {
+            public Map<String, Long> getPrices(Set<String> itemIds) {
+                requests.add(Set.copyOf(itemIds));
+                return source.getPrices(itemIds);
+            }
+
+            public long version() {
+                return version[0];
+            }
+        };
+        CachingPriceCatalog cached = new CachingPriceCatalog(versioned, 100);
+        version[0] = 2;
+        cached.getPrices(Set.of("A"));
+
+        // As seen by a caller that read the version just before it moved to 2
+        version[0] = 1;
+        assertEquals(Map.of("A", 100L), cached.getPrices(Set.of("A")));
+        version[0] = 2;
+        assertEquals(Map.of("A", 100L), cached.getPrices(Set.of("A")));
+
+        assertEquals(List.of(Set.of("A")), requests);
+    }
+
+    @Test
+    @DisplayName("Should let carts share cached prices so only the first total reaches the source")
+    void getTotal_CartsSharingCache_FetchOnce() {
+        ShoppingCart first = new ShoppingCart(catalog);
+        ShoppingCart second = new ShoppingCart(catalog);
+        first.addItem("A", 2);
+        first.addItem("B", 1);
+        second.addItem("B", 3);
+
+        assertEquals(400, first.getTotalCents());
+        assertEquals(600, second.getTotalCents());
+        assertEquals(1, requests.size());
+    }
+}
@@ -0,0 +1,326 @@
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the live shopping carts of many concurrent sessions, keyed by a long cart ID. Carts are
+ * split by ID into stripes, each with its own lock, so requests for different carts rarely
+ * contend and no operation takes a global lock. A cart is a map from interned item number to
+ * quantity that boxes neither, see {@link ItemIds} and {@link IntIntHashMap}. Since interned IDs
+ * are kept for good, an item ID seen for the first time is only accepted if the price catalog
+ * knows it, so mistyped or made-up IDs from requests cannot grow the table.
+ *
+ * Each stripe keeps its carts in the same flat-array recency list as {@link LongObjectLRUCache}.
+ * When a stripe is full, adding a cart evicts its least recently used one. Carts that have not
+ * been used for the idle timeout are treated as gone: every operation on a stripe drops a couple
+ * of idle carts from the old end of its list, and {@link #evictIdle} sweeps them all for callers
+ * that do so on a schedule. As with {@link SegmentedLRUCache}, recency is only ordered within a
+ * stripe.
+ */
+public class CartStore {
+    private static final long NO_TIMEOUT = Long.MAX_VALUE;
+    // How many idle carts an ordinary operation evicts, to spread the sweep over the traffic
+    private static final int IDLE_EVICTIONS_PER_OPERATION = 2;
+    
+    private final PriceCatalog catalog;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long idleNanos;
+    private final Ticker ticker;
+    
+    /**
+     * Creates a store that only evicts carts when full, with four stripes per available processor.
+     * @param catalog the catalog that decides which item IDs exist
+     * @param maxCarts the maximum number of carts the store can hold
+     * @throws NullPointerException if catalog is null
+     * @throws IllegalArgumentException if maxCarts is less than 1
+     */
+    public CartStore(PriceCatalog catalog, int maxCarts) {
+        this(catalog, maxCarts, null, Runtime.getRuntime().availableProcessors() * 4, Ticker.systemTicker());
+    }
+    
+    /**
+     * Creates a store with four stripes per available processor.
+     * @param catalog the catalog that decides which item IDs exist
+     * @param maxCarts the maximum number of carts the store can hold
+     * @param idleTimeout how long after its last use a cart is evicted
+     * @throws IllegalArgumentException if maxCarts is less than 1 or idleTimeout is not positive
+     * @throws NullPointerException if catalog or idleTimeout is null
+     */
+    public CartStore(PriceCatalog catalog, int maxCarts, Duration idleTimeout) {
+        this(catalog, maxCarts, requireTimeout(idleTimeout), Runtime.getRuntime().availableProcessors() * 4,
+            Ticker.systemTicker());
+    }
+    
+    /**
+     * Creates a store with the given number of stripes and time source.
+     * @param catalog the catalog that decides which item IDs exist
+     * @param maxCarts the maximum number of carts the store can hold
+     * @param idleTimeout how long after its last use a cart is evicted, or null to never evict idle carts
+     * @param stripeCount the number of stripes, rounded up to a power of two
+     * @param ticker the time source for idle eviction
+     * @throws IllegalArgumentException if maxCarts or stripeCount is less than 1, or idleTimeout is not positive
+     * @throws NullPointerException if catalog or ticker is null
+     */
+    public CartStore(PriceCatalog catalog, int maxCarts, Duration idleTimeout, int stripeCount, Ticker ticker) {
+        if (catalog == null) {
+            throw new NullPointerException("Price catalog cannot be null");
+        }
+        if (maxCarts < 1) {
+            throw new IllegalArgumentException("Cart count must be greater than 0");
+        }
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be greater than 0");
+        }
+        if (ticker == null) {
+            throw new NullPointerException("Ticker cannot be null");
+        }
+        
+        // Every stripe needs room for at least one cart
+        int count = 1;
+        while (count < stripeCount && count < (1 << 16) && count * 2 <= maxCarts) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        this.stripeMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(maxCarts / count + (i < maxCarts % count ? 1 : 0));
+        }
+        this.catalog = catalog;
+        this.idleNanos = idleTimeout == null ? NO_TIMEOUT : requireTimeout(idleTimeout).toNanos();
+        this.ticker = ticker;
+    }
+    
+    /**
+     * Adds a quantity of an item to a cart, creating the cart if it does not exist. The first time
+     * the store sees an item ID, it asks the catalog whether the item exists, outside any lock.
+     * @param cartId the cart ID
+     * @param itemId the item ID
+     * @param quantity the quantity to add
+     * @return the item's quantity in the cart afterwards
+     * @throws NullPointerException if itemId is null
+     * @throws IllegalArgumentException if quantity is not positive, or the catalog does not know the item
+     * @throws ArithmeticException if the quantity would overflow
+     */
+    public int addItem(long cartId, String itemId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        int item = ItemIds.numberOf(itemId);
+        if (item < 0) {
+            if (!catalog.getPrices(Set.of(itemId)).containsKey(itemId)) {
+                throw new IllegalArgumentException("Unknown item: " + itemId);
+            }
+            item = ItemIds.intern(itemId);
+        }
+        long now = ticker.read();
+        Stripe stripe = stripeFor(cartId);
+        stripe.lock.lock();
+        try {
+            int entry = stripe.open(cartId, now, true);
+            return stripe.carts[entry].addTo(item, quantity);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    /**
+     * Removes an item's line from a cart.
+     * @param cartId the cart ID
+     * @param itemId the item ID
+     * @return the quantity that was removed, or 0 if the cart did not hold the item
+     * @throws NullPointerException if itemId is null
+     */
+    public int removeItem(long cartId, String itemId) {
+        int item = ItemIds.numberOf(itemId);
+        long now = ticker.read();
+        Stripe stripe = stripeFor(cartId);
+        stripe.lock.lock();
+        try {
+            int entry = stripe.open(cartId, now, false);
+            return entry < 0 || item < 0 ? 0 : stripe.carts[entry].remove(item);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the quantity of an item in a cart, counting as a use of the cart.
+     * @param cartId the cart ID
+     * @param itemId the item ID
+     * @return the quantity, or 0 if the cart does not exist or does not hold the item
+     * @throws NullPointerException if itemId is null
+     */
+    public int getItemQuantity(long cartId, String itemId) {
+        int item = ItemIds.numberOf(itemId);
+        long now = ticker.read();
+        Stripe stripe = stripeFor(cartId);
+        stripe.lock.lock();
+        try {
+            int entry = stripe.open(cartId, now, false);
+            return entry < 0 || item < 0 ? 0 : stripe.carts[entry].get(item);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the contents of a cart, counting as a use of the cart. Unlike the other operations
+     * this allocates, so it is meant for checkout and display rather than every request.
+     * @param cartId the cart ID
+     * @return the quantity of every item in the cart by item ID, or null if the cart does not exist
+     */
+    public Map<String, Integer> getItems(long cartId) {
+        long now = ticker.read();
+        int[] items;
+        int[] quantities;
+        Stripe stripe = stripeFor(cartId);
+        stripe.lock.lock();
+        try {
+            int entry = stripe.open(cartId, now, false);
+            if (entry < 0) {
+                return null;
+            }
+            IntIntHashMap cart = stripe.carts[entry];
+            items = new int[cart.size()];
+            quantities = new int[cart.size()];
+            cart.copyTo(items, quantities);
+        } finally {
+            stripe.lock.unlock();
+        }
+        
+        Map<String, Integer> contents = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            contents.put(ItemIds.idOf(items[i]), quantities[i]);
+        }
+        return contents;
+    }
+    
+    /**
+     * Removes a cart, as after checkout.
+     * @param cartId the cart ID
+     * @return true if the cart existed
+     */
+    public boolean removeCart(long cartId) {
+        long now = ticker.read();
+        Stripe stripe = stripeFor(cartId);
+        stripe.lock.lock();
+        try {
+            if (stripe.open(cartId, now, false) < 0) {
+                return false;
+            }
+            stripe.carts[stripe.delete(cartId)] = null;
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the number of carts in the store, including idle carts not yet evicted. Stripes are
+     * counted one at a time, so the result is only exact while no carts are being added.
+     * @return the cart count
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * Evicts every cart that has been idle for the timeout, one stripe at a time.
+     * @return the number of carts evicted
+     */
+    public int evictIdle() {
+        long now = ticker.read();
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                evicted += stripe.evictIdle(now, Integer.MAX_VALUE);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return evicted;
+    }
+    
+    private Stripe stripeFor(long cartId) {
+        // The stripe takes the high bits of the hash, the stripe's own table the low ones
+        long h = cartId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 40) & stripeMask];
+    }
+    
+    private static Duration requireTimeout(Duration timeout) {
+        if (timeout == null) {
+            throw new NullPointerException("Idle timeout cannot be null");
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Idle timeout must be greater than 0");
+        }
+        return timeout;
+    }
+    
+    /**
+     * The carts of one stripe: a recency index over the cart IDs, with each entry's cart and the
+     * time it was last used in arrays under the same entry numbers. Guarded by its lock.
+     */
+    private final class Stripe extends LongKeyLRUIndex {
+        final ReentrantLock lock = new ReentrantLock();
+        final IntIntHashMap[] carts;
+        final long[] lastUsed;
+        
+        Stripe(int maxCarts) {
+            super(maxCarts);
+            this.carts = new IntIntHashMap[maxCarts];
+            this.lastUsed = new long[maxCarts];
+        }
+        
+        /**
+         * Finds a cart and marks it used, evicting idle carts on the way. An idle cart counts as
+         * absent. If create is set, an absent cart is created, evicting the least recently used
+         * one if the stripe is full.
+         * @return the cart's entry number, or -1 if it is absent and create is not set
+         */
+        int open(long cartId, long now, boolean create) {
+            evictIdle(now, IDLE_EVICTIONS_PER_OPERATION);
+            int entry = find(cartId);
+            if (entry >= 0 && isIdle(entry, now)) {
+                carts[delete(cartId)] = null;
+                entry = -1;
+            }
+            if (entry >= 0) {
+                touch(entry);
+            } else if (create) {
+                entry = insert(cartId);
+                carts[entry] = new IntIntHashMap();
+            } else {
+                return -1;
+            }
+            lastUsed[entry] = now;
+            return entry;
+        }
+        
+        int evictIdle(long now, int limit) {
+            int evicted = 0;
+            for (int entry = eldest(); entry >= 0 && evicted < limit && isIdle(entry, now); entry = eldest()) {
+                carts[delete(keyAt(entry))] = null;
+                evicted++;
+            }
+            return evicted;
+        }
+        
+        private boolean isIdle(int entry, long now) {
+            return now - lastUsed[entry] >= idleNanos;
+        }
+    }
+}
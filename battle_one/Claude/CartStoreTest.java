@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CartStoreTest {
+    private AtomicLong time;
+    private InMemoryPriceCatalog catalog;
+    private CartStore store;
+
+    @BeforeEach
+    void setUp() {
+        time = new AtomicLong();
+        catalog = new InMemoryPriceCatalog(Map.of("ITEM001", 1_000L, "ITEM002", 2_000L));
+        for (int i = 0; i < 7; i++) {
+            catalog.setPrice("SKU" + i, 100L);
+        }
+        store = new CartStore(catalog, 100, Duration.ofMinutes(30), 4, time::get);
+    }
+
+    @Test
+    @DisplayName("Should keep separate quantities per cart and item")
+    void addItem_SeveralCarts_KeepsQuantitiesApart() {
+        assertEquals(2, store.addItem(1, "ITEM001", 2));
+        assertEquals(5, store.addItem(1, "ITEM001", 3));
+        assertEquals(1, store.addItem(1, "ITEM002", 1));
+        assertEquals(7, store.addItem(2, "ITEM001", 7));
+
+        assertEquals(5, store.getItemQuantity(1, "ITEM001"));
+        assertEquals(7, store.getItemQuantity(2, "ITEM001"));
+        assertEquals(0, store.getItemQuantity(2, "ITEM002"));
+        assertEquals(0, store.getItemQuantity(3, "ITEM001"));
+        assertEquals(Map.of("ITEM001", 5, "ITEM002", 1), store.getItems(1));
+        assertNull(store.getItems(3));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Should remove lines and carts and report what was removed")
+    void removeItem_ExistingLine_ReturnsRemovedQuantity() {
+        store.addItem(1, "ITEM001", 2);
+
+        assertEquals(2, store.removeItem(1, "ITEM001"));
+        assertEquals(0, store.removeItem(1, "ITEM001"));
+        assertEquals(0, store.removeItem(1, "NEVER-SEEN"));
+        assertEquals(Map.of(), store.getItems(1));
+        assertTrue(store.removeCart(1));
+        assertFalse(store.removeCart(1));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid quantities and null item IDs")
+    void addItem_InvalidArguments_ThrowsException() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> store.addItem(1, "ITEM001", 0));
+        assertEquals("Quantity must be greater than zero", exception.getMessage());
+        assertThrows(NullPointerException.class, () -> store.addItem(1, null, 1));
+        assertThrows(NullPointerException.class, () -> store.removeItem(1, null));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should reject item IDs the catalog does not know without interning them")
+    void addItem_UnknownItem_ThrowsExceptionAndInternsNothing() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> store.addItem(1, "ITEM001-TYPO", 1));
+        assertEquals("Unknown item: ITEM001-TYPO", exception.getMessage());
+        assertEquals(-1, ItemIds.numberOf("ITEM001-TYPO"));
+        assertEquals(0, store.size());
+
+        catalog.setPrice("STORE-ONLY-ITEM", 100L);
+        store.addItem(1, "STORE-ONLY-ITEM", 1);
+        store.addItem(2, "STORE-ONLY-ITEM", 1);
+        // Only the first sighting of a new ID costs a catalog call
+        assertEquals(2, catalog.getBatchCount());
+    }
+
+    @Test
+    @DisplayName("Should treat carts idle for the timeout as gone and sweep them")
+    void evictIdle_IdleCarts_AreEvicted() {
+        store.addItem(1, "ITEM001", 1);
+        store.addItem(2, "ITEM001", 1);
+        time.addAndGet(Duration.ofMinutes(20).toNanos());
+        store.getItemQuantity(2, "ITEM001");
+        time.addAndGet(Duration.ofMinutes(15).toNanos());
+
+        assertEquals(0, store.getItemQuantity(1, "ITEM001"));
+        assertEquals(1, store.getItemQuantity(2, "ITEM001"));
+        time.addAndGet(Duration.ofMinutes(30).toNanos());
+        assertEquals(1, store.evictIdle());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used cart when a stripe is full")
+    void addItem_FullStore_EvictsLeastRecentlyUsedCart() {
+        CartStore small = new CartStore(catalog, 2, null, 1, time::get);
+        small.addItem(1, "ITEM001", 1);
+        small.addItem(2, "ITEM001", 1);
+        small.getItemQuantity(1, "ITEM001");
+        small.addItem(3, "ITEM001", 1);
+
+        assertEquals(1, small.getItemQuantity(1, "ITEM001"));
+        assertNull(small.getItems(2));
+        assertEquals(1, small.getItemQuantity(3, "ITEM001"));
+        assertEquals(2, small.size());
+    }
+
+    @Test
+    @DisplayName("Should not lose updates when many threads change the same carts")
+    void addItem_ConcurrentThreads_CountsEveryAddition() throws Exception {
+        CartStore shared = new CartStore(catalog, 1_000, Duration.ofHours(1));
+        int threads = 8;
+        int additions = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < additions; i++) {
+                        shared.addItem(i % 50, "SKU" + (i % 7), 1);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long total = 0;
+        for (int cart = 0; cart < 50; cart++) {
+            for (int quantity : shared.getItems(cart).values()) {
+                total += quantity;
+            }
+        }
+        assertEquals((long) threads * additions, total);
+        assertEquals(50, shared.size());
+    }
+}
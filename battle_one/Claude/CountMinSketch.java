@@ -0,0 +1,111 @@
+/*
+ * Adapted from FrequencySketch in Caffeine (https://github.com/ben-manes/caffeine).
+ * Copyright 2015 Ben Manes. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Modified: a single-threaded sketch sized by the cache's maximum entry count, without the
+ * cache-line blocking of newer Caffeine releases.
+ */
+
+/**
+ * Estimates how often keys were seen, in a fixed amount of memory, for TinyLFU admission.
+ * Each key maps to four 4-bit counters, one per hash function, and its frequency is the smallest
+ * of them, so estimates can only err upward when keys collide. Counters saturate at 15. After a
+ * sample of ten times the cache size all counters are halved, which lets the sketch forget keys
+ * that used to be popular.
+ *
+ * A table of longs sized to the cache takes 8 bytes per entry. Not thread-safe.
+ *
+ * The hash seeds, the index spreading and the halving mask follow Caffeine's FrequencySketch;
+ * see the license header above.
+ */
+final class CountMinSketch {
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+    
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+    
+    /**
+     * Creates a sketch for a cache of the given size.
+     * @param maxSize the number of entries the cache holds
+     */
+    CountMinSketch(int maxSize) {
+        int tableSize = maxSize <= 16 ? 16 : Math.min(MAX_TABLE_SIZE, Integer.highestOneBit(maxSize - 1) << 1);
+        this.table = new long[tableSize];
+        this.tableMask = tableSize - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * maxSize);
+    }
+    
+    /**
+     * Returns the estimated number of times the key was seen since the last halving, at most 15.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = 15;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int shift = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> shift) & 0xF);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+    
+    /**
+     * Counts one occurrence of the key.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int shift = (start + i) << 2;
+            long mask = 0xFL << shift;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+    
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+    
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+    
+    private static int spread(int hash) {
+        // Mix the bits so that keys with poor hash codes still use the whole table
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
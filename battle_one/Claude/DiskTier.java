@@ -0,0 +1,385 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A log-structured store of serialized entries on local disk, used as the second tier of a
+ * {@link TieredCache}. Records are only ever appended, to the active segment file; a full segment
+ * is sealed and a new one started. An in-memory index maps each key to the location of its latest
+ * record, so a read is a single positional read of the file. Overwritten and removed records stay
+ * in their segment as garbage until background compaction copies the live records of a mostly
+ * dead segment forward and deletes the file. When the segments together exceed the byte limit,
+ * the oldest sealed segment is dropped as a whole, which makes the tier approximately FIFO.
+ *
+ * Record layout: key length (int), value length (int), key bytes, value bytes. The tier does not
+ * survive a restart: segment files left behind in the directory are deleted when it opens.
+ */
+final class DiskTier<K, V> implements Closeable {
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    private final Path directory;
+    private final long maxBytes;
+    private final int segmentSize;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final Executor executor;
+    private final ConcurrentHashMap<K, Location> index;
+    private final ArrayDeque<Segment> sealed;
+    private final AtomicLong totalBytes;
+    private final AtomicBoolean compactionScheduled;
+    private final Object compactionLock = new Object();
+    private Segment active;
+    private long nextSegmentId;
+    
+    /**
+     * Opens a disk tier in the given directory, creating it if needed.
+     * @param directory the directory holding the segment files
+     * @param maxBytes the limit of the summed segment sizes
+     * @param segmentSize the size of one segment file in bytes, which also bounds the size of a record
+     * @param keySerializer encodes and decodes keys
+     * @param valueSerializer encodes and decodes values
+     * @param executor runs compaction
+     * @throws IOException if the directory cannot be prepared
+     */
+    DiskTier(Path directory, long maxBytes, int segmentSize, Serializer<K> keySerializer,
+             Serializer<V> valueSerializer, Executor executor) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentSize = segmentSize;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.executor = executor;
+        this.index = new ConcurrentHashMap<>();
+        this.sealed = new ArrayDeque<>();
+        this.totalBytes = new AtomicLong();
+        this.compactionScheduled = new AtomicBoolean();
+        
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path leftover : leftovers) {
+                Files.delete(leftover);
+            }
+        }
+        this.active = openSegment();
+    }
+    
+    /**
+     * Serializes an entry and appends it to the active segment. The record is not reachable
+     * until it is published with {@link #publish}, or released with {@link #discard}.
+     * @param key the key to write
+     * @param value the value to write
+     * @return the location of the record, or null if it is larger than a segment
+     * @throws IOException if the record cannot be written
+     */
+    Location append(K key, V value) throws IOException {
+        int keySize = keySerializer.serializedSize(key);
+        int valueSize = valueSerializer.serializedSize(value);
+        long length = (long) RECORD_HEADER_SIZE + keySize + valueSize;
+        if (length > segmentSize) {
+            return null;
+        }
+        
+        ByteBuffer record = ByteBuffer.allocate((int) length);
+        record.putInt(keySize).putInt(valueSize);
+        keySerializer.write(key, record.slice(record.position(), keySize));
+        valueSerializer.write(value, record.slice(record.position() + keySize, valueSize));
+        return appendRecord(record.clear());
+    }
+    
+    /**
+     * Makes a record written by {@link #append} the current one for its key.
+     */
+    void publish(K key, Location location) {
+        Location previous = index.put(key, location);
+        if (previous != null) {
+            previous.release();
+        }
+    }
+    
+    /**
+     * Releases a record written by {@link #append} that is not going to be published.
+     */
+    void discard(Location location) {
+        location.release();
+    }
+    
+    /**
+     * Returns where the current record of a key is stored.
+     * @param key the key to look up
+     * @return the location, or null if the tier does not hold the key
+     */
+    Location locate(K key) {
+        return index.get(key);
+    }
+    
+    /**
+     * Reads the value stored at a location.
+     * @param location a location returned by {@link #locate}
+     * @return the value, or null if the record's segment was compacted or dropped in the meantime
+     * @throws IOException if the record cannot be read
+     */
+    V read(Location location) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(location.length);
+        try {
+            while (record.hasRemaining()) {
+                if (location.segment.channel.read(record, location.offset + record.position()) < 0) {
+                    throw new IOException("Unexpected end of segment " + location.segment.path);
+                }
+            }
+        } catch (ClosedChannelException e) {
+            return null;
+        }
+        int keySize = record.getInt(0);
+        int valueSize = record.getInt(Integer.BYTES);
+        return valueSerializer.read(record.slice(RECORD_HEADER_SIZE + keySize, valueSize));
+    }
+    
+    /**
+     * Removes a key if its current record is still at the given location.
+     * @return true if the key was removed
+     */
+    boolean remove(K key, Location location) {
+        if (index.remove(key, location)) {
+            location.release();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Removes a key whatever its current record is.
+     */
+    void invalidate(K key) {
+        Location location = index.remove(key);
+        if (location != null) {
+            location.release();
+        }
+    }
+    
+    /**
+     * Returns the number of keys the tier holds.
+     */
+    int size() {
+        return index.size();
+    }
+    
+    /**
+     * Returns the summed size of the segment files, live records and garbage together.
+     */
+    long totalBytes() {
+        return totalBytes.get();
+    }
+    
+    /**
+     * Drops every record and deletes all sealed segments.
+     */
+    synchronized void clear() throws IOException {
+        index.clear();
+        for (Segment segment : sealed) {
+            delete(segment);
+        }
+        sealed.clear();
+        delete(active);
+        active = openSegment();
+    }
+    
+    /**
+     * Drops the oldest sealed segments while the tier exceeds its byte limit, then rewrites the
+     * sealed segments of which at most half is still live. Runs on the calling thread; appends
+     * and reads continue meanwhile.
+     * @throws IOException if a segment cannot be read or written
+     */
+    void compact() throws IOException {
+        synchronized (compactionLock) {
+            for (Segment segment : sealedSegments()) {
+                compact(segment);
+            }
+        }
+    }
+    
+    private void compact(Segment segment) throws IOException {
+        synchronized (this) {
+            // Skip segments an earlier pass already retired, and those that appends reserved
+            // before the segment was sealed are still writing into
+            if (!sealed.contains(segment) || segment.writers.get() > 0) {
+                return;
+            }
+        }
+        if (totalBytes.get() > maxBytes) {
+            // Records dropped here were the least recently demoted ones
+            forEachRecord(segment, (key, offset, record) -> {
+                Location location = index.get(key);
+                if (location != null && location.segment == segment && location.offset == offset) {
+                    remove(key, location);
+                }
+            });
+            retire(segment);
+        } else if (segment.liveBytes.get() * 2 <= segment.size) {
+            forEachRecord(segment, (key, offset, record) -> {
+                Location location = index.get(key);
+                if (location != null && location.segment == segment && location.offset == offset) {
+                    Location moved = appendRecord(record);
+                    if (index.replace(key, location, moved)) {
+                        location.release();
+                    } else {
+                        moved.release();
+                    }
+                }
+            });
+            retire(segment);
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        index.clear();
+        for (Segment segment : sealed) {
+            delete(segment);
+        }
+        sealed.clear();
+        delete(active);
+    }
+    
+    private Location appendRecord(ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        Segment segment;
+        long offset;
+        boolean rolled = false;
+        synchronized (this) {
+            if (active.size + length > segmentSize) {
+                sealed.addLast(active);
+                active = openSegment();
+                rolled = true;
+            }
+            segment = active;
+            offset = segment.size;
+            segment.size += length;
+            segment.liveBytes.addAndGet(length);
+            segment.writers.incrementAndGet();
+        }
+        
+        // Positional writes of different records do not overlap, so they need no lock
+        try {
+            while (record.hasRemaining()) {
+                segment.channel.write(record, offset + record.position());
+            }
+        } finally {
+            segment.writers.decrementAndGet();
+        }
+        if (rolled) {
+            scheduleCompaction();
+        }
+        return new Location(segment, offset, length);
+    }
+    
+    private void scheduleCompaction() {
+        if (!compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                // A failed compaction leaves the segments as they were; the next roll retries it
+            } finally {
+                compactionScheduled.set(false);
+            }
+        });
+    }
+    
+    private synchronized List<Segment> sealedSegments() {
+        return new ArrayList<>(sealed);
+    }
+    
+    private Segment openSegment() throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + nextSegmentId++ + SEGMENT_SUFFIX);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        totalBytes.addAndGet(segmentSize);
+        return new Segment(path, channel);
+    }
+    
+    private void retire(Segment segment) throws IOException {
+        synchronized (this) {
+            if (!sealed.remove(segment)) {
+                return;
+            }
+        }
+        delete(segment);
+    }
+    
+    private void delete(Segment segment) throws IOException {
+        segment.channel.close();
+        Files.deleteIfExists(segment.path);
+        totalBytes.addAndGet(-segmentSize);
+    }
+    
+    private void forEachRecord(Segment segment, RecordVisitor<K> visitor) throws IOException {
+        MappedByteBuffer records = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+        int offset = 0;
+        while (offset < segment.size) {
+            int keySize = records.getInt(offset);
+            int valueSize = records.getInt(offset + Integer.BYTES);
+            int length = RECORD_HEADER_SIZE + keySize + valueSize;
+            K key = keySerializer.read(records.slice(offset + RECORD_HEADER_SIZE, keySize));
+            visitor.visit(key, offset, records.slice(offset, length));
+            offset += length;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface RecordVisitor<K> {
+        void visit(K key, long offset, ByteBuffer record) throws IOException;
+    }
+    
+    /**
+     * Where a record is stored. Locations are compared by identity, so a key that was written
+     * again never matches the location of its older record.
+     */
+    static final class Location {
+        private final Segment segment;
+        private final long offset;
+        private final int length;
+        
+        private Location(Segment segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+        
+        private void release() {
+            segment.liveBytes.addAndGet(-length);
+        }
+    }
+    
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final AtomicLong liveBytes = new AtomicLong();
+        private final AtomicInteger writers = new AtomicInteger();
+        // Only the active segment grows, under the tier's lock; sealed segments never change size
+        private volatile long size;
+        
+        private Segment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+/**
+ * Blocks email addresses at throwaway domains, and at any subdomain of one, using a blocklist
+ * file read at startup. The file lists one domain per line; blank lines and lines starting with
+ * {@code #} are ignored, and domains are compared ignoring ASCII case.
+ *
+ * The blocklist is held as a trie of reversed domain labels, so {@code mail.tempbox.io} is the
+ * path io, tempbox, mail and blocking it covers everything below. Instead of child lists, every
+ * node is found through one open-addressing hash table keyed on its parent and the hash of its
+ * label, and stores only that 64-bit key: a lookup costs one probe per label of the address,
+ * however long the blocklist, and two million domains take about 35 MB. Labels themselves are
+ * not kept, so a label that is not blocked could be mistaken for one that is if their keys
+ * collided, which for 64-bit keys is vanishingly unlikely.
+ *
+ * The trie is immutable and published through a volatile field: {@link #reload} builds a new one
+ * from the file while lookups continue on the old one, then swaps it in.
+ */
+public class DisposableDomainFilter implements RegistrationCheck {
+    private final Path file;
+    private volatile Trie trie;
+    private volatile FileTime loadedModifiedTime;
+    
+    private DisposableDomainFilter(Path file) {
+        this.file = file;
+    }
+    
+    /**
+     * Loads a blocklist file.
+     * @param file the blocklist, one domain per line
+     * @return the filter
+     * @throws IOException if the file cannot be read
+     */
+    public static DisposableDomainFilter load(Path file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("File cannot be null");
+        }
+        DisposableDomainFilter filter = new DisposableDomainFilter(file);
+        filter.reload();
+        return filter;
+    }
+    
+    /**
+     * Reads the blocklist file again and swaps in the new blocklist. Lookups are not blocked while
+     * the file is read; if reading fails, the previous blocklist stays in use.
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized void reload() throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        trie = Trie.read(file);
+        loadedModifiedTime = modified;
+    }
+    
+    /**
+     * Reloads the blocklist if the file changed since it was last loaded, for callers that poll
+     * the file on a schedule.
+     * @return true if the blocklist was reloaded
+     * @throws IOException if the file cannot be read
+     */
+    public boolean reloadIfModified() throws IOException {
+        if (Files.getLastModifiedTime(file).equals(loadedModifiedTime)) {
+            return false;
+        }
+        synchronized (this) {
+            if (Files.getLastModifiedTime(file).equals(loadedModifiedTime)) {
+                return false;
+            }
+            reload();
+            return true;
+        }
+    }
+    
+    /**
+     * Returns whether an email address is at a blocked domain or a subdomain of one.
+     * @param email the email address; the domain is everything after the last {@code @}
+     * @return true if the domain is blocked, false if it is not or the address has no {@code @}
+     * @throws NullPointerException if email is null
+     */
+    public boolean isBlocked(String email) {
+        if (email == null) {
+            throw new NullPointerException("Email cannot be null");
+        }
+        // The email rule accepts more @ signs in the local part, and only the last one starts the domain
+        int at = email.lastIndexOf('@');
+        if (at < 0) {
+            return false;
+        }
+        int end = email.length();
+        while (end > at + 1 && (email.charAt(end - 1) <= ' ' || email.charAt(end - 1) == '.')) {
+            end--;
+        }
+        return trie.blocks(email, at + 1, end);
+    }
+    
+    /**
+     * Returns the number of domains in the blocklist.
+     * @return the domain count
+     */
+    public int size() {
+        return trie.domainCount;
+    }
+    
+    @Override
+    public FieldError.Field field() {
+        return FieldError.Field.EMAIL;
+    }
+    
+    @Override
+    public FieldError check(Registration registration) {
+        return isBlocked(registration.email()) ? FieldError.EMAIL_DISPOSABLE : null;
+    }
+    
+    /**
+     * The immutable blocklist. Node 0 is the root; node i has the key keys[i], derived from its
+     * parent's index and its label, and is blocked if its bit in blocked is set. slots maps a key
+     * to the index of its node plus one, or 0 for an empty slot.
+     */
+    static final class Trie {
+        private static final int INITIAL_CAPACITY = 1 << 10;
+        
+        private long[] keys;
+        private long[] blocked;
+        private int[] slots;
+        private int nodeCount;
+        private int domainCount;
+        
+        private Trie() {
+            this.keys = new long[INITIAL_CAPACITY];
+            this.blocked = new long[INITIAL_CAPACITY / Long.SIZE];
+            this.slots = new int[INITIAL_CAPACITY * 2];
+            this.nodeCount = 1;
+        }
+        
+        static Trie read(Path file) throws IOException {
+            Trie trie = new Trie();
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int start = 0;
+                    int end = line.length();
+                    while (start < end && line.charAt(start) <= ' ') {
+                        start++;
+                    }
+                    while (end > start && (line.charAt(end - 1) <= ' ' || line.charAt(end - 1) == '.')) {
+                        end--;
+                    }
+                    if (start < end && line.charAt(start) != '#') {
+                        trie.add(line, start, end);
+                    }
+                }
+            }
+            trie.trim();
+            return trie;
+        }
+        
+        static Trie of(String... domains) {
+            Trie trie = new Trie();
+            for (String domain : domains) {
+                trie.add(domain, 0, domain.length());
+            }
+            trie.trim();
+            return trie;
+        }
+        
+        // Walks the labels of domain[start, end) from the last one, stopping at the first blocked node
+        boolean blocks(CharSequence domain, int start, int end) {
+            int node = 0;
+            int labelEnd = end;
+            while (labelEnd > start) {
+                int labelStart = labelEnd;
+                while (labelStart > start && domain.charAt(labelStart - 1) != '.') {
+                    labelStart--;
+                }
+                node = find(key(node, domain, labelStart, labelEnd));
+                if (node < 0) {
+                    return false;
+                }
+                if ((blocked[node >>> 6] & (1L << node)) != 0) {
+                    return true;
+                }
+                labelEnd = labelStart - 1;
+            }
+            return false;
+        }
+        
+        private void add(CharSequence domain, int start, int end) {
+            int node = 0;
+            int labelEnd = end;
+            while (labelEnd > start) {
+                int labelStart = labelEnd;
+                while (labelStart > start && domain.charAt(labelStart - 1) != '.') {
+                    labelStart--;
+                }
+                long key = key(node, domain, labelStart, labelEnd);
+                int child = find(key);
+                node = child >= 0 ? child : insert(key);
+                labelEnd = labelStart - 1;
+            }
+            if (node != 0 && (blocked[node >>> 6] & (1L << node)) == 0) {
+                blocked[node >>> 6] |= 1L << node;
+                domainCount++;
+            }
+        }
+        
+        private int find(long key) {
+            int mask = slots.length - 1;
+            for (int slot = (int) key & mask; ; slot = (slot + 1) & mask) {
+                int entry = slots[slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                if (keys[entry - 1] == key) {
+                    return entry - 1;
+                }
+            }
+        }
+        
+        private int insert(long key) {
+            if (nodeCount == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+                blocked = Arrays.copyOf(blocked, keys.length / Long.SIZE);
+            }
+            // Keep the table at most three quarters full
+            if ((long) nodeCount * 4 >= (long) slots.length * 3) {
+                rehash(slots.length * 2);
+            }
+            int node = nodeCount++;
+            keys[node] = key;
+            place(node);
+            return node;
+        }
+        
+        private void place(int node) {
+            int mask = slots.length - 1;
+            int slot = (int) keys[node] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = node + 1;
+        }
+        
+        private void rehash(int capacity) {
+            slots = new int[capacity];
+            for (int node = 1; node < nodeCount; node++) {
+                place(node);
+            }
+        }
+        
+        // Drops the spare capacity left by doubling and shrinks the table to the smallest size that
+        // stays under three quarters full
+        private void trim() {
+            keys = Arrays.copyOf(keys, nodeCount);
+            blocked = Arrays.copyOf(blocked, (nodeCount + Long.SIZE - 1) / Long.SIZE);
+            int capacity = Integer.highestOneBit(Math.max(2, nodeCount * 4 / 3 + 1) - 1) << 1;
+            if (capacity < slots.length) {
+                rehash(capacity);
+            }
+        }
+        
+        // A 64-bit key of a label under a parent, hashing the label's characters lowercased
+        private static long key(int parent, CharSequence domain, int start, int end) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = start; i < end; i++) {
+                char c = domain.charAt(i);
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+                hash = (hash ^ c) * 0x100000001B3L;
+            }
+            hash ^= (parent + 1) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            hash *= 0xC4CEB9FE1A85EC53L;
+            return hash ^ hash >>> 33;
+        }
+    }
+}
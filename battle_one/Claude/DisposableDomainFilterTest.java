@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+class DisposableDomainFilterTest {
+    @TempDir
+    Path directory;
+
+    private Path blocklist(List<String> domains) throws IOException {
+        return Files.write(directory.resolve("disposable.txt"), domains);
+    }
+
+    @Test
+    @DisplayName("Should block listed domains and their subdomains but not their parents or lookalikes")
+    void isBlocked_ListedDomain_BlocksDomainAndSubdomains() throws IOException {
+        DisposableDomainFilter filter = DisposableDomainFilter.load(blocklist(List.of(
+            "# throwaway providers", "", "mailinator.com", "  Temp-Mail.ORG. ", "inbox.tempbox.io")));
+
+        assertEquals(3, filter.size());
+        assertTrue(filter.isBlocked("someone@mailinator.com"));
+        assertTrue(filter.isBlocked("someone@MAILINATOR.com."));
+        assertTrue(filter.isBlocked("someone@eu.mx.mailinator.com"));
+        assertTrue(filter.isBlocked("someone@temp-mail.org"));
+        assertTrue(filter.isBlocked("someone@inbox.tempbox.io"));
+        assertTrue(filter.isBlocked("someone@x.inbox.tempbox.io"));
+
+        assertFalse(filter.isBlocked("someone@tempbox.io"));
+        assertFalse(filter.isBlocked("someone@io"));
+        assertFalse(filter.isBlocked("someone@notmailinator.com"));
+        assertFalse(filter.isBlocked("someone@mailinator.com.example.net"));
+        assertFalse(filter.isBlocked("someone@example.com"));
+        assertFalse(filter.isBlocked("someone@"));
+        assertFalse(filter.isBlocked("mailinator.com"));
+        assertFalse(filter.isBlocked("someone@mailinator.com@example.com"));
+        assertThrows(NullPointerException.class, () -> filter.isBlocked(null));
+    }
+
+    @Test
+    @DisplayName("Should take the domain from the last @ so extra @ signs cannot hide a listed domain")
+    void isBlocked_SeveralAtSigns_ChecksDomainAfterLastAt() throws IOException {
+        DisposableDomainFilter filter = DisposableDomainFilter.load(blocklist(List.of("mailinator.com")));
+
+        assertTrue(filter.isBlocked("x@a@mailinator.com"));
+        assertTrue(filter.isBlocked("x@example.com@eu.mailinator.com"));
+        RegistrationValidator validator = new RegistrationValidator(Clock.systemUTC(), filter);
+        assertEquals(List.of(FieldError.EMAIL_DISPOSABLE), validator.validate(new Registration("alice",
+            "x@a@mailinator.com", "secret".toCharArray(), new Date(0), Registration.Gender.OTHER)).errors());
+    }
+
+    @Test
+    @DisplayName("Should find every domain of a large blocklist and none of a disjoint set")
+    void isBlocked_LargeBlocklist_FindsExactlyTheListedDomains() throws IOException {
+        List<String> domains = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            domains.add("throwaway" + i + (i % 3 == 0 ? ".com" : i % 3 == 1 ? ".net" : ".mail.ru"));
+        }
+        DisposableDomainFilter filter = DisposableDomainFilter.load(blocklist(domains));
+
+        assertEquals(domains.size(), filter.size());
+        for (String domain : domains) {
+            assertTrue(filter.isBlocked("a@" + domain), domain);
+        }
+        for (int i = 0; i < 50_000; i++) {
+            String domain = "legit" + i + ".com";
+            assertFalse(filter.isBlocked("a@" + domain), domain);
+        }
+        assertFalse(filter.isBlocked("a@mail.ru"));
+    }
+
+    @Test
+    @DisplayName("Should swap in a changed blocklist on reload and keep the old one if the file is gone")
+    void reloadIfModified_ChangedFile_SwapsBlocklist() throws IOException {
+        Path file = blocklist(List.of("mailinator.com"));
+        DisposableDomainFilter filter = DisposableDomainFilter.load(file);
+
+        assertFalse(filter.reloadIfModified());
+        Files.write(file, List.of("guerrillamail.com"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1_000));
+
+        assertTrue(filter.reloadIfModified());
+        assertFalse(filter.isBlocked("a@mailinator.com"));
+        assertTrue(filter.isBlocked("a@guerrillamail.com"));
+
+        Files.delete(file);
+        assertThrows(IOException.class, filter::reload);
+        assertTrue(filter.isBlocked("a@guerrillamail.com"));
+    }
+
+    @Test
+    @DisplayName("Should report a disposable address as an email error only when the address is well formed")
+    void validate_DisposableEmail_ReportsEmailDisposable() throws IOException {
+        DisposableDomainFilter filter = DisposableDomainFilter.load(blocklist(List.of("mailinator.com")));
+        RegistrationValidator validator = new RegistrationValidator(Clock.systemUTC(), filter);
+
+        ValidationResult result = validator.validate(new Registration("alice", "alice@mailinator.com",
+            "secret".toCharArray(), new Date(0), Registration.Gender.OTHER));
+
+        assertEquals(List.of(FieldError.EMAIL_DISPOSABLE), result.errors());
+        assertTrue(validator.validate(new Registration("alice", "alice@example.com",
+            "secret".toCharArray(), new Date(0), Registration.Gender.OTHER)).isValid());
+    }
+}
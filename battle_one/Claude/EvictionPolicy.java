@@ -0,0 +1,39 @@
+/**
+ * Decides which entry a cache evicts when it grows past its bound. The cache reports every
+ * insertion, hit and removal, and asks for a victim only while it is over capacity. Policies
+ * track keys rather than entries and size their internal segments by entry count, so for a
+ * weighted cache the capacity they are created with is an estimate of the entries that fit.
+ *
+ * A policy belongs to a single cache. The cache calls it while holding its write lock, so
+ * implementations need no synchronization of their own but must be fast and must not call back
+ * into the cache.
+ * @param <K> the type of keys tracked by the policy
+ */
+public interface EvictionPolicy<K> {
+    /**
+     * Records that a key was added to the cache.
+     * @param key the new key
+     */
+    void onInsert(K key);
+    
+    /**
+     * Records a hit on a key, or an update of its value.
+     * @param key the key that was used
+     */
+    void onAccess(K key);
+    
+    /**
+     * Records that a key left the cache for a reason other than {@link #evict()}, such as an
+     * explicit removal or expiration.
+     * @param key the removed key
+     */
+    void onRemove(K key);
+    
+    /**
+     * Chooses the next entry to evict and stops tracking it. The cache removes the returned key
+     * without calling {@link #onRemove}. Policies with an admission filter may return the key
+     * that was just inserted, which rejects it.
+     * @return the key to evict, or null if the policy tracks no keys
+     */
+    K evict();
+}
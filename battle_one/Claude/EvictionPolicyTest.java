@@ -0,0 +1,115 @@
+import org.junit.jupiter.api.*;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvictionPolicyTest {
+    private static final List<IntFunction<EvictionPolicy<Integer>>> POLICIES = List.of(
+        SegmentedLruPolicy::new, ArcPolicy::new, WindowTinyLfuPolicy::new);
+
+    @Test
+    @DisplayName("Should keep a frequently used working set through a long scan")
+    void put_ScanAfterWarmup_KeepsHotEntries() {
+        for (IntFunction<EvictionPolicy<Integer>> policy : POLICIES) {
+            LRUCache<Integer, Integer> cache = cacheWith(policy.apply(100), 100);
+            for (int round = 0; round < 3; round++) {
+                for (int key = 0; key < 50; key++) {
+                    if (cache.get(key).isEmpty()) {
+                        cache.put(key, key);
+                    }
+                }
+            }
+
+            // A scan ten times the cache size, short enough that the sketch ages its counts only once
+            for (int key = 1_000; key < 2_000; key++) {
+                cache.put(key, key);
+            }
+
+            int survivors = 0;
+            for (int key = 0; key < 50; key++) {
+                survivors += cache.get(key).isPresent() ? 1 : 0;
+            }
+            // The sketch's estimates are approximate, so allow a few hot keys to lose their contest
+            assertTrue(survivors >= 45, policy.apply(1).getClass().getSimpleName() + " kept " + survivors);
+        }
+    }
+
+    @Test
+    @DisplayName("Should lose the working set to a scan without a policy")
+    void put_ScanWithPlainLru_FlushesHotEntries() {
+        LRUCache<Integer, Integer> cache = new LRUCache<>(100);
+        for (int key = 0; key < 50; key++) {
+            cache.put(key, key);
+            cache.get(key);
+        }
+        for (int key = 1_000; key < 1_100; key++) {
+            cache.put(key, key);
+        }
+
+        assertTrue(cache.get(0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should stay bounded and consistent under random operations with every policy")
+    void operations_RandomMix_StayWithinCapacity() {
+        Random random = new Random(7);
+        for (IntFunction<EvictionPolicy<Integer>> policy : POLICIES) {
+            LRUCache<Integer, Integer> cache = cacheWith(policy.apply(64), 64);
+            for (int i = 0; i < 50_000; i++) {
+                int key = random.nextInt(500);
+                int operation = random.nextInt(10);
+                if (operation < 5) {
+                    cache.get(key).ifPresent(value -> assertEquals(key, value));
+                } else if (operation < 9) {
+                    cache.put(key, key);
+                } else {
+                    cache.remove(key);
+                }
+                assertTrue(cache.size() <= 64);
+            }
+
+            // Keys the policy lost track of would make it fall back to LRU; it should not need to
+            for (int key = 10_000; key < 10_200; key++) {
+                cache.put(key, key);
+            }
+            assertEquals(64, cache.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should never underestimate a frequency and should age counts over time")
+    void countMinSketch_Increments_EstimatesAndAges() {
+        CountMinSketch sketch = new CountMinSketch(1_000);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("warm");
+
+        assertTrue(sketch.frequency("hot") >= 10);
+        assertTrue(sketch.frequency("warm") >= 1);
+        assertTrue(sketch.frequency("hot") > sketch.frequency("cold"));
+
+        // Ten times the cache size in distinct additions triggers halving
+        for (int i = 0; i < 10_000; i++) {
+            sketch.increment(i);
+        }
+        assertTrue(sketch.frequency("hot") <= 5);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid policy sizes")
+    void constructor_InvalidSize_ThrowsException() {
+        for (IntFunction<EvictionPolicy<Integer>> policy : POLICIES) {
+            assertThrows(IllegalArgumentException.class, () -> policy.apply(0));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedLruPolicy<>(10, 1.0));
+    }
+
+    private static LRUCache<Integer, Integer> cacheWith(EvictionPolicy<Integer> policy, int maxSize) {
+        return LRUCache.<Integer, Integer>builder()
+            .maximumSize(maxSize)
+            .evictionPolicy(policy)
+            .build();
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * A rule of {@link RegistrationValidator} that a registration broke. Every error is a constant, so
+ * reporting one allocates nothing, and the forms decide how to present the message. The
+ * unparseable and unknown errors only arise from text input, see {@link RegistrationImporter}.
+ */
+public enum FieldError {
+    USERNAME_TOO_SHORT(Field.USERNAME, "Username must be at least 3 characters long"),
+    USERNAME_TAKEN(Field.USERNAME, "Username is already taken"),
+    EMAIL_INVALID(Field.EMAIL, "Invalid email address"),
+    EMAIL_DISPOSABLE(Field.EMAIL, "Disposable email addresses are not accepted"),
+    PASSWORD_TOO_SHORT(Field.PASSWORD, "Password must be at least 6 characters long"),
+    PASSWORD_BREACHED(Field.PASSWORD, "Password has appeared in a data breach; please choose another"),
+    BIRTH_DATE_MISSING(Field.BIRTH_DATE, "Please select a birth date"),
+    BIRTH_DATE_IN_FUTURE(Field.BIRTH_DATE, "Birth date cannot be in the future"),
+    BIRTH_DATE_UNPARSEABLE(Field.BIRTH_DATE, "Birth date must be in the format yyyy-MM-dd"),
+    GENDER_MISSING(Field.GENDER, "Please select a gender"),
+    GENDER_UNKNOWN(Field.GENDER, "Gender must be male, female or other");
+    
+    /**
+     * The fields of a registration.
+     */
+    public enum Field {
+        USERNAME,
+        EMAIL,
+        PASSWORD,
+        BIRTH_DATE,
+        GENDER
+    }
+    
+    private final Field field;
+    private final String message;
+    
+    FieldError(Field field, String message) {
+        this.field = field;
+        this.message = message;
+    }
+    
+    /**
+     * Returns the field the error is about.
+     * @return the field
+     */
+    public Field field() {
+        return field;
+    }
+    
+    /**
+     * Returns a message describing the error to the user.
+     * @return the message
+     */
+    public String message() {
+        return message;
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The counts of a {@link RegistrationImporter} run: how many rows were read, accepted and
+ * rejected, and how often each rule was broken. A row that breaks several rules is counted once
+ * as rejected and once for each rule.
+ */
+public final class ImportReport {
+    private final long acceptedRows;
+    private final long rejectedRows;
+    private final long malformedRows;
+    private final long[] errorCounts;
+    private final long elapsedNanos;
+    
+    ImportReport(long acceptedRows, long rejectedRows, long malformedRows, AtomicLongArray errorCounts,
+                 long elapsedNanos) {
+        this.acceptedRows = acceptedRows;
+        this.rejectedRows = rejectedRows;
+        this.malformedRows = malformedRows;
+        this.errorCounts = new long[errorCounts.length()];
+        for (int i = 0; i < this.errorCounts.length; i++) {
+            this.errorCounts[i] = errorCounts.get(i);
+        }
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    /**
+     * Returns the number of non-empty rows read, not counting a CSV header.
+     * @return the row count
+     */
+    public long totalRows() {
+        return acceptedRows + rejectedRows;
+    }
+    
+    /**
+     * Returns the number of rows that passed every rule.
+     * @return the accepted row count
+     */
+    public long acceptedRows() {
+        return acceptedRows;
+    }
+    
+    /**
+     * Returns the number of rows written to the rejected file, malformed ones included.
+     * @return the rejected row count
+     */
+    public long rejectedRows() {
+        return rejectedRows;
+    }
+    
+    /**
+     * Returns the number of rows that could not be parsed at all, such as CSV rows with the wrong
+     * number of columns, invalid JSON or lines longer than the importer's limit.
+     * @return the malformed row count
+     */
+    public long malformedRows() {
+        return malformedRows;
+    }
+    
+    /**
+     * Returns how many rows broke the given rule.
+     * @param error the rule
+     * @return the number of rows
+     */
+    public long errorCount(FieldError error) {
+        return errorCounts[error.ordinal()];
+    }
+    
+    /**
+     * Returns how many rows broke any rule about the given field.
+     * @param field the field
+     * @return the number of rows
+     */
+    public long errorCount(FieldError.Field field) {
+        long count = 0;
+        for (FieldError error : FieldError.values()) {
+            if (error.field() == field) {
+                count += errorCounts[error.ordinal()];
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Returns the wall-clock time the import took.
+     * @return the elapsed time in nanoseconds
+     */
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format(
+            "%,d rows, %,d accepted, %,d rejected (%,d malformed) in %.1f s",
+            totalRows(), acceptedRows, rejectedRows, malformedRows, elapsedNanos / 1e9));
+        for (FieldError error : FieldError.values()) {
+            if (errorCounts[error.ordinal()] > 0) {
+                report.append(String.format("%n  %-24s %,d", error, errorCounts[error.ordinal()]));
+            }
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link PriceCatalog} held in memory, standing in for a remote catalog in tests and demos. It
+ * counts the batch calls it serves, so tests can check how often a cart or cache reached it.
+ * Thread-safe.
+ */
+public class InMemoryPriceCatalog implements PriceCatalog {
+    private final Map<String, Long> pricesInCents = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    
+    /**
+     * Creates an empty catalog.
+     */
+    public InMemoryPriceCatalog() {
+    }
+    
+    /**
+     * Creates a catalog holding the given prices.
+     * @param pricesInCents the unit price of every item, in cents
+     * @throws NullPointerException if the price list, an item ID or a price is null
+     * @throws IllegalArgumentException if a price is negative
+     */
+    public InMemoryPriceCatalog(Map<String, Long> pricesInCents) {
+        if (pricesInCents == null) {
+            throw new NullPointerException("Price list cannot be null");
+        }
+        for (Map.Entry<String, Long> price : pricesInCents.entrySet()) {
+            if (price.getValue() == null) {
+                throw new NullPointerException("Item IDs and prices cannot be null");
+            }
+            setPrice(price.getKey(), price.getValue());
+        }
+        version.set(0);
+    }
+    
+    /**
+     * Sets the price of an item and moves the catalog to a new version.
+     * @param itemId the item ID
+     * @param priceInCents the unit price in cents
+     * @throws NullPointerException if itemId is null
+     * @throws IllegalArgumentException if the price is negative
+     */
+    public void setPrice(String itemId, long priceInCents) {
+        if (itemId == null) {
+            throw new NullPointerException("Item IDs and prices cannot be null");
+        }
+        if (priceInCents < 0) {
+            throw new IllegalArgumentException("Price of " + itemId + " cannot be negative");
+        }
+        pricesInCents.put(itemId, priceInCents);
+        version.incrementAndGet();
+    }
+    
+    @Override
+    public Map<String, Long> getPrices(Set<String> itemIds) {
+        if (itemIds == null) {
+            throw new NullPointerException("Item IDs cannot be null");
+        }
+        batchCount.incrementAndGet();
+        Map<String, Long> prices = new HashMap<>();
+        for (String itemId : itemIds) {
+            Long price = pricesInCents.get(itemId);
+            if (price != null) {
+                prices.put(itemId, price);
+            }
+        }
+        return prices;
+    }
+    
+    @Override
+    public long version() {
+        return version.get();
+    }
+    
+    /**
+     * Returns the number of {@link #getPrices} calls served so far.
+     * @return the batch count
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+}
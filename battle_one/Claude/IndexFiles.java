@@ -0,0 +1,235 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The file handling shared by {@link UsernameIndexBuilder} and {@link BreachedPasswordIndexBuilder}
+ * and the indexes that read their files. Both builders sort more entries than fit in the heap
+ * with an external merge sort: {@link Runs} spills each sorted run to a temporary file and merges
+ * the runs back in order. The finished index is written by {@link #replace} to a temporary file of
+ * its own next to the target and moved over it in one step, so readers never see a partial index
+ * and concurrent builds of the same target do not write into each other's file.
+ */
+final class IndexFiles {
+    private static final int BUFFER_SIZE = 1 << 16;
+    
+    private IndexFiles() {
+    }
+    
+    /**
+     * Writes the contents of a file.
+     * @param <T> the type of the result
+     */
+    interface Writer<T> {
+        T write(FileChannel channel) throws IOException;
+    }
+    
+    /**
+     * Writes the entries of a sorted run.
+     */
+    interface RunWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+    
+    /**
+     * Opens a reader on a spilled run.
+     * @param <R> the type of the reader
+     */
+    interface RunOpener<R extends RunReader> {
+        R open(Path run) throws IOException;
+    }
+    
+    /**
+     * Writes a file under a unique temporary name in the target's directory, forces it to disk and
+     * atomically replaces the target with it. If several calls replace the same target at once,
+     * the last to finish wins.
+     * @param target the file to replace
+     * @param writer writes the contents, starting at position 0 of an empty file
+     * @return the writer's result
+     * @throws IOException if the file cannot be written or moved
+     */
+    static <T> T replace(Path target, Writer<T> writer) throws IOException {
+        Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            T result;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                result = writer.write(channel);
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return result;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+    
+    /**
+     * Reads the header of an index file and checks its magic number and version.
+     * @param channel the open file
+     * @param size the header size in bytes
+     * @param magic the expected magic number
+     * @param version the expected version
+     * @param kind what the file should be, for error messages
+     * @param file the file's path, for error messages
+     * @return the header, positioned after the magic number and version
+     * @throws IOException if the file cannot be read, is too short or is not of the expected kind and version
+     */
+    static ByteBuffer readHeader(FileChannel channel, int size, int magic, int version, String kind, Path file)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(size);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        header.flip();
+        if (header.remaining() < size || header.getInt() != magic) {
+            throw new IOException("Not a " + kind + ": " + file);
+        }
+        int found = header.getInt();
+        if (found != version) {
+            throw new IOException("Unsupported " + kind + " version " + found + ": " + file);
+        }
+        return header;
+    }
+    
+    /**
+     * The sorted runs of one external sort, kept in temporary files that are deleted on close.
+     */
+    static final class Runs implements Closeable {
+        private final Path directory;
+        private final String prefix;
+        private final List<Path> files = new ArrayList<>();
+        
+        /**
+         * Creates an empty set of runs.
+         * @param directory where to create the run files, usually that of the index being built
+         * @param prefix the name prefix of the run files
+         */
+        Runs(Path directory, String prefix) {
+            this.directory = directory;
+            this.prefix = prefix;
+        }
+        
+        /**
+         * Writes a run to a new temporary file.
+         * @param writer writes the run's entries in order
+         * @throws IOException if the file cannot be written
+         */
+        void spill(RunWriter writer) throws IOException {
+            Path file = Files.createTempFile(directory, prefix, ".run");
+            // Registered first so that close deletes it even if writing fails
+            files.add(file);
+            OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+            try (DataOutputStream out = new DataOutputStream(stream)) {
+                writer.write(out);
+            }
+        }
+        
+        /**
+         * Starts merging the runs.
+         * @param opener opens a reader on a run file
+         * @param order orders readers by their current entries
+         * @return the merge, to be closed when done
+         * @throws IOException if a run cannot be read
+         */
+        <R extends RunReader> Merge<R> merge(RunOpener<R> opener, Comparator<? super R> order) throws IOException {
+            return new Merge<>(files, opener, order);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+    
+    /**
+     * Reads the entries of a spilled run back in order; subclasses decode one entry at a time from
+     * the stream and keep it as their current entry.
+     */
+    abstract static class RunReader implements Closeable {
+        final DataInputStream in;
+        
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), BUFFER_SIZE));
+        }
+        
+        /**
+         * Moves to the next entry of the run.
+         * @return false if the run has no more entries
+         * @throws IOException if the run cannot be read
+         */
+        abstract boolean advance() throws IOException;
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+    
+    /**
+     * A k-way merge of runs through a priority queue of their readers.
+     * @param <R> the type of the readers
+     */
+    static final class Merge<R extends RunReader> implements Closeable {
+        private final List<R> readers = new ArrayList<>();
+        private final PriorityQueue<R> queue;
+        private R last;
+        
+        private Merge(List<Path> files, RunOpener<R> opener, Comparator<? super R> order) throws IOException {
+            this.queue = new PriorityQueue<>(order);
+            try {
+                for (Path file : files) {
+                    R reader = opener.open(file);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+        
+        /**
+         * Moves past the entry returned last and returns the reader with the smallest current
+         * entry of all runs. Equal entries of different runs are returned one after another.
+         * @return the reader, valid until the next call, or null once every run is exhausted
+         * @throws IOException if a run cannot be read
+         */
+        R next() throws IOException {
+            if (last != null && last.advance()) {
+                queue.add(last);
+            }
+            last = queue.poll();
+            return last;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            for (R reader : readers) {
+                reader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+/**
+ * A map from non-negative int keys to int values, kept in two flat arrays with open addressing
+ * and linear probing, so that neither keys nor values are boxed. Deletion shifts later members of
+ * a probe run back instead of leaving tombstones. An absent key reads as 0, which suits counts
+ * such as quantities. Not thread-safe.
+ */
+final class IntIntHashMap {
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 4;
+    
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    
+    /**
+     * Creates an empty map with room for a few keys.
+     */
+    IntIntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+    
+    /**
+     * Returns the value of a key.
+     * @param key the key
+     * @return the value, or 0 if the key is absent
+     */
+    int get(int key) {
+        int slot = slotOf(key);
+        return slot < 0 ? 0 : values[slot];
+    }
+    
+    /**
+     * Adds to the value of a key, inserting the key with the delta if it is absent.
+     * @param key a non-negative key
+     * @param delta the amount to add
+     * @return the new value
+     * @throws IllegalArgumentException if key is negative
+     * @throws ArithmeticException if the value would overflow
+     */
+    int addTo(int key, int delta) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key cannot be negative");
+        }
+        for (int slot = home(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = Math.addExact(values[slot], delta);
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                values[slot] = delta;
+                // Keep the table at most half full
+                if (++size * 2 > keys.length) {
+                    rehash(keys.length * 2);
+                }
+                return delta;
+            }
+        }
+    }
+    
+    /**
+     * Sets the value of a key, inserting the key if it is absent.
+     * @param key a non-negative key
+     * @param value the value
+     * @throws IllegalArgumentException if key is negative
+     */
+    void put(int key, int value) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            values[slot] = value;
+        } else {
+            addTo(key, value);
+        }
+    }
+    
+    /**
+     * Removes a key.
+     * @param key the key
+     * @return the value it had, or 0 if it was absent
+     */
+    int remove(int key) {
+        int hole = slotOf(key);
+        if (hole < 0) {
+            return 0;
+        }
+        int value = values[hole];
+        for (int slot = (hole + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = home(keys[slot]);
+            boolean reachable = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (!reachable) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = EMPTY;
+        size--;
+        return value;
+    }
+    
+    /**
+     * Returns the number of keys.
+     * @return the key count
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Copies the keys and values into two arrays of length {@link #size}, in no particular order.
+     * @param keysOut receives the keys
+     * @param valuesOut receives the values at the same positions
+     */
+    void copyTo(int[] keysOut, int[] valuesOut) {
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                keysOut[i] = keys[slot];
+                valuesOut[i++] = values[slot];
+            }
+        }
+    }
+    
+    private int slotOf(int key) {
+        if (key < 0) {
+            return -1;
+        }
+        for (int slot = home(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+    
+    private int home(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+    
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = home(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns item IDs as small ints, so that carts store an int per line instead of a reference to a
+ * String. Numbers are handed out densely from 0 in the order IDs are first seen and are never
+ * reused. Callers only intern IDs that a {@link PriceCatalog} has priced, so the table grows with
+ * the number of distinct items in the catalog, not with the number of carts, lines or unknown IDs
+ * passed in. Thread-safe; looking up an ID that is already interned takes no lock.
+ */
+final class ItemIds {
+    private static final ConcurrentHashMap<String, Integer> NUMBERS = new ConcurrentHashMap<>();
+    private static volatile String[] ids = new String[1024];
+    private static int count;
+    
+    private ItemIds() {
+    }
+    
+    /**
+     * Returns the number of an item ID, assigning the next free one if the ID is new.
+     * @param id the item ID
+     * @return the item number, at least 0
+     * @throws NullPointerException if id is null
+     */
+    static int intern(String id) {
+        if (id == null) {
+            throw new NullPointerException("Item ID cannot be null");
+        }
+        Integer number = NUMBERS.get(id);
+        return number != null ? number : assign(id);
+    }
+    
+    /**
+     * Returns the number of an item ID without assigning one.
+     * @param id the item ID
+     * @return the item number, or -1 if the ID was never interned
+     * @throws NullPointerException if id is null
+     */
+    static int numberOf(String id) {
+        if (id == null) {
+            throw new NullPointerException("Item ID cannot be null");
+        }
+        Integer number = NUMBERS.get(id);
+        return number != null ? number : -1;
+    }
+    
+    /**
+     * Returns the item ID with a number.
+     * @param number a number returned by {@link #intern}
+     * @return the item ID
+     * @throws IllegalArgumentException if no ID has the number
+     */
+    static String idOf(int number) {
+        String[] current = ids;
+        if (number < 0 || number >= current.length || current[number] == null) {
+            throw new IllegalArgumentException("Unknown item number: " + number);
+        }
+        return current[number];
+    }
+    
+    private static synchronized int assign(String id) {
+        Integer number = NUMBERS.get(id);
+        if (number != null) {
+            return number;
+        }
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+        }
+        // Publish the ID before its number, so idOf never misses a number it was given
+        ids[count] = id;
+        NUMBERS.put(id, count);
+        return count++;
+    }
+}
@@ -1,14 +1,64 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 public class LRUCache<K, V> {
-    private final int maxSize;
-    private final ConcurrentHashMap<K, V> cache;
-    private final LinkedHashMap<K, Long> accessOrder;
+    static final long NEVER = Long.MAX_VALUE;
+    private static final long NO_EXPIRATION = -1;
+    private static final long MAXIMUM_EXPIRY = Long.MAX_VALUE >> 1;
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+    private static final int SNAPSHOT_CHUNK = 1024;
+    private static final Weigher<Object, Object> SINGLETON_WEIGHER = (key, value) -> 1;
+    
+    private final long maxWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final long refreshAfterWriteNanos;
+    private final Ticker ticker;
+    private final Executor executor;
+    private final EvictionPolicy<K> policy;
+    private final RemovalListener<? super K, ? super V> removalListener;
+    private final Queue<Runnable> pendingNotifications;
+    private final StatsCounter stats;
+    private final int latencySampleRate;
+    private final LatencyHistogram getLatency;
+    private final LatencyHistogram putLatency;
+    private final ConcurrentHashMap<K, Node<K, V>> cache;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads;
+    private final Node<K, V> accessOrder;
     private final ReentrantReadWriteLock lock;
+    private final ReadBuffer<Node<K, V>> readBuffer;
+    private final TimerWheel<K, V> timerWheel;
+    private volatile boolean expiring;
+    private long totalWeight;
+    private int clearCount;
+    private int restoresRunning;
+    private Set<K> changedDuringRestore;
     
     /**
      * Creates a new LRU cache with the specified maximum size.
@@ -16,51 +66,209 @@ public class LRUCache<K, V> {
      * @throws IllegalArgumentException if maxSize is less than 1
      */
     public LRUCache(int maxSize) {
-        if (maxSize < 1) {
-            throw new IllegalArgumentException("Cache size must be greater than 0");
-        }
-        
-        this.maxSize = maxSize;
+        this(maxSize, false);
+    }
+    
+    /**
+     * Creates a new LRU cache with the specified maximum size and read mode.
+     * With buffered reads, get never blocks: hits are recorded in striped ring buffers and
+     * applied to the access order in batches by whichever thread next holds the write lock.
+     * Recency updates may be dropped when a buffer is full, so the eviction order becomes
+     * approximate, but the size bound is still enforced on every put.
+     * @param maxSize the maximum number of entries the cache can hold
+     * @param bufferedReads whether hits are buffered instead of reordered under the write lock
+     * @throws IllegalArgumentException if maxSize is less than 1
+     */
+    public LRUCache(int maxSize, boolean bufferedReads) {
+        this(new Builder<K, V>().maximumSize(maxSize).bufferedReads(bufferedReads));
+    }
+    
+    /**
+     * Creates a new LRU cache bounded by the total weight of its entries rather than their number.
+     * @param maxWeight the maximum total weight of the entries the cache can hold
+     * @param weigher computes the weight of each entry when it is written
+     * @throws IllegalArgumentException if maxWeight is less than 1
+     * @throws NullPointerException if weigher is null
+     */
+    public LRUCache(long maxWeight, Weigher<? super K, ? super V> weigher) {
+        this(maxWeight, weigher, false);
+    }
+    
+    /**
+     * Creates a new LRU cache bounded by the total weight of its entries, with the given read mode.
+     * @param maxWeight the maximum total weight of the entries the cache can hold
+     * @param weigher computes the weight of each entry when it is written
+     * @param bufferedReads whether hits are buffered instead of reordered under the write lock
+     * @throws IllegalArgumentException if maxWeight is less than 1
+     * @throws NullPointerException if weigher is null
+     */
+    public LRUCache(long maxWeight, Weigher<? super K, ? super V> weigher, boolean bufferedReads) {
+        this(new Builder<K, V>().maximumWeight(maxWeight, weigher).bufferedReads(bufferedReads));
+    }
+    
+    /**
+     * Creates a new LRU cache from the settings collected by a builder.
+     * Subclasses use this to combine a bound, the read mode and expiration.
+     * @param builder the cache settings
+     */
+    protected LRUCache(Builder<K, V> builder) {
+        this.maxWeight = builder.maxWeight;
+        this.weigher = builder.weigher;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+        this.refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+        this.ticker = builder.ticker;
+        this.executor = builder.executor;
+        this.policy = builder.policy;
+        this.removalListener = builder.removalListener;
+        this.pendingNotifications = new ConcurrentLinkedQueue<>();
+        this.stats = builder.recordStats ? StatsCounter.enabled() : StatsCounter.DISABLED;
+        this.latencySampleRate = builder.latencySampleRate;
+        this.getLatency = latencySampleRate > 0 ? new LatencyHistogram() : null;
+        this.putLatency = latencySampleRate > 0 ? new LatencyHistogram() : null;
         this.cache = new ConcurrentHashMap<>();
-        this.accessOrder = new LinkedHashMap<>();
+        this.loads = new ConcurrentHashMap<>();
+        this.accessOrder = new Node<>(null, null, 0);
+        this.accessOrder.prev = accessOrder;
+        this.accessOrder.next = accessOrder;
         this.lock = new ReentrantReadWriteLock();
+        this.readBuffer = builder.bufferedReads ? new ReadBuffer<>() : null;
+        this.timerWheel = new TimerWheel<>(ticker.read(), this::expire);
+        this.expiring = expireAfterWriteNanos != NO_EXPIRATION || expireAfterAccessNanos != NO_EXPIRATION;
+    }
+    
+    /**
+     * Returns a builder for caches that combine a size or weight bound with buffered reads and
+     * expiration.
+     * @return a new builder
+     */
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
     }
     
     /**
      * Adds a key-value pair to the cache. If the key already exists, the value is updated.
-     * If adding would exceed the maximum size, the least recently used entry is removed.
+     * If adding would exceed the maximum size or weight, least recently used entries are removed
+     * until the cache fits again. An entry heavier than the maximum weight is not kept at all.
+     * The entry expires according to the cache's expiration settings.
      * @param key the key to add
      * @param value the value to add
      * @throws NullPointerException if key or value is null
+     * @throws IllegalArgumentException if the weigher returns a negative weight
      */
     public void put(K key, V value) {
+        put(key, value, expireAfterWriteNanos, expireAfterAccessNanos);
+    }
+    
+    /**
+     * Adds a key-value pair that expires a fixed time after this write, overriding the cache's
+     * expire-after-write setting for this entry.
+     * @param key the key to add
+     * @param value the value to add
+     * @param expireAfterWrite how long after this write the entry expires
+     * @throws NullPointerException if key, value or expireAfterWrite is null
+     * @throws IllegalArgumentException if expireAfterWrite is not positive
+     */
+    public void put(K key, V value, Duration expireAfterWrite) {
+        if (expireAfterWrite == null) {
+            throw new NullPointerException("Expiration cannot be null");
+        }
+        put(key, value, expireAfterWrite, null);
+    }
+    
+    /**
+     * Adds a key-value pair with its own expiration settings. A null duration falls back to the
+     * cache's setting for that kind of expiration.
+     * @param key the key to add
+     * @param value the value to add
+     * @param expireAfterWrite how long after this write the entry expires, or null for the cache default
+     * @param expireAfterAccess how long after its last read or write the entry expires, or null for the cache default
+     * @throws NullPointerException if key or value is null
+     * @throws IllegalArgumentException if a duration is not positive
+     */
+    public void put(K key, V value, Duration expireAfterWrite, Duration expireAfterAccess) {
+        long writeNanos = expireAfterWrite == null ? expireAfterWriteNanos : toNanos(expireAfterWrite);
+        long accessNanos = expireAfterAccess == null ? expireAfterAccessNanos : toNanos(expireAfterAccess);
+        if (writeNanos != NO_EXPIRATION || accessNanos != NO_EXPIRATION) {
+            expiring = true;
+        }
+        put(key, value, writeNanos, accessNanos);
+    }
+    
+    private void put(K key, V value, long writeNanos, long accessNanos) {
         if (key == null || value == null) {
             throw new NullPointerException("Key and value cannot be null");
         }
+        long start = startSample();
+        write(key, value, writeNanos, accessNanos);
+        endSample(putLatency, start);
+    }
+    
+    private void write(K key, V value, long writeNanos, long accessNanos) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Entry weight cannot be negative");
+        }
         
-        lock.writeLock().lock();
+        lockForWrite();
         try {
-            // Update access time
-            accessOrder.put(key, System.nanoTime());
-            cache.put(key, value);
-            
-            // Remove least recently used item if we're over capacity
-            if (cache.size() > maxSize) {
-                K lruKey = accessOrder.entrySet()
-                    .stream()
-                    .min(Map.Entry.comparingByValue())
-                    .map(Map.Entry::getKey)
-                    .orElseThrow();
-                    
-                remove(lruKey);
-            }
+            maintain();
+            upsert(key, value, weight, writeTime(), writeNanos, accessNanos);
+            evictOverflow();
         } finally {
-            lock.writeLock().unlock();
+            unlockForWrite();
+        }
+    }
+    
+    // Must be called while holding the write lock; the caller evicts afterwards
+    private void upsert(K key, V value, int weight, long now, long writeNanos, long accessNanos) {
+        Node<K, V> node = cache.get(key);
+        if (changedDuringRestore != null) {
+            changedDuringRestore.add(key);
+        }
+        if (node != null) {
+            V oldValue = node.value;
+            RemovalCause cause = hasExpired(node, now) ? RemovalCause.EXPIRED : RemovalCause.REPLACED;
+            totalWeight += weight - node.weight;
+            node.weight = weight;
+            setExpiration(node, now, writeNanos, accessNanos);
+            node.writeTime = now;
+            node.value = value;
+            moveToFront(node);
+            if (policy != null) {
+                policy.onAccess(key);
+            }
+            notifyRemoval(key, oldValue, cause);
+        } else {
+            node = new Node<>(key, value, weight);
+            setExpiration(node, now, writeNanos, accessNanos);
+            node.writeTime = now;
+            cache.put(key, node);
+            linkFirst(node);
+            totalWeight += weight;
+            if (policy != null) {
+                policy.onInsert(key);
+            }
+        }
+        timerWheel.schedule(node);
+        
+        // An entry that can never fit is dropped instead of flushing the whole cache
+        if (weight > maxWeight) {
+            forget(node);
+            evict(node);
+        }
+    }
+    
+    // Remove least recently used items until we're back within capacity
+    private void evictOverflow() {
+        while (totalWeight > maxWeight) {
+            evict(nextVictim());
         }
     }
     
     /**
-     * Retrieves a value from the cache and updates its access time.
+     * Retrieves a value from the cache and marks it as the most recently used entry.
+     * An entry whose expiration time has passed is reported as absent.
      * @param key the key to look up
      * @return an Optional containing the value if found, or empty if not found
      * @throws NullPointerException if key is null
@@ -70,23 +278,231 @@ public class LRUCache<K, V> {
             throw new NullPointerException("Key cannot be null");
         }
         
-        lock.readLock().lock();
+        long start = startSample();
+        Node<K, V> node = lookup(key);
+        endSample(getLatency, start);
+        return node == null ? Optional.empty() : Optional.of(node.value);
+    }
+    
+    /**
+     * Returns the value for a key, loading it on a miss. Each key is loaded at most once at a
+     * time: concurrent callers for the same key wait for the load already in flight instead of
+     * running the loader again, and all receive its value or its exception. A failed load is not
+     * cached, so the next call tries again. The loaded value is stored with the cache's default
+     * expiration, replacing any value put for the key while it was loading.
+     *
+     * With refresh-after-write configured, a hit on an entry older than the refresh interval
+     * returns the current value immediately and reloads it in the background on the executor.
+     * @param key the key to look up
+     * @param loader computes the value for a missing key; must not return null or load the same key
+     * @return the cached or newly loaded value
+     * @throws NullPointerException if key or loader is null, or the loader returns null
+     * @throws RuntimeException if the loader throws, rethrown to every waiting caller
+     */
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        if (key == null || loader == null) {
+            throw new NullPointerException("Key and loader cannot be null");
+        }
+        
+        Node<K, V> node = lookup(key);
+        if (node != null) {
+            return refreshIfStale(node, loader);
+        }
+        
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return requireLoaded(key, join(inFlight));
+        }
+        complete(key, load, () -> loader.apply(key));
+        return join(load);
+    }
+    
+    /**
+     * Returns the value for a key as a future, loading it on the cache's executor on a miss.
+     * Loads are shared with {@link #getOrLoad} so that a key is never loaded twice at once.
+     * @param key the key to look up
+     * @param loader computes the value for a missing key; must not return null
+     * @return a future completed with the cached or newly loaded value, or exceptionally with the loader's
+     *         exception, or with the {@link NullPointerException} {@link #getOrLoad} throws if the key was
+     *         being loaded by {@link #getAllOrLoad} and the batch loader had no value for it
+     * @throws NullPointerException if key or loader is null
+     */
+    public CompletableFuture<V> getOrLoadAsync(K key, Function<? super K, ? extends V> loader) {
+        if (key == null || loader == null) {
+            throw new NullPointerException("Key and loader cannot be null");
+        }
+        
+        Node<K, V> node = lookup(key);
+        if (node != null) {
+            return CompletableFuture.completedFuture(refreshIfStale(node, loader));
+        }
+        
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return inFlight instanceof BatchLoad ? inFlight.thenApply(value -> requireLoaded(key, value)) : inFlight;
+        }
         try {
-            V value = cache.get(key);
-            if (value != null) {
-                // Update access time under a write lock
-                lock.readLock().unlock();
-                lock.writeLock().lock();
-                try {
-                    accessOrder.put(key, System.nanoTime());
-                    lock.readLock().lock();
-                } finally {
-                    lock.writeLock().unlock();
-                }
+            executor.execute(() -> complete(key, load, () -> loader.apply(key)));
+        } catch (RuntimeException e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+        }
+        return load;
+    }
+    
+    private Node<K, V> lookup(K key) {
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            stats.recordMiss();
+            return null;
+        }
+        
+        if (expiring) {
+            long now = ticker.read();
+            if (hasExpired(node, now)) {
+                // Piggyback the cleanup on this read, but never wait for it
+                tryCleanUp();
+                stats.recordMiss();
+                return null;
+            }
+            extendAccess(node, now);
+        }
+        
+        stats.recordHit();
+        if (readBuffer != null) {
+            if (readBuffer.record(node)) {
+                tryCleanUp();
+            }
+            return node;
+        }
+        
+        lockForWrite();
+        try {
+            maintain();
+            // The entry may have been evicted since the lookup; only reorder live entries
+            if (node.isLinked()) {
+                recordAccess(node);
             }
-            return Optional.ofNullable(value);
         } finally {
-            lock.readLock().unlock();
+            unlockForWrite();
+        }
+        return node;
+    }
+    
+    private void extendAccess(Node<K, V> node, long now) {
+        if (node.accessNanos != NO_EXPIRATION) {
+            // The timer wheel notices the later time once the entry's current bucket comes due
+            node.expiresAt = sooner(node.writeDeadline, deadline(now, node.accessNanos));
+        }
+    }
+    
+    private void tryCleanUp() {
+        if (lock.writeLock().tryLock()) {
+            try {
+                maintain();
+            } finally {
+                unlockForWrite();
+            }
+        }
+    }
+    
+    private V refreshIfStale(Node<K, V> node, Function<? super K, ? extends V> loader) {
+        V value = node.value;
+        if (refreshAfterWriteNanos == NO_EXPIRATION || ticker.read() - node.writeTime < refreshAfterWriteNanos) {
+            return value;
+        }
+        
+        K key = node.key;
+        CompletableFuture<V> refresh = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, refresh) == null) {
+            try {
+                executor.execute(() -> {
+                    long start = loadStart();
+                    try {
+                        V refreshed = loader.apply(key);
+                        if (refreshed == null) {
+                            throw new NullPointerException("Loader returned null for key " + key);
+                        }
+                        stats.recordLoadSuccess(loadTime(start));
+                        replaceIfUnchanged(node, value, refreshed);
+                        loads.remove(key, refresh);
+                        refresh.complete(refreshed);
+                    } catch (RuntimeException | Error e) {
+                        // The old value stays in place and the next stale read tries again
+                        stats.recordLoadFailure(loadTime(start));
+                        loads.remove(key, refresh);
+                        refresh.completeExceptionally(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                loads.remove(key, refresh);
+                refresh.completeExceptionally(e);
+            }
+        }
+        return value;
+    }
+    
+    private void replaceIfUnchanged(Node<K, V> node, V expected, V value) {
+        lockForWrite();
+        try {
+            // Skip the refresh if the entry was written, removed or evicted while it reloaded
+            if (node.isLinked() && node.value == expected && cache.get(node.key) == node) {
+                put(node.key, value);
+            }
+        } finally {
+            unlockForWrite();
+        }
+    }
+    
+    private void complete(K key, CompletableFuture<V> load, Supplier<? extends V> supplier) {
+        V value;
+        long start = loadStart();
+        try {
+            value = supplier.get();
+            if (value == null) {
+                throw new NullPointerException("Loader returned null for key " + key);
+            }
+        } catch (RuntimeException | Error e) {
+            stats.recordLoadFailure(loadTime(start));
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            return;
+        }
+        stats.recordLoadSuccess(loadTime(start));
+        try {
+            // Store before retiring the load so that no caller can miss both
+            put(key, value);
+        } catch (RuntimeException | Error e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            return;
+        }
+        loads.remove(key, load);
+        load.complete(value);
+    }
+    
+    // Only a batch load completes with null, for a key the batch loader did not find
+    private static <K, V> V requireLoaded(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Loader returned null for key " + key);
+        }
+        return value;
+    }
+    
+    private static <V> V join(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
         }
     }
     
@@ -101,17 +517,502 @@ public class LRUCache<K, V> {
             throw new NullPointerException("Key cannot be null");
         }
         
-        lock.writeLock().lock();
+        lockForWrite();
+        try {
+            maintain();
+            return removeLocked(key);
+        } finally {
+            unlockForWrite();
+        }
+    }
+    
+    private boolean removeLocked(K key) {
+        Node<K, V> node = cache.remove(key);
+        if (changedDuringRestore != null) {
+            changedDuringRestore.add(key);
+        }
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        timerWheel.deschedule(node);
+        forget(node);
+        totalWeight -= node.weight;
+        notifyRemoval(key, node.value, RemovalCause.EXPLICIT);
+        return true;
+    }
+    
+    /**
+     * Looks up many keys at once. Hits are found without locking, and their recency is then
+     * updated under a single acquisition of the write lock, or recorded in the read buffers in
+     * buffered mode, instead of once per key.
+     * @param keys the keys to look up
+     * @return the keys that were present mapped to their values, in the order they were requested
+     * @throws NullPointerException if keys is null or contains null
+     */
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        if (keys == null) {
+            throw new NullPointerException("Keys cannot be null");
+        }
+        
+        Map<K, V> found = new LinkedHashMap<>();
+        List<Node<K, V>> hits = new ArrayList<>();
+        long now = expiring ? ticker.read() : 0L;
+        boolean sawExpired = false;
+        for (K key : keys) {
+            if (key == null) {
+                throw new NullPointerException("Keys cannot contain null");
+            }
+            Node<K, V> node = cache.get(key);
+            if (node == null || (expiring && hasExpired(node, now))) {
+                sawExpired |= node != null;
+                stats.recordMiss();
+                continue;
+            }
+            if (expiring) {
+                extendAccess(node, now);
+            }
+            stats.recordHit();
+            found.put(key, node.value);
+            hits.add(node);
+        }
+        
+        if (readBuffer != null) {
+            boolean drain = sawExpired;
+            for (Node<K, V> node : hits) {
+                drain |= readBuffer.record(node);
+            }
+            if (drain) {
+                tryCleanUp();
+            }
+        } else if (!hits.isEmpty()) {
+            lockForWrite();
+            try {
+                maintain();
+                for (Node<K, V> node : hits) {
+                    if (node.isLinked()) {
+                        recordAccess(node);
+                    }
+                }
+            } finally {
+                unlockForWrite();
+            }
+        } else if (sawExpired) {
+            tryCleanUp();
+        }
+        return found;
+    }
+    
+    /**
+     * Adds many entries at once under a single acquisition of the write lock. Entries are
+     * weighed before the lock is taken and evictions run once, after all of them are in, so an
+     * oversized batch evicts its own earliest entries first.
+     * @param entries the entries to add
+     * @throws NullPointerException if entries is null or contains a null key or value
+     * @throws IllegalArgumentException if the weigher returns a negative weight
+     */
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        if (entries == null) {
+            throw new NullPointerException("Entries cannot be null");
+        }
+        
+        int[] weights = new int[entries.size()];
+        int i = 0;
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new NullPointerException("Key and value cannot be null");
+            }
+            weights[i] = weigher.weigh(entry.getKey(), entry.getValue());
+            if (weights[i++] < 0) {
+                throw new IllegalArgumentException("Entry weight cannot be negative");
+            }
+        }
+        if (weights.length == 0) {
+            return;
+        }
+        
+        lockForWrite();
+        try {
+            maintain();
+            long now = writeTime();
+            i = 0;
+            for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+                upsert(entry.getKey(), entry.getValue(), weights[i++], now, expireAfterWriteNanos, expireAfterAccessNanos);
+            }
+            evictOverflow();
+        } finally {
+            unlockForWrite();
+        }
+    }
+    
+    /**
+     * Removes many entries at once under a single acquisition of the write lock.
+     * @param keys the keys to remove
+     * @return the number of entries that were removed
+     * @throws NullPointerException if keys is null or contains null
+     */
+    public int invalidateAll(Iterable<? extends K> keys) {
+        if (keys == null) {
+            throw new NullPointerException("Keys cannot be null");
+        }
+        
+        lockForWrite();
+        try {
+            maintain();
+            int removed = 0;
+            for (K key : keys) {
+                if (key == null) {
+                    throw new NullPointerException("Keys cannot contain null");
+                }
+                removed += removeLocked(key) ? 1 : 0;
+            }
+            return removed;
+        } finally {
+            unlockForWrite();
+        }
+    }
+    
+    /**
+     * Looks up many keys at once and loads all of the missing ones with a single call to the
+     * batch loader, storing the results with {@link #putAll}. Keys that another caller is
+     * already loading are not loaded again; this call waits for those loads instead. Keys the
+     * loader leaves out of its result are left out of the returned map as well.
+     * @param keys the keys to look up
+     * @param batchLoader receives the missing keys and returns the values it found for them
+     * @return the keys that were present or loaded mapped to their values, in the order they were requested
+     * @throws NullPointerException if keys, a key or batchLoader is null, or the loader returns null
+     * @throws RuntimeException if the batch loader or a load this call waits for throws
+     */
+    public Map<K, V> getAllOrLoad(Iterable<? extends K> keys,
+                                  Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> batchLoader) {
+        if (batchLoader == null) {
+            throw new NullPointerException("Batch loader cannot be null");
+        }
+        Map<K, V> found = getAll(keys);
+        
+        Map<K, CompletableFuture<V>> waiting = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> claimed = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (found.containsKey(key) || waiting.containsKey(key) || claimed.containsKey(key)) {
+                continue;
+            }
+            CompletableFuture<V> load = new BatchLoad<>();
+            CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+            if (inFlight != null) {
+                waiting.put(key, inFlight);
+            } else {
+                claimed.put(key, load);
+            }
+        }
+        if (waiting.isEmpty() && claimed.isEmpty()) {
+            return found;
+        }
+        
+        Map<K, V> loaded = claimed.isEmpty() ? Map.of() : loadAll(claimed, batchLoader);
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.get(key);
+            if (value == null) {
+                value = waiting.containsKey(key) ? join(waiting.get(key)) : loaded.get(key);
+            }
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+    
+    private Map<K, V> loadAll(Map<K, CompletableFuture<V>> claimed,
+                              Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> batchLoader) {
+        Map<? extends K, ? extends V> result;
+        long start = loadStart();
+        try {
+            result = batchLoader.apply(Collections.unmodifiableSet(claimed.keySet()));
+            if (result == null) {
+                throw new NullPointerException("Batch loader returned null");
+            }
+        } catch (RuntimeException | Error e) {
+            stats.recordLoadFailure(loadTime(start));
+            failAll(claimed, e);
+            throw e;
+        }
+        stats.recordLoadSuccess(loadTime(start));
+        
+        // Only the requested keys are cached, whatever else the loader returned
+        Map<K, V> loaded = new LinkedHashMap<>();
+        for (K key : claimed.keySet()) {
+            V value = result.get(key);
+            if (value != null) {
+                loaded.put(key, value);
+            }
+        }
+        try {
+            putAll(loaded);
+        } catch (RuntimeException | Error e) {
+            failAll(claimed, e);
+            throw e;
+        }
+        
+        // Keys the loader did not find complete with null, which single-key waiters report as a failed load
+        claimed.forEach((key, load) -> {
+            loads.remove(key, load);
+            load.complete(loaded.get(key));
+        });
+        return loaded;
+    }
+    
+    private void failAll(Map<K, CompletableFuture<V>> claimed, Throwable failure) {
+        claimed.forEach((key, load) -> {
+            loads.remove(key, load);
+            load.completeExceptionally(failure);
+        });
+    }
+    
+    /**
+     * Writes the live entries to a file in the background, in recency order, so that a new cache
+     * can be warmed up from it with {@link #restore}. The cache stays fully usable meanwhile: the
+     * entries are copied in small chunks, each under a brief hold of the write lock, by moving a
+     * cursor from the least towards the most recently used end of the list, and serialization and
+     * file I/O happen outside the lock. The result is therefore not a point-in-time image; an entry
+     * used again after it was copied is written a second time in its new position, and restore keeps
+     * the most recent copy. If writers keep overtaking the cursor, the walk ends after visiting
+     * twice as many entries as the cache held when it started, and the entries used last may be
+     * missing from the file. The file is written next to the target and moved into place when it is
+     * complete, so a failed snapshot leaves an earlier one intact.
+     * @param file the snapshot file to create or replace
+     * @param keySerializer encodes the keys
+     * @param valueSerializer encodes the values
+     * @return a future completed with the number of entries written, or exceptionally with an
+     *         {@link UncheckedIOException} if the file cannot be written
+     * @throws NullPointerException if any argument is null
+     */
+    public CompletableFuture<Integer> snapshot(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        if (file == null || keySerializer == null || valueSerializer == null) {
+            throw new NullPointerException("File and serializers cannot be null");
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return writeSnapshot(file, keySerializer, valueSerializer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write cache snapshot " + file, e);
+            }
+        }, executor);
+    }
+    
+    private int writeSnapshot(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer) throws IOException {
+        Node<K, V> cursor = new Node<>(null, null, 0);
+        long budget;
+        lockForWrite();
+        try {
+            linkLast(cursor);
+            // Entries used during the walk move ahead of the cursor again; bounding the number of
+            // visits keeps a write rate faster than the walk from making it endless
+            budget = 2L * cache.size() + SNAPSHOT_CHUNK;
+        } finally {
+            unlockForWrite();
+        }
+        
+        try (CacheSnapshot.Writer<K, V> writer = new CacheSnapshot.Writer<>(file, keySerializer, valueSerializer)) {
+            List<CacheSnapshot.Entry<K, V>> chunk = new ArrayList<>(SNAPSHOT_CHUNK);
+            boolean more;
+            do {
+                chunk.clear();
+                more = copyChunk(cursor, chunk);
+                for (CacheSnapshot.Entry<K, V> entry : chunk) {
+                    writer.append(entry);
+                }
+                budget -= SNAPSHOT_CHUNK;
+            } while (more && budget > 0);
+            writer.finish();
+            return writer.count();
+        } finally {
+            lockForWrite();
+            try {
+                if (cursor.isLinked()) {
+                    unlink(cursor);
+                }
+            } finally {
+                unlockForWrite();
+            }
+        }
+    }
+    
+    // Copies the entries just more recent than the cursor and moves the cursor past them
+    private boolean copyChunk(Node<K, V> cursor, List<CacheSnapshot.Entry<K, V>> chunk) {
+        lockForWrite();
+        try {
+            // A clear detaches the cursor along with the entries, which ends the snapshot
+            if (!cursor.isLinked()) {
+                return false;
+            }
+            long now = expiring ? ticker.read() : 0L;
+            Node<K, V> node = cursor.prev;
+            for (int visited = 0; node != accessOrder && visited < SNAPSHOT_CHUNK; visited++) {
+                if (node.key != null && !hasExpired(node, now)) {
+                    chunk.add(new CacheSnapshot.Entry<>(node.key, node.value,
+                        remaining(node.writeDeadline, now), remaining(node.expiresAt, now), node.accessNanos));
+                }
+                node = node.prev;
+            }
+            unlink(cursor);
+            if (node == accessOrder) {
+                return false;
+            }
+            linkAfter(cursor, node);
+            return true;
+        } finally {
+            unlockForWrite();
+        }
+    }
+    
+    /**
+     * Loads the entries of a snapshot written by {@link #snapshot} in the background and returns
+     * at once, so the cache can serve requests while it warms up. Entries are read from the most
+     * to the least recently used and inserted behind the live entries, in chunks under a brief
+     * hold of the write lock. Keys written or removed since the restore started keep their current
+     * state, entries that expired in the meantime are skipped, and the restore stops once
+     * the next entry would not fit, dropping the coldest part of the snapshot rather than evicting
+     * live entries. Time passed since the snapshot counts towards expiration, measured with the
+     * wall clock.
+     * @param file the snapshot file to read
+     * @param keySerializer decodes the keys
+     * @param valueSerializer decodes the values
+     * @return a future completed with the number of entries restored, or exceptionally with an
+     *         {@link UncheckedIOException} if the file is missing or corrupt
+     * @throws NullPointerException if any argument is null
+     */
+    public CompletableFuture<Integer> restore(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        if (file == null || keySerializer == null || valueSerializer == null) {
+            throw new NullPointerException("File and serializers cannot be null");
+        }
+        int clearsAtStart;
+        lockForWrite();
+        try {
+            clearsAtStart = clearCount;
+            if (restoresRunning++ == 0) {
+                changedDuringRestore = new HashSet<>();
+            }
+        } finally {
+            unlockForWrite();
+        }
+        
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readSnapshot(file, keySerializer, valueSerializer, clearsAtStart);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read cache snapshot " + file, e);
+            } finally {
+                lockForWrite();
+                try {
+                    if (--restoresRunning == 0) {
+                        changedDuringRestore = null;
+                    }
+                } finally {
+                    unlockForWrite();
+                }
+            }
+        }, executor);
+    }
+    
+    private int readSnapshot(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                             int clearsAtStart) throws IOException {
+        try (CacheSnapshot.Reader<K, V> reader = new CacheSnapshot.Reader<>(file, keySerializer, valueSerializer)) {
+            long elapsedNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - reader.createdMillis()));
+            List<CacheSnapshot.Entry<K, V>> chunk = new ArrayList<>(SNAPSHOT_CHUNK);
+            int[] weights = new int[SNAPSHOT_CHUNK];
+            int restored = 0;
+            CacheSnapshot.Entry<K, V> entry = reader.previous();
+            while (entry != null) {
+                // Deserializing and weighing happen before taking the lock
+                chunk.clear();
+                while (entry != null && chunk.size() < SNAPSHOT_CHUNK) {
+                    CacheSnapshot.Entry<K, V> aged = age(entry, elapsedNanos);
+                    if (aged != null) {
+                        int weight = weigher.weigh(aged.key, aged.value);
+                        if (weight < 0) {
+                            throw new IllegalArgumentException("Entry weight cannot be negative");
+                        }
+                        weights[chunk.size()] = weight;
+                        chunk.add(aged);
+                    }
+                    entry = reader.previous();
+                }
+                
+                int inserted = insertRestored(chunk, weights, clearsAtStart);
+                if (inserted < 0) {
+                    restored += -1 - inserted;
+                    break;
+                }
+                restored += inserted;
+            }
+            return restored;
+        }
+    }
+    
+    // Returns the number of entries inserted, or -1 minus that number if the restore should stop
+    private int insertRestored(List<CacheSnapshot.Entry<K, V>> chunk, int[] weights, int clearsAtStart) {
+        lockForWrite();
         try {
-            accessOrder.remove(key);
-            return cache.remove(key) != null;
+            if (clearCount != clearsAtStart) {
+                return -1;
+            }
+            maintain();
+            long now = ticker.read();
+            int inserted = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                CacheSnapshot.Entry<K, V> entry = chunk.get(i);
+                if (cache.containsKey(entry.key) || changedDuringRestore.contains(entry.key)) {
+                    continue;
+                }
+                if (totalWeight + weights[i] > maxWeight) {
+                    return -1 - inserted;
+                }
+                
+                Node<K, V> node = new Node<>(entry.key, entry.value, weights[i]);
+                node.writeDeadline = entry.writeNanos == CacheSnapshot.NO_EXPIRATION ? NEVER : deadline(now, entry.writeNanos);
+                node.expiresAt = entry.expiresNanos == CacheSnapshot.NO_EXPIRATION ? NEVER : deadline(now, entry.expiresNanos);
+                node.accessNanos = entry.accessNanos;
+                node.writeTime = now;
+                if (node.expiresAt != NEVER) {
+                    expiring = true;
+                }
+                cache.put(entry.key, node);
+                linkLast(node);
+                totalWeight += weights[i];
+                if (policy != null) {
+                    policy.onInsert(entry.key);
+                }
+                timerWheel.schedule(node);
+                inserted++;
+            }
+            return inserted;
         } finally {
-            lock.writeLock().unlock();
+            unlockForWrite();
+        }
+    }
+    
+    private static <K, V> CacheSnapshot.Entry<K, V> age(CacheSnapshot.Entry<K, V> entry, long elapsedNanos) {
+        if (entry.expiresNanos == CacheSnapshot.NO_EXPIRATION || elapsedNanos == 0) {
+            return entry;
         }
+        if (entry.expiresNanos <= elapsedNanos) {
+            return null;
+        }
+        long writeNanos = entry.writeNanos == CacheSnapshot.NO_EXPIRATION
+            ? CacheSnapshot.NO_EXPIRATION
+            : entry.writeNanos - elapsedNanos;
+        return new CacheSnapshot.Entry<>(entry.key, entry.value, writeNanos,
+            entry.expiresNanos - elapsedNanos, entry.accessNanos);
+    }
+    
+    private static long remaining(long deadline, long now) {
+        return deadline == NEVER ? CacheSnapshot.NO_EXPIRATION : Math.max(1, deadline - now);
     }
     
     /**
-     * Returns the current size of the cache.
+     * Returns the current size of the cache. Expired entries count until they are cleaned up,
+     * which happens as part of later reads and writes or an explicit {@link #cleanUp()}, up to
+     * about a second after their expiration time.
      * @return the number of entries in the cache
      */
     public int size() {
@@ -123,16 +1024,607 @@ public class LRUCache<K, V> {
         }
     }
     
+    /**
+     * Returns the total weight of the entries in the cache. Without a weigher every entry
+     * weighs 1, so this equals the size.
+     * @return the summed weight of all entries
+     */
+    public long weightedSize() {
+        lock.readLock().lock();
+        try {
+            return totalWeight;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns a snapshot of the cache's statistics. Without {@link Builder#recordStats()} all
+     * counters are zero.
+     * @return the current statistics
+     */
+    public CacheStats stats() {
+        return stats.snapshot(getLatency, putLatency);
+    }
+    
+    /**
+     * Registers the cache's statistics with the platform MBean server, under the object name
+     * {@code LRUCache:type=CacheStats,name=<name>}. Unregister it through the returned name when
+     * the cache is discarded, or the MBean server keeps the cache reachable.
+     * @param name a name that identifies this cache among the registered ones
+     * @return the object name the MBean was registered under
+     * @throws NullPointerException if name is null
+     * @throws IllegalStateException if registration fails, for example because the name is taken
+     */
+    public ObjectName registerStatsMBean(String name) {
+        if (name == null) {
+            throw new NullPointerException("Name cannot be null");
+        }
+        try {
+            ObjectName objectName = new ObjectName("LRUCache:type=CacheStats,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StatsBean(this), objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register statistics MBean for " + name, e);
+        }
+    }
+    
+    /**
+     * Applies buffered reads and removes expired entries now instead of waiting for the next
+     * read or write to do it.
+     */
+    public void cleanUp() {
+        lockForWrite();
+        try {
+            maintain();
+        } finally {
+            unlockForWrite();
+        }
+    }
+    
     /**
      * Removes all entries from the cache.
      */
     public void clear() {
-        lock.writeLock().lock();
+        lockForWrite();
         try {
+            drainReadBuffer();
             cache.clear();
-            accessOrder.clear();
+            clearCount++;
+            // Detach every node so that concurrent readers holding one do not relink it; this
+            // also ends running snapshots, whose cursors are unkeyed nodes in the same list
+            Node<K, V> node = accessOrder.next;
+            while (node != accessOrder) {
+                Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                if (node.key != null) {
+                    timerWheel.deschedule(node);
+                    forget(node);
+                    notifyRemoval(node.key, node.value, RemovalCause.EXPLICIT);
+                }
+                node = next;
+            }
+            accessOrder.prev = accessOrder;
+            accessOrder.next = accessOrder;
+            totalWeight = 0;
         } finally {
-            lock.writeLock().unlock();
+            unlockForWrite();
+        }
+    }
+    
+    /**
+     * Called whenever an entry leaves the cache, while the write lock is still held.
+     * Subclasses can override this to release resources tied to the value; the default does nothing.
+     * Implementations must be fast and must not call back into the cache. Slow work belongs in a
+     * {@link RemovalListener}, which runs outside the lock.
+     * @param key the key of the removed entry
+     * @param value the value that was removed or replaced
+     * @param cause why the entry was removed
+     */
+    protected void onRemoval(K key, V value, RemovalCause cause) {
+    }
+    
+    // The access order is a circular doubly-linked list threaded through the entries themselves:
+    // accessOrder.next is the most recently used entry and accessOrder.prev the least recently used.
+    // All of the helpers below must be called while holding the write lock.
+    
+    private void linkAfter(Node<K, V> node, Node<K, V> predecessor) {
+        node.prev = predecessor;
+        node.next = predecessor.next;
+        predecessor.next.prev = node;
+        predecessor.next = node;
+    }
+    
+    private void linkLast(Node<K, V> node) {
+        linkAfter(node, accessOrder.prev);
+    }
+    
+    private void linkFirst(Node<K, V> node) {
+        node.prev = accessOrder;
+        node.next = accessOrder.next;
+        accessOrder.next.prev = node;
+        accessOrder.next = node;
+    }
+    
+    private void notifyRemoval(K key, V value, RemovalCause cause) {
+        onRemoval(key, value, cause);
+        if (removalListener != null) {
+            pendingNotifications.add(() -> removalListener.onRemoval(key, value, cause));
+        }
+    }
+    
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+    
+    private void moveToFront(Node<K, V> node) {
+        if (accessOrder.next != node) {
+            unlink(node);
+            linkFirst(node);
+        }
+    }
+    
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        timerWheel.deschedule(node);
+        cache.remove(node.key);
+        totalWeight -= node.weight;
+        stats.recordEviction(node.weight);
+        notifyRemoval(node.key, node.value, RemovalCause.EVICTED);
+    }
+    
+    private Node<K, V> nextVictim() {
+        if (policy != null) {
+            K key = policy.evict();
+            Node<K, V> victim = key == null ? null : cache.get(key);
+            if (victim != null && victim.isLinked()) {
+                return victim;
+            }
+        }
+        // Without a policy, or if it lost track of the entries, fall back to plain LRU, stepping
+        // over the cursors of running snapshots
+        Node<K, V> victim = accessOrder.prev;
+        while (victim.key == null) {
+            victim = victim.prev;
+        }
+        forget(victim);
+        return victim;
+    }
+    
+    private void forget(Node<K, V> node) {
+        if (policy != null) {
+            policy.onRemove(node.key);
+        }
+    }
+    
+    private void recordAccess(Node<K, V> node) {
+        moveToFront(node);
+        if (policy != null) {
+            policy.onAccess(node.key);
+        }
+    }
+    
+    private void expire(Node<K, V> node) {
+        unlink(node);
+        forget(node);
+        cache.remove(node.key, node);
+        totalWeight -= node.weight;
+        stats.recordEviction(node.weight);
+        notifyRemoval(node.key, node.value, RemovalCause.EXPIRED);
+    }
+    
+    private long writeTime() {
+        return expiring || refreshAfterWriteNanos != NO_EXPIRATION ? ticker.read() : 0L;
+    }
+    
+    private void lockForWrite() {
+        if (lock.writeLock().tryLock()) {
+            return;
+        }
+        // Only contended acquisitions are timed, so the uncontended path reads no clock
+        if (stats.isEnabled()) {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            stats.recordLockWait(System.nanoTime() - start);
+        } else {
+            lock.writeLock().lock();
+        }
+    }
+    
+    // Notifications collected under the lock are handed to the executor once it is fully released
+    private void unlockForWrite() {
+        lock.writeLock().unlock();
+        if (removalListener != null && !lock.isWriteLockedByCurrentThread()) {
+            Runnable notification;
+            while ((notification = pendingNotifications.poll()) != null) {
+                executor.execute(notification);
+            }
+        }
+    }
+    
+    // Loads are only timed with stats on, so a cache without them reads no clock per load
+    private long loadStart() {
+        return stats.isEnabled() ? System.nanoTime() : 0;
+    }
+    
+    private long loadTime(long start) {
+        return stats.isEnabled() ? System.nanoTime() - start : 0;
+    }
+    
+    private long startSample() {
+        if (latencySampleRate == 0 || ThreadLocalRandom.current().nextInt(latencySampleRate) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+    
+    private static void endSample(LatencyHistogram histogram, long start) {
+        if (start != NOT_SAMPLED) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+    
+    private void maintain() {
+        drainReadBuffer();
+        if (expiring) {
+            timerWheel.advance(ticker.read());
+        }
+    }
+    
+    private void drainReadBuffer() {
+        if (readBuffer != null) {
+            readBuffer.drainTo(this::applyRead);
+        }
+    }
+    
+    private void applyRead(Node<K, V> node) {
+        // Buffered reads can refer to entries that were removed or evicted in the meantime
+        if (node.isLinked()) {
+            recordAccess(node);
+        }
+    }
+    
+    private static <K, V> void setExpiration(Node<K, V> node, long now, long writeNanos, long accessNanos) {
+        node.writeDeadline = writeNanos == NO_EXPIRATION ? NEVER : deadline(now, writeNanos);
+        node.accessNanos = accessNanos;
+        node.expiresAt = accessNanos == NO_EXPIRATION
+            ? node.writeDeadline
+            : sooner(node.writeDeadline, deadline(now, accessNanos));
+    }
+    
+    private static boolean hasExpired(Node<?, ?> node, long now) {
+        long expiresAt = node.expiresAt;
+        return expiresAt != NEVER && now - expiresAt >= 0;
+    }
+    
+    private static long sooner(long deadline, long other) {
+        if (deadline == NEVER) {
+            return other;
+        }
+        return other == NEVER || deadline - other <= 0 ? deadline : other;
+    }
+    
+    private static long deadline(long now, long nanos) {
+        // Durations are capped at half the clock range, so wrapping arithmetic stays ordered;
+        // only a deadline that lands on the NEVER marker needs nudging
+        long deadline = now + nanos;
+        return deadline == NEVER ? NEVER - 1 : deadline;
+    }
+    
+    private static long toNanos(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Expiration duration must be positive");
+        }
+        try {
+            return Math.min(duration.toNanos(), MAXIMUM_EXPIRY);
+        } catch (ArithmeticException e) {
+            return MAXIMUM_EXPIRY;
+        }
+    }
+    
+    /**
+     * Collects the settings of an {@link LRUCache}. Without a maximum size or weight the cache
+     * is bounded only by expiration.
+     * @param <K> the type of keys maintained by the cache
+     * @param <V> the type of cached values
+     */
+    public static final class Builder<K, V> {
+        private long maxWeight = Long.MAX_VALUE;
+        private Weigher<? super K, ? super V> weigher = SINGLETON_WEIGHER;
+        private boolean bufferedReads;
+        private long expireAfterWriteNanos = NO_EXPIRATION;
+        private long expireAfterAccessNanos = NO_EXPIRATION;
+        private long refreshAfterWriteNanos = NO_EXPIRATION;
+        private Ticker ticker = Ticker.systemTicker();
+        private Executor executor = ForkJoinPool.commonPool();
+        private EvictionPolicy<K> policy;
+        private RemovalListener<? super K, ? super V> removalListener;
+        private boolean recordStats;
+        private int latencySampleRate;
+        
+        private Builder() {
+        }
+        
+        /**
+         * Bounds the cache by the number of entries.
+         * @param maxSize the maximum number of entries the cache can hold
+         * @return this builder
+         * @throws IllegalArgumentException if maxSize is less than 1
+         */
+        public Builder<K, V> maximumSize(int maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Cache size must be greater than 0");
+            }
+            this.maxWeight = maxSize;
+            this.weigher = SINGLETON_WEIGHER;
+            return this;
+        }
+        
+        /**
+         * Bounds the cache by the total weight of its entries.
+         * @param maxWeight the maximum total weight of the entries the cache can hold
+         * @param weigher computes the weight of each entry when it is written
+         * @return this builder
+         * @throws IllegalArgumentException if maxWeight is less than 1
+         * @throws NullPointerException if weigher is null
+         */
+        public Builder<K, V> maximumWeight(long maxWeight, Weigher<? super K, ? super V> weigher) {
+            if (maxWeight < 1) {
+                throw new IllegalArgumentException("Maximum weight must be greater than 0");
+            }
+            if (weigher == null) {
+                throw new NullPointerException("Weigher cannot be null");
+            }
+            this.maxWeight = maxWeight;
+            this.weigher = weigher;
+            return this;
+        }
+        
+        /**
+         * Chooses whether hits are buffered instead of reordered under the write lock,
+         * as described for {@link LRUCache#LRUCache(int, boolean)}.
+         * @param bufferedReads whether reads are buffered
+         * @return this builder
+         */
+        public Builder<K, V> bufferedReads(boolean bufferedReads) {
+            this.bufferedReads = bufferedReads;
+            return this;
+        }
+        
+        /**
+         * Expires every entry a fixed time after it was last written.
+         * @param duration how long an entry lives after being written
+         * @return this builder
+         * @throws NullPointerException if duration is null
+         * @throws IllegalArgumentException if duration is not positive
+         */
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            this.expireAfterWriteNanos = toNanos(duration);
+            return this;
+        }
+        
+        /**
+         * Expires every entry a fixed time after it was last read or written.
+         * @param duration how long an entry lives after its last access
+         * @return this builder
+         * @throws NullPointerException if duration is null
+         * @throws IllegalArgumentException if duration is not positive
+         */
+        public Builder<K, V> expireAfterAccess(Duration duration) {
+            this.expireAfterAccessNanos = toNanos(duration);
+            return this;
+        }
+        
+        /**
+         * Reloads entries read through {@link LRUCache#getOrLoad} once they are older than the given
+         * interval, serving the old value until the new one is ready. Unlike expiration, a stale
+         * entry is only reloaded when it is read.
+         * @param duration how long after being written an entry becomes eligible for refresh
+         * @return this builder
+         * @throws NullPointerException if duration is null
+         * @throws IllegalArgumentException if duration is not positive
+         */
+        public Builder<K, V> refreshAfterWrite(Duration duration) {
+            this.refreshAfterWriteNanos = toNanos(duration);
+            return this;
+        }
+        
+        /**
+         * Sets the executor that runs asynchronous loads, refreshes and removal notifications,
+         * which defaults to the common fork-join pool. Any executor works, including one that
+         * starts a virtual thread per task.
+         * @param executor the executor for loads and notifications
+         * @return this builder
+         * @throws NullPointerException if executor is null
+         */
+        public Builder<K, V> executor(Executor executor) {
+            if (executor == null) {
+                throw new NullPointerException("Executor cannot be null");
+            }
+            this.executor = executor;
+            return this;
+        }
+        
+        /**
+         * Notifies a listener of every entry that is evicted, expires, is replaced or is removed.
+         * Notifications are queued while the cache's lock is held and handed to the executor
+         * after it is released, so they never add a listener's running time to a cache operation.
+         * @param listener the listener to notify
+         * @return this builder
+         * @throws NullPointerException if listener is null
+         */
+        public Builder<K, V> removalListener(RemovalListener<? super K, ? super V> listener) {
+            if (listener == null) {
+                throw new NullPointerException("Removal listener cannot be null");
+            }
+            this.removalListener = listener;
+            return this;
+        }
+        
+        /**
+         * Chooses eviction victims with the given policy instead of plain LRU. The policy is
+         * created for the cache's capacity and must not be shared with another cache.
+         * @param policy the eviction policy
+         * @return this builder
+         * @throws NullPointerException if policy is null
+         */
+        public Builder<K, V> evictionPolicy(EvictionPolicy<K> policy) {
+            if (policy == null) {
+                throw new NullPointerException("Eviction policy cannot be null");
+            }
+            this.policy = policy;
+            return this;
+        }
+        
+        /**
+         * Turns on hit, miss, load, eviction and lock-wait counters, read through
+         * {@link LRUCache#stats()}. Without this each recording call is a single untaken branch and
+         * loads read no clock.
+         * @return this builder
+         */
+        public Builder<K, V> recordStats() {
+            this.recordStats = true;
+            return this;
+        }
+        
+        /**
+         * Records the latency of about one in every sampleRate gets and puts in histograms, and
+         * turns on the other statistics as well. Sampling keeps the clock reads and histogram
+         * updates off most calls.
+         * @param sampleRate how many calls share one sample; 1 times every call
+         * @return this builder
+         * @throws IllegalArgumentException if sampleRate is less than 1
+         */
+        public Builder<K, V> recordLatency(int sampleRate) {
+            if (sampleRate < 1) {
+                throw new IllegalArgumentException("Sample rate must be greater than 0");
+            }
+            this.recordStats = true;
+            this.latencySampleRate = sampleRate;
+            return this;
+        }
+        
+        /**
+         * Sets the time source used for expiration and refresh, which defaults to {@link System#nanoTime()}.
+         * Tests can supply a manually advanced ticker.
+         * @param ticker the time source
+         * @return this builder
+         * @throws NullPointerException if ticker is null
+         */
+        public Builder<K, V> ticker(Ticker ticker) {
+            if (ticker == null) {
+                throw new NullPointerException("Ticker cannot be null");
+            }
+            this.ticker = ticker;
+            return this;
+        }
+        
+        /**
+         * Creates a cache with the collected settings.
+         * @return a new cache
+         */
+        public LRUCache<K, V> build() {
+            return new LRUCache<>(this);
+        }
+    }
+    
+    private static final class StatsBean implements CacheStatsMXBean {
+        private final LRUCache<?, ?> cache;
+        
+        StatsBean(LRUCache<?, ?> cache) {
+            this.cache = cache;
+        }
+        
+        @Override
+        public long getEstimatedSize() {
+            return cache.cache.size();
+        }
+        
+        @Override
+        public long getHitCount() {
+            return cache.stats().hitCount();
+        }
+        
+        @Override
+        public long getMissCount() {
+            return cache.stats().missCount();
+        }
+        
+        @Override
+        public double getHitRate() {
+            return cache.stats().hitRate();
+        }
+        
+        @Override
+        public long getLoadSuccessCount() {
+            return cache.stats().loadSuccessCount();
+        }
+        
+        @Override
+        public long getLoadFailureCount() {
+            return cache.stats().loadFailureCount();
+        }
+        
+        @Override
+        public double getAverageLoadPenaltyNanos() {
+            return cache.stats().averageLoadPenalty();
+        }
+        
+        @Override
+        public long getEvictionCount() {
+            return cache.stats().evictionCount();
+        }
+        
+        @Override
+        public long getLockWaitCount() {
+            return cache.stats().lockWaitCount();
+        }
+        
+        @Override
+        public long getTotalLockWaitNanos() {
+            return cache.stats().totalLockWaitTime();
+        }
+        
+        @Override
+        public long getGetLatencyP99Nanos() {
+            return cache.getLatency == null ? 0 : cache.getLatency.percentile(0.99);
+        }
+        
+        @Override
+        public long getPutLatencyP99Nanos() {
+            return cache.putLatency == null ? 0 : cache.putLatency.percentile(0.99);
+        }
+    }
+    
+    // A load claimed by getAllOrLoad, which completes with null for keys the batch loader did not find
+    private static final class BatchLoad<V> extends CompletableFuture<V> {
+    }
+    
+    static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        int weight;
+        Node<K, V> prev;
+        Node<K, V> next;
+        volatile long expiresAt = NEVER;
+        long writeDeadline = NEVER;
+        long accessNanos = NO_EXPIRATION;
+        long writeTime;
+        Node<K, V> timerPrev;
+        Node<K, V> timerNext;
+        
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+        
+        boolean isLinked() {
+            return next != null;
         }
     }
 }
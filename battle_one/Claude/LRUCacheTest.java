@@ -0,0 +1,715 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+class LRUCacheTest {
+    private LRUCache<String, Integer> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LRUCache<>(3);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when over capacity")
+    void put_OverCapacity_EvictsLeastRecentlyUsed() {
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.put("d", 4);
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.get("a").isPresent());
+        assertEquals(4, cache.get("d").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should keep recently read entries when evicting")
+    void get_ExistingKey_ProtectsFromEviction() {
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.put("d", 4);
+
+        assertTrue(cache.get("a").isPresent());
+        assertFalse(cache.get("b").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should apply buffered reads before choosing an eviction victim")
+    void get_BufferedReads_ProtectsFromEviction() {
+        LRUCache<String, Integer> buffered = new LRUCache<>(3, true);
+        buffered.put("a", 1);
+        buffered.put("b", 2);
+        buffered.put("c", 3);
+        assertEquals(1, buffered.get("a").orElseThrow());
+        buffered.put("d", 4);
+
+        assertEquals(3, buffered.size());
+        assertTrue(buffered.get("a").isPresent());
+        assertFalse(buffered.get("b").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should stay bounded when many buffered reads are dropped")
+    void get_BufferedReadsOverflow_CacheStaysBounded() {
+        LRUCache<Integer, Integer> buffered = new LRUCache<>(100, true);
+        for (int i = 0; i < 10_000; i++) {
+            buffered.put(i, i);
+            buffered.get(i / 2);
+            buffered.get(i);
+        }
+
+        assertEquals(100, buffered.size());
+        assertTrue(buffered.get(9_999).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should treat updating an existing key as a use")
+    void put_ExistingKey_UpdatesValueAndRecency() {
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.put("a", 10);
+        cache.put("d", 4);
+
+        assertEquals(10, cache.get("a").orElseThrow());
+        assertFalse(cache.get("b").isPresent());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should evict by total weight when constructed with a weigher")
+    void put_OverMaximumWeight_EvictsUntilWithinWeight() {
+        LRUCache<String, String> weighted = new LRUCache<>(10, (key, value) -> value.length());
+        weighted.put("a", "xxxx");
+        weighted.put("b", "xxxx");
+        weighted.put("c", "xxxx");
+
+        assertEquals(8, weighted.weightedSize());
+        assertFalse(weighted.get("a").isPresent());
+        assertTrue(weighted.get("c").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should account for a changed weight when an entry is replaced")
+    void put_ExistingKeyWithNewWeight_AdjustsTotalWeight() {
+        LRUCache<String, String> weighted = new LRUCache<>(10, (key, value) -> value.length());
+        weighted.put("a", "xx");
+        weighted.put("b", "xx");
+        weighted.put("b", "xxxxxxx");
+
+        assertEquals(9, weighted.weightedSize());
+        weighted.put("a", "xxxxx");
+
+        assertEquals(5, weighted.weightedSize());
+        assertFalse(weighted.get("b").isPresent());
+        assertTrue(weighted.remove("a"));
+        assertEquals(0, weighted.weightedSize());
+    }
+
+    @Test
+    @DisplayName("Should not keep an entry heavier than the maximum weight")
+    void put_EntryHeavierThanMaximum_IsNotCached() {
+        LRUCache<String, String> weighted = new LRUCache<>(10, (key, value) -> value.length());
+        weighted.put("a", "xxx");
+        weighted.put("b", "xxxxxxxxxxxx");
+
+        assertFalse(weighted.get("b").isPresent());
+        assertTrue(weighted.get("a").isPresent());
+        assertEquals(3, weighted.weightedSize());
+    }
+
+    @Test
+    @DisplayName("Should remove entries and report whether they existed")
+    void remove_ExistingAndMissingKeys_ReportsResult() {
+        cache.put("a", 1);
+
+        assertTrue(cache.remove("a"));
+        assertFalse(cache.remove("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should accept new entries after being cleared")
+    void clear_PopulatedCache_ResetsAccessOrder() {
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.clear();
+        cache.put("c", 3);
+        cache.put("d", 4);
+        cache.put("e", 5);
+        cache.put("f", 6);
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.get("c").isPresent());
+        assertTrue(cache.get("f").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should reject null keys and values")
+    void put_NullArguments_ThrowsException() {
+        assertThrows(NullPointerException.class, () -> cache.put(null, 1));
+        assertThrows(NullPointerException.class, () -> cache.put("a", null));
+        assertThrows(NullPointerException.class, () -> cache.get(null));
+        assertThrows(NullPointerException.class, () -> cache.remove(null));
+    }
+
+    @Test
+    @DisplayName("Should expire entries a fixed time after they were written")
+    void get_AfterExpireAfterWrite_ReturnsEmpty() {
+        AtomicLong time = new AtomicLong();
+        LRUCache<String, Integer> expiring = LRUCache.<String, Integer>builder()
+            .maximumSize(10)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .ticker(time::get)
+            .build();
+
+        expiring.put("a", 1);
+        time.addAndGet(Duration.ofMinutes(4).toNanos());
+        assertEquals(1, expiring.get("a").orElse(null));
+
+        // Reads do not extend a write deadline
+        time.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertTrue(expiring.get("a").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should extend the lifetime of entries that keep being read")
+    void get_WithinExpireAfterAccess_ExtendsLifetime() {
+        AtomicLong time = new AtomicLong();
+        LRUCache<String, Integer> expiring = LRUCache.<String, Integer>builder()
+            .expireAfterAccess(Duration.ofSeconds(30))
+            .ticker(time::get)
+            .build();
+
+        expiring.put("read", 1);
+        expiring.put("idle", 2);
+        for (int i = 0; i < 10; i++) {
+            time.addAndGet(Duration.ofSeconds(20).toNanos());
+            assertEquals(1, expiring.get("read").orElse(null));
+        }
+
+        assertTrue(expiring.get("idle").isEmpty());
+        expiring.cleanUp();
+        assertEquals(1, expiring.size());
+    }
+
+    @Test
+    @DisplayName("Should let a single entry override the cache's expiration")
+    void put_WithPerEntryExpiration_OverridesDefault() {
+        AtomicLong time = new AtomicLong();
+        List<RemovalCause> causes = new ArrayList<>();
+        LRUCache.Builder<String, Integer> builder = LRUCache.<String, Integer>builder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .ticker(time::get);
+        LRUCache<String, Integer> expiring = new LRUCache<>(builder) {
+            @Override
+            protected void onRemoval(String key, Integer value, RemovalCause cause) {
+                causes.add(cause);
+            }
+        };
+
+        expiring.put("short", 1, Duration.ofSeconds(10));
+        expiring.put("default", 2);
+        time.addAndGet(Duration.ofSeconds(11).toNanos());
+        expiring.cleanUp();
+
+        assertTrue(expiring.get("short").isEmpty());
+        assertEquals(2, expiring.get("default").orElse(null));
+        assertEquals(List.of(RemovalCause.EXPIRED), causes);
+    }
+
+    @Test
+    @DisplayName("Should expire entries spread over days as the timer wheel cascades")
+    void cleanUp_AcrossWheelLevels_RemovesEachEntryOnTime() {
+        AtomicLong time = new AtomicLong(Long.MAX_VALUE - Duration.ofDays(1).toNanos());
+        LRUCache<Integer, Integer> expiring = LRUCache.<Integer, Integer>builder()
+            .ticker(time::get)
+            .build();
+        long[] lifetimes = {
+            Duration.ofMillis(500).toNanos(),
+            Duration.ofSeconds(90).toNanos(),
+            Duration.ofHours(3).toNanos(),
+            Duration.ofDays(2).toNanos(),
+            Duration.ofDays(9).toNanos(),
+        };
+        for (int i = 0; i < lifetimes.length; i++) {
+            expiring.put(i, i, Duration.ofNanos(lifetimes[i]));
+        }
+
+        // The finest wheel level works in ticks of about a second, so removal can lag that much
+        long tick = Duration.ofMillis(1100).toNanos();
+        long start = time.get();
+        for (int i = 0; i < lifetimes.length; i++) {
+            time.set(start + lifetimes[i] - 1);
+            expiring.cleanUp();
+            assertEquals(lifetimes.length - i, expiring.size());
+            time.set(start + lifetimes[i] + tick);
+            expiring.cleanUp();
+            assertEquals(lifetimes.length - i - 1, expiring.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject expiration durations that are not positive")
+    void builder_NonPositiveExpiration_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> LRUCache.builder().expireAfterWrite(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+            () -> cache.put("a", 1, Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    @DisplayName("Should run the loader once while concurrent callers wait for it")
+    void getOrLoad_ConcurrentMisses_LoadsOnce() throws Exception {
+        int threads = 32;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> cache.getOrLoad("key", key -> {
+                    loads.incrementAndGet();
+                    awaitQuietly(release);
+                    return 42;
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(42, cache.get("key").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Should pass a loader failure to the caller without caching it")
+    void getOrLoad_LoaderThrows_PropagatesAndRetries() {
+        assertThrows(IllegalStateException.class, () -> cache.getOrLoad("a", key -> {
+            throw new IllegalStateException("backend down");
+        }));
+        assertTrue(cache.get("a").isEmpty());
+        assertEquals(1, cache.getOrLoad("a", key -> 1));
+    }
+
+    @Test
+    @DisplayName("Should share one asynchronous load between callers")
+    void getOrLoadAsync_ConcurrentMisses_ShareFuture() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        LRUCache<String, Integer> async = LRUCache.<String, Integer>builder()
+            .maximumSize(10)
+            .executor(tasks::add)
+            .build();
+
+        CompletableFuture<Integer> first = async.getOrLoadAsync("a", key -> 1);
+        CompletableFuture<Integer> second = async.getOrLoadAsync("a", key -> 2);
+        assertSame(first, second);
+        assertFalse(first.isDone());
+
+        tasks.forEach(Runnable::run);
+        assertEquals(1, first.get());
+        assertEquals(1, async.getOrLoadAsync("a", key -> 3).get());
+    }
+
+    @Test
+    @DisplayName("Should fail an asynchronous load that joined a batch load which found nothing")
+    void getOrLoadAsync_JoinsEmptyBatchLoad_CompletesExceptionally() {
+        List<CompletableFuture<Integer>> joined = new ArrayList<>();
+
+        Map<String, Integer> result = cache.getAllOrLoad(List.of("a"), missing -> {
+            joined.add(cache.getOrLoadAsync("a", key -> 1));
+            return Map.of();
+        });
+
+        assertTrue(result.isEmpty());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> joined.get(0).get());
+        assertInstanceOf(NullPointerException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("Should keep serving the old value while a stale entry reloads")
+    void getOrLoad_AfterRefreshInterval_ReloadsInBackground() {
+        AtomicLong time = new AtomicLong();
+        List<Runnable> tasks = new ArrayList<>();
+        LRUCache<String, Integer> refreshing = LRUCache.<String, Integer>builder()
+            .maximumSize(10)
+            .refreshAfterWrite(Duration.ofMinutes(1))
+            .ticker(time::get)
+            .executor(tasks::add)
+            .build();
+        AtomicInteger version = new AtomicInteger();
+
+        assertEquals(1, refreshing.getOrLoad("a", key -> version.incrementAndGet()));
+        tasks.clear();
+        time.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertEquals(1, refreshing.getOrLoad("a", key -> version.incrementAndGet()));
+        assertEquals(1, refreshing.getOrLoad("a", key -> version.incrementAndGet()));
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertEquals(2, refreshing.get("a").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Should count hits, misses, loads and evictions when statistics are on")
+    void stats_RecordingEnabled_CountsOperations() {
+        LRUCache<String, Integer> counted = LRUCache.<String, Integer>builder()
+            .maximumSize(2)
+            .recordStats()
+            .build();
+
+        counted.put("a", 1);
+        counted.get("a");
+        counted.get("missing");
+        counted.getOrLoad("b", key -> 2);
+        assertThrows(IllegalStateException.class, () -> counted.getOrLoad("c", key -> {
+            throw new IllegalStateException("backend down");
+        }));
+        counted.put("d", 4);
+
+        CacheStats stats = counted.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(3, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(0.25, stats.hitRate(), 1e-9);
+
+        counted.get("d");
+        assertEquals(1, counted.stats().minus(stats).hitCount());
+    }
+
+    @Test
+    @DisplayName("Should report nothing when statistics are off")
+    void stats_RecordingDisabled_ReportsZeros() {
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("b");
+
+        CacheStats stats = cache.stats();
+        assertEquals(0, stats.requestCount());
+        assertNull(stats.getLatency());
+    }
+
+    @Test
+    @DisplayName("Should sample operation latencies into histograms")
+    void stats_LatencySampling_FillsHistograms() {
+        LRUCache<Integer, Integer> sampled = LRUCache.<Integer, Integer>builder()
+            .maximumSize(100)
+            .recordLatency(1)
+            .build();
+        for (int i = 0; i < 1_000; i++) {
+            sampled.put(i, i);
+            sampled.get(i);
+        }
+
+        LatencyHistogram gets = sampled.stats().getLatency();
+        assertEquals(1_000, gets.count());
+        assertEquals(1_000, sampled.stats().putLatency().count());
+        assertTrue(gets.percentile(0.5) <= gets.percentile(0.99));
+        assertTrue(gets.percentile(1.0) > 0);
+    }
+
+    @Test
+    @DisplayName("Should expose statistics as a platform MBean")
+    void registerStatsMBean_NewName_PublishesAttributes() throws Exception {
+        LRUCache<String, Integer> counted = LRUCache.<String, Integer>builder()
+            .maximumSize(10)
+            .recordStats()
+            .build();
+        counted.put("a", 1);
+        counted.get("a");
+
+        ObjectName name = counted.registerStatsMBean("test-" + System.nanoTime());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, server.getAttribute(name, "HitCount"));
+            assertEquals(1L, server.getAttribute(name, "EstimatedSize"));
+            assertThrows(IllegalStateException.class,
+                () -> counted.registerStatsMBean(ObjectName.unquote(name.getKeyProperty("name"))));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    @DisplayName("Should look up, add and remove many keys at once")
+    void bulkOperations_MixedKeys_ApplyToEachKey() {
+        cache.putAll(Map.of("a", 1, "b", 2, "c", 3));
+        assertEquals(3, cache.size());
+
+        Map<String, Integer> found = cache.getAll(List.of("c", "missing", "a"));
+        assertEquals(List.of("c", "a"), new ArrayList<>(found.keySet()));
+        assertEquals(1, found.get("a"));
+
+        assertEquals(2, cache.invalidateAll(List.of("a", "b", "missing")));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should update recency for every key a bulk read hits")
+    void getAll_Hits_ProtectFromEviction() {
+        LRUCache<String, Integer> small = new LRUCache<>(3);
+        small.putAll(Map.of("a", 1, "b", 2, "c", 3));
+        small.getAll(List.of("a", "b"));
+        small.put("d", 4);
+
+        assertTrue(small.get("c").isEmpty());
+        assertTrue(small.get("a").isPresent());
+        assertTrue(small.get("b").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should evict once a bulk write exceeds capacity")
+    void putAll_MoreThanCapacity_KeepsLatestEntries() {
+        Map<Integer, Integer> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            entries.put(i, i);
+        }
+        LRUCache<Integer, Integer> small = new LRUCache<>(4);
+        small.putAll(entries);
+
+        assertEquals(4, small.size());
+        assertEquals(Map.of(6, 6, 7, 7, 8, 8, 9, 9), small.getAll(entries.keySet()));
+    }
+
+    @Test
+    @DisplayName("Should load all missing keys with one batch loader call")
+    void getAllOrLoad_MissingKeys_LoadsInOneCall() {
+        cache.put("a", 1);
+        List<Set<String>> calls = new ArrayList<>();
+
+        Map<String, Integer> result = cache.getAllOrLoad(List.of("a", "b", "c", "unknown"), missing -> {
+            calls.add(Set.copyOf(missing));
+            Map<String, Integer> loaded = new HashMap<>();
+            loaded.put("b", 2);
+            loaded.put("c", 3);
+            return loaded;
+        });
+
+        assertEquals(List.of(Set.of("b", "c", "unknown")), calls);
+        assertEquals(Map.of("a", 1, "b", 2, "c", 3), result);
+        assertEquals(3, cache.get("c").orElse(null));
+        assertTrue(cache.get("unknown").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should restore the most recently used entries of a snapshot first")
+    void restore_SmallerCache_KeepsMostRecentlyUsedEntries(@TempDir Path dir) {
+        LRUCache<String, String> source = stringCache(5);
+        for (String key : List.of("a", "b", "c", "d", "e")) {
+            source.put(key, key.toUpperCase());
+        }
+        source.get("a");
+        Path file = dir.resolve("cache.snapshot");
+        assertEquals(5, source.snapshot(file, Serializer.utf8(), Serializer.utf8()).join());
+
+        LRUCache<String, String> target = stringCache(3);
+        assertEquals(3, target.restore(file, Serializer.utf8(), Serializer.utf8()).join());
+
+        // Recency carries over: d was the least recently used of the restored entries
+        target.put("f", "F");
+        assertEquals(Set.of("a", "e", "f"), target.getAll(List.of("a", "b", "c", "d", "e", "f")).keySet());
+        assertEquals("A", target.get("a").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Should not overwrite entries that are already in the cache when restoring")
+    void restore_LiveEntries_KeepCurrentValues(@TempDir Path dir) {
+        LRUCache<String, String> source = stringCache(5);
+        source.put("a", "old");
+        source.put("b", "old");
+        Path file = dir.resolve("cache.snapshot");
+        source.snapshot(file, Serializer.utf8(), Serializer.utf8()).join();
+
+        LRUCache<String, String> target = stringCache(5);
+        target.put("a", "new");
+        assertEquals(1, target.restore(file, Serializer.utf8(), Serializer.utf8()).join());
+        assertEquals("new", target.get("a").orElse(null));
+        assertEquals("old", target.get("b").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Should carry the remaining lifetime of entries over to the restored cache")
+    void restore_ExpiringEntries_KeepRemainingLifetime(@TempDir Path dir) {
+        AtomicLong time = new AtomicLong();
+        LRUCache<String, String> source = LRUCache.<String, String>builder()
+            .maximumSize(5)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .ticker(time::get)
+            .executor(Runnable::run)
+            .build();
+        source.put("a", "A");
+        time.addAndGet(Duration.ofMinutes(3).toNanos());
+        Path file = dir.resolve("cache.snapshot");
+        source.snapshot(file, Serializer.utf8(), Serializer.utf8()).join();
+
+        AtomicLong otherTime = new AtomicLong(Long.MAX_VALUE - Duration.ofMinutes(1).toNanos());
+        LRUCache<String, String> target = LRUCache.<String, String>builder()
+            .maximumSize(5)
+            .ticker(otherTime::get)
+            .executor(Runnable::run)
+            .build();
+        target.restore(file, Serializer.utf8(), Serializer.utf8()).join();
+        otherTime.addAndGet(Duration.ofSeconds(110).toNanos());
+        assertEquals("A", target.get("a").orElse(null));
+        otherTime.addAndGet(Duration.ofSeconds(20).toNanos());
+        assertTrue(target.get("a").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep overlapping snapshots to the same file apart")
+    void snapshot_OverlappingSnapshotsToSameFile_BothComplete(@TempDir Path dir) throws IOException {
+        LRUCache<String, String> source = stringCache(5);
+        source.put("a", "A");
+        source.put("b", "B");
+        Path file = dir.resolve("cache.snapshot");
+        // The first snapshot starts a second one to the same file while it is writing its records
+        AtomicBoolean started = new AtomicBoolean();
+        Serializer<String> values = new Serializer<>() {
+            @Override
+            public int serializedSize(String value) {
+                return Serializer.utf8().serializedSize(value);
+            }
+
+            @Override
+            public void write(String value, ByteBuffer target) {
+                if (started.compareAndSet(false, true)) {
+                    assertEquals(2, source.snapshot(file, Serializer.utf8(), Serializer.utf8()).join());
+                }
+                Serializer.utf8().write(value, target);
+            }
+
+            @Override
+            public String read(ByteBuffer source) {
+                return Serializer.utf8().read(source);
+            }
+        };
+
+        assertEquals(2, source.snapshot(file, Serializer.utf8(), values).join());
+        LRUCache<String, String> target = stringCache(5);
+        assertEquals(2, target.restore(file, Serializer.utf8(), Serializer.utf8()).join());
+        assertEquals("B", target.get("b").orElse(null));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail the restore of a file that is not a snapshot")
+    void restore_NotASnapshot_CompletesExceptionally(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("cache.snapshot"), "not a snapshot");
+        CompletionException e = assertThrows(CompletionException.class,
+            () -> stringCache(5).restore(file, Serializer.utf8(), Serializer.utf8()).join());
+        assertInstanceOf(UncheckedIOException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("Should notify the removal listener on the executor after the write returns")
+    void removalListener_Removals_NotifiedWithCauseOutsideTheCall() {
+        List<Runnable> tasks = new ArrayList<>();
+        List<String> notifications = new ArrayList<>();
+        AtomicLong time = new AtomicLong();
+        LRUCache<String, Integer> listened = LRUCache.<String, Integer>builder()
+            .maximumSize(2)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .ticker(time::get)
+            .executor(tasks::add)
+            .removalListener((key, value, cause) -> notifications.add(key + "=" + value + ":" + cause))
+            .build();
+
+        listened.put("a", 1);
+        listened.put("a", 2);
+        listened.put("b", 3);
+        listened.put("c", 4);
+        listened.remove("b");
+        assertTrue(notifications.isEmpty());
+
+        time.addAndGet(Duration.ofMinutes(2).toNanos());
+        listened.cleanUp();
+        tasks.forEach(Runnable::run);
+        assertEquals(List.of("a=1:REPLACED", "a=2:EVICTED", "b=3:EXPLICIT", "c=4:EXPIRED"), notifications);
+    }
+
+    private static LRUCache<String, String> stringCache(int maxSize) {
+        return LRUCache.<String, String>builder()
+            .maximumSize(maxSize)
+            .executor(Runnable::run)
+            .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @Tag("performance")
+    @DisplayName("Should keep put latency at capacity flat from 1K to 10M entries")
+    void put_AtCapacity_LatencyIndependentOfSize() {
+        int[] sizes = {1_000, 100_000, 1_000_000, 10_000_000};
+        int evictingPuts = 200_000;
+        double[] nanosPerPut = new double[sizes.length];
+
+        for (int i = 0; i < sizes.length; i++) {
+            LRUCache<Integer, Integer> filled = new LRUCache<>(sizes[i]);
+            for (int key = 0; key < sizes[i]; key++) {
+                filled.put(key, key);
+            }
+
+            // Every put below misses and has to evict the least recently used entry
+            long start = System.nanoTime();
+            for (int key = sizes[i]; key < sizes[i] + evictingPuts; key++) {
+                filled.put(key, key);
+            }
+            nanosPerPut[i] = (System.nanoTime() - start) / (double) evictingPuts;
+            assertEquals(sizes[i], filled.size());
+        }
+
+        // A scan over all entries would make 10M ten thousand times slower than 1K; allow for
+        // cache misses and GC on the large heap but nothing that grows with the entry count.
+        double smallest = Math.min(nanosPerPut[0], nanosPerPut[1]);
+        double largest = nanosPerPut[sizes.length - 1];
+        assertTrue(largest < smallest * 20,
+            String.format("put latency grew from %.0f ns to %.0f ns", smallest, largest));
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in logarithmic buckets: four buckets per power of two, so any recorded value
+ * is reported with an error of at most 25%, in a fixed 2 KiB regardless of how many values are
+ * recorded. Recording is thread-safe and lock-free. Caches record only a sample of their
+ * operations, so contention on the buckets stays low.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts;
+    
+    LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+    
+    private LatencyHistogram(AtomicLongArray counts) {
+        this.counts = counts;
+    }
+    
+    /**
+     * Records one latency.
+     * @param nanos the latency in nanoseconds; negative values count as zero
+     */
+    void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(0L, nanos)));
+    }
+    
+    /**
+     * Returns the number of recorded latencies.
+     * @return the sample count
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+    
+    /**
+     * Returns an upper bound of the latency below which the given share of samples fall.
+     * @param quantile the share of samples, between 0 and 1, such as 0.99 for the 99th percentile
+     * @return the latency in nanoseconds, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if quantile is outside [0, 1]
+     */
+    public long percentile(double quantile) {
+        if (!(quantile >= 0.0 && quantile <= 1.0)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+    
+    /**
+     * Returns a copy that no longer changes, for snapshots.
+     */
+    LatencyHistogram copy() {
+        AtomicLongArray copy = new AtomicLongArray(BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            copy.set(i, counts.get(i));
+        }
+        return new LatencyHistogram(copy);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram[count=%d, p50=%dns, p99=%dns, p999=%dns]",
+            count(), percentile(0.5), percentile(0.99), percentile(0.999));
+    }
+    
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        // The exponent picks the power of two and the next bits below the leading one the quarter of it
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + width - 1 < 0 ? Long.MAX_VALUE : lowerBound + width - 1;
+    }
+}
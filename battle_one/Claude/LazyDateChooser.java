@@ -0,0 +1,97 @@
+import java.awt.BorderLayout;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Date;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.UIManager;
+import com.toedter.calendar.JDateChooser;
+
+/**
+ * A date field that shows a plain text field until it first gets the focus, and only then builds
+ * the {@link JDateChooser} in its place. The chooser pulls in JCalendar's calendar, locale and
+ * date format machinery, which dominates the time a form takes to open; deferring it lets the
+ * window appear with just the lightweight Swing fields.
+ *
+ * The chooser is only ever handled through {@link Chooser}, so that not even verifying this class
+ * loads JCalendar. Changes of the chosen date are fired as the {@code "date"} property of this
+ * component, as {@link JDateChooser} does. Like any Swing component, it must only be used on the
+ * event dispatch thread.
+ */
+class LazyDateChooser extends JPanel {
+    private final JTextField placeholder;
+    private JComponent chooser;
+    
+    /**
+     * Creates a date field showing the placeholder.
+     */
+    LazyDateChooser() {
+        super(new BorderLayout());
+        placeholder = new JTextField(12);
+        placeholder.setEditable(false);
+        placeholder.setBackground(UIManager.getColor("TextField.background"));
+        placeholder.addFocusListener(new FocusAdapter() {
+            public void focusGained(FocusEvent e) {
+                build();
+            }
+        });
+        add(placeholder, BorderLayout.CENTER);
+    }
+    
+    /**
+     * Returns the chosen date.
+     * @return the date, or null if none has been chosen
+     */
+    Date getDate() {
+        return chooser == null ? null : Chooser.dateOf(chooser);
+    }
+    
+    /**
+     * Returns whether the date chooser has been built.
+     * @return true once the field has had the focus
+     */
+    boolean isBuilt() {
+        return chooser != null;
+    }
+    
+    /**
+     * Replaces the placeholder with the date chooser and hands it the focus, unless that has
+     * already happened.
+     */
+    void build() {
+        if (chooser != null) {
+            return;
+        }
+        chooser = Chooser.create(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent e) {
+                firePropertyChange("date", e.getOldValue(), e.getNewValue());
+            }
+        });
+        boolean focused = placeholder.isFocusOwner();
+        remove(placeholder);
+        add(chooser, BorderLayout.CENTER);
+        revalidate();
+        repaint();
+        if (focused) {
+            chooser.requestFocusInWindow();
+        }
+    }
+    
+    /**
+     * The only code that refers to JCalendar, loaded the first time the field is focused.
+     */
+    private static final class Chooser {
+        static JComponent create(PropertyChangeListener dateListener) {
+            JDateChooser chooser = new JDateChooser();
+            chooser.addPropertyChangeListener("date", dateListener);
+            return chooser;
+        }
+        
+        static Date dateOf(JComponent chooser) {
+            return ((JDateChooser) chooser).getDate();
+        }
+    }
+}
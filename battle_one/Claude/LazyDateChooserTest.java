@@ -0,0 +1,39 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.toedter.calendar.JDateChooser;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+class LazyDateChooserTest {
+    @Test
+    @DisplayName("Should show only a placeholder and report no date until built")
+    void constructor_NotFocused_DoesNotBuildChooser() {
+        LazyDateChooser field = new LazyDateChooser();
+
+        assertFalse(field.isBuilt());
+        assertNull(field.getDate());
+        assertEquals(1, field.getComponentCount());
+        assertFalse(field.getComponent(0) instanceof JDateChooser);
+    }
+
+    @Test
+    @DisplayName("Should replace the placeholder with a chooser once and forward its date changes")
+    void build_ChooserDateChanged_FiresDateProperty() {
+        LazyDateChooser field = new LazyDateChooser();
+        List<Object> changes = new ArrayList<>();
+        field.addPropertyChangeListener("date", e -> changes.add(e.getNewValue()));
+
+        field.build();
+        field.build();
+
+        assertTrue(field.isBuilt());
+        assertEquals(1, field.getComponentCount());
+        JDateChooser chooser = (JDateChooser) field.getComponent(0);
+        Date date = new Date(0);
+        chooser.setDate(date);
+        assertEquals(date, field.getDate());
+        assertEquals(List.of(date), changes);
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.Arrays;
+
+/**
+ * The allocation-free core shared by the primitive-keyed LRU caches. Entries live in parallel
+ * arrays indexed by an entry number: the keys, and the previous and next entry numbers of a
+ * doubly-linked recency list. A separate open-addressing table with linear probing maps keys to
+ * entry numbers and is kept free of tombstones by shifting entries back on deletion.
+ * Subclasses store values in their own arrays under the same entry numbers. Not thread-safe.
+ */
+abstract class LongKeyLRUIndex {
+    private static final int NONE = -1;
+    
+    private final int maxSize;
+    private final long[] keys;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] table;
+    private final int mask;
+    private int head = NONE;
+    private int tail = NONE;
+    private int size;
+    private int allocated;
+    private int freeList = NONE;
+    
+    LongKeyLRUIndex(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        if (maxSize > 1 << 29) {
+            throw new IllegalArgumentException("Cache size must not exceed " + (1 << 29));
+        }
+        
+        this.maxSize = maxSize;
+        this.keys = new long[maxSize];
+        this.prev = new int[maxSize];
+        this.next = new int[maxSize];
+        // Keep the load factor at or below 0.75; table slots hold entry number + 1, with 0 meaning empty
+        int tableSize = Integer.highestOneBit(maxSize + maxSize / 3) << 1;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+    
+    /**
+     * Returns the entry number holding the key, or -1 if it is absent.
+     */
+    final int find(long key) {
+        for (int slot = home(key); ; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (entry == NONE || keys[entry] == key) {
+                return entry;
+            }
+        }
+    }
+    
+    /**
+     * Adds a key that is known to be absent as the most recently used entry. If the index is full,
+     * the least recently used entry is evicted and its entry number reused for the new key.
+     * @return the entry number now holding the key
+     */
+    final int insert(long key) {
+        int entry;
+        if (size == maxSize) {
+            entry = tail;
+            deleteSlot(slotOf(keys[entry]));
+            unlink(entry);
+        } else {
+            if (freeList != NONE) {
+                entry = freeList;
+                freeList = next[entry];
+            } else {
+                entry = allocated++;
+            }
+            size++;
+        }
+        
+        keys[entry] = key;
+        int slot = home(key);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+        linkFirst(entry);
+        return entry;
+    }
+    
+    /**
+     * Removes a key.
+     * @return the entry number that held the key, or -1 if it was absent
+     */
+    final int delete(long key) {
+        int slot = slotOf(key);
+        if (slot == NONE) {
+            return NONE;
+        }
+        int entry = table[slot] - 1;
+        deleteSlot(slot);
+        unlink(entry);
+        next[entry] = freeList;
+        freeList = entry;
+        size--;
+        return entry;
+    }
+    
+    /**
+     * Marks an entry as the most recently used one.
+     */
+    final void touch(int entry) {
+        if (head != entry) {
+            unlink(entry);
+            linkFirst(entry);
+        }
+    }
+    
+    /**
+     * Returns the least recently used entry, the next to be evicted.
+     * @return the entry number, or -1 if the index is empty
+     */
+    final int eldest() {
+        return tail;
+    }
+    
+    /**
+     * Returns the key held by an entry.
+     * @param entry a live entry number
+     * @return the entry's key
+     */
+    final long keyAt(int entry) {
+        return keys[entry];
+    }
+    
+    final int size() {
+        return size;
+    }
+    
+    final void reset() {
+        Arrays.fill(table, 0);
+        head = NONE;
+        tail = NONE;
+        size = 0;
+        allocated = 0;
+        freeList = NONE;
+    }
+    
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+    
+    private int slotOf(long key) {
+        for (int slot = home(key); ; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (entry == NONE) {
+                return NONE;
+            }
+            if (keys[entry] == key) {
+                return slot;
+            }
+        }
+    }
+    
+    private void deleteSlot(int hole) {
+        // Shift later members of the probe run back into the hole so lookups never need tombstones
+        for (int slot = (hole + 1) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int home = home(keys[table[slot] - 1]);
+            boolean reachable = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (!reachable) {
+                table[hole] = table[slot];
+                hole = slot;
+            }
+        }
+        table[hole] = 0;
+    }
+    
+    private void linkFirst(int entry) {
+        prev[entry] = NONE;
+        next[entry] = head;
+        if (head != NONE) {
+            prev[head] = entry;
+        } else {
+            tail = entry;
+        }
+        head = entry;
+    }
+    
+    private void unlink(int entry) {
+        int before = prev[entry];
+        int after = next[entry];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            head = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        } else {
+            tail = before;
+        }
+    }
+}
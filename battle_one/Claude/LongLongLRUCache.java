@@ -0,0 +1,124 @@
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An LRU cache specialized for primitive long keys and long values. Keys, values and recency
+ * links are kept in flat arrays sized once at construction, so neither get nor put boxes or
+ * allocates, and each entry takes about 32 bytes.
+ */
+public class LongLongLRUCache {
+    private final Index index;
+    private final ReentrantLock lock;
+    
+    /**
+     * Creates a new cache with the specified maximum size. All storage is allocated up front.
+     * @param maxSize the maximum number of entries the cache can hold
+     * @throws IllegalArgumentException if maxSize is less than 1 or greater than 2^29
+     */
+    public LongLongLRUCache(int maxSize) {
+        this.index = new Index(maxSize);
+        this.lock = new ReentrantLock();
+    }
+    
+    /**
+     * Adds a key-value pair to the cache. If the key already exists, the value is updated.
+     * If adding would exceed the maximum size, the least recently used entry is removed.
+     * @param key the key to add
+     * @param value the value to add
+     */
+    public void put(long key, long value) {
+        lock.lock();
+        try {
+            int entry = index.find(key);
+            if (entry >= 0) {
+                index.touch(entry);
+            } else {
+                entry = index.insert(key);
+            }
+            index.values[entry] = value;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Retrieves a value from the cache and marks it as the most recently used entry.
+     * @param key the key to look up
+     * @param missingValue the value to return if the key is not cached
+     * @return the cached value, or missingValue if not found
+     */
+    public long get(long key, long missingValue) {
+        lock.lock();
+        try {
+            int entry = index.find(key);
+            if (entry < 0) {
+                return missingValue;
+            }
+            index.touch(entry);
+            return index.values[entry];
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Checks whether the cache holds a key without changing its recency.
+     * @param key the key to look up
+     * @return true if the key is cached
+     */
+    public boolean containsKey(long key) {
+        lock.lock();
+        try {
+            return index.find(key) >= 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Removes an entry from the cache.
+     * @param key the key to remove
+     * @return true if the entry was removed, false if it didn't exist
+     */
+    public boolean remove(long key) {
+        lock.lock();
+        try {
+            return index.delete(key) >= 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the current size of the cache.
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            index.reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static final class Index extends LongKeyLRUIndex {
+        final long[] values;
+        
+        Index(int maxSize) {
+            super(maxSize);
+            this.values = new long[maxSize];
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An LRU cache specialized for primitive long keys. Keys, recency links and values are kept in
+ * flat arrays sized once at construction, so lookups never box a key and neither get nor put
+ * allocates. Per entry it needs roughly a third of the memory of {@code LRUCache<Long, V>}.
+ * @param <V> the type of cached values
+ */
+public class LongObjectLRUCache<V> {
+    private final Index<V> index;
+    private final ReentrantLock lock;
+    
+    /**
+     * Creates a new cache with the specified maximum size. All storage is allocated up front.
+     * @param maxSize the maximum number of entries the cache can hold
+     * @throws IllegalArgumentException if maxSize is less than 1 or greater than 2^29
+     */
+    public LongObjectLRUCache(int maxSize) {
+        this.index = new Index<>(maxSize);
+        this.lock = new ReentrantLock();
+    }
+    
+    /**
+     * Adds a key-value pair to the cache. If the key already exists, the value is updated.
+     * If adding would exceed the maximum size, the least recently used entry is removed.
+     * @param key the key to add
+     * @param value the value to add
+     * @throws NullPointerException if value is null
+     */
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Value cannot be null");
+        }
+        
+        lock.lock();
+        try {
+            int entry = index.find(key);
+            if (entry >= 0) {
+                index.touch(entry);
+            } else {
+                entry = index.insert(key);
+            }
+            index.values[entry] = value;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Retrieves a value from the cache and marks it as the most recently used entry.
+     * Returns null rather than an Optional so that a lookup allocates nothing.
+     * @param key the key to look up
+     * @return the cached value, or null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        lock.lock();
+        try {
+            int entry = index.find(key);
+            if (entry < 0) {
+                return null;
+            }
+            index.touch(entry);
+            return (V) index.values[entry];
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Checks whether the cache holds a key without changing its recency.
+     * @param key the key to look up
+     * @return true if the key is cached
+     */
+    public boolean containsKey(long key) {
+        lock.lock();
+        try {
+            return index.find(key) >= 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Removes an entry from the cache.
+     * @param key the key to remove
+     * @return true if the entry was removed, false if it didn't exist
+     */
+    public boolean remove(long key) {
+        lock.lock();
+        try {
+            int entry = index.delete(key);
+            if (entry < 0) {
+                return false;
+            }
+            index.values[entry] = null;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the current size of the cache.
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            index.reset();
+            Arrays.fill(index.values, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static final class Index<V> extends LongKeyLRUIndex {
+        final Object[] values;
+        
+        Index(int maxSize) {
+            super(maxSize);
+            this.values = new Object[maxSize];
+        }
+    }
+}
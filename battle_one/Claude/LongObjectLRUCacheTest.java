@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.*;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectLRUCacheTest {
+
+    @Test
+    @DisplayName("Should evict the least recently used key when over capacity")
+    void put_OverCapacity_EvictsLeastRecentlyUsed() {
+        LongObjectLRUCache<String> cache = new LongObjectLRUCache<>(2);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);
+        cache.put(3L, "three");
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should behave like LRUCache for a random mix of operations")
+    void randomOperations_ComparedWithLRUCache_SameContents() {
+        LongObjectLRUCache<Long> primitive = new LongObjectLRUCache<>(100);
+        LongLongLRUCache primitiveValues = new LongLongLRUCache(100);
+        LRUCache<Long, Long> reference = new LRUCache<>(100);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // Keys that collide in the low bits exercise probing and backward-shift deletion
+            long key = (long) random.nextInt(400) << 32;
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                primitive.put(key, (long) i);
+                primitiveValues.put(key, i);
+                reference.put(key, (long) i);
+            } else if (operation < 9) {
+                Long expected = reference.get(key).orElse(null);
+                assertEquals(expected, primitive.get(key));
+                assertEquals(expected == null ? -1L : expected, primitiveValues.get(key, -1L));
+            } else {
+                boolean expected = reference.remove(key);
+                assertEquals(expected, primitive.remove(key));
+                assertEquals(expected, primitiveValues.remove(key));
+            }
+            assertEquals(reference.size(), primitive.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should start empty again after being cleared")
+    void clear_PopulatedCache_RemovesEverything() {
+        LongLongLRUCache cache = new LongLongLRUCache(10);
+        for (long key = 0; key < 10; key++) {
+            cache.put(key, key * 2);
+        }
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertFalse(cache.containsKey(3L));
+        cache.put(3L, 7L);
+        assertEquals(7L, cache.get(3L, -1L));
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.Optional;
+
+/**
+ * An LRU cache that keeps its values serialized in slab-allocated direct memory. Only the keys
+ * and a boxed 64-bit handle per entry live on the Java heap, so millions of cached payloads add
+ * little to garbage collection work. The cache is bounded by the bytes its values occupy off-heap;
+ * because a new value is written before the evictions it causes free their chunks, the memory
+ * reserved in slabs can exceed that bound by about one slab per size class in use.
+ *
+ * Reads copy the value out of direct memory without taking the allocator lock; a read that races
+ * with the eviction of the same entry simply misses.
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ */
+public class OffHeapLRUCache<K, V> {
+    private static final int DEFAULT_SLAB_SIZE = 1 << 20;
+    
+    private final Serializer<V> serializer;
+    private final SlabAllocator allocator;
+    private final LRUCache<K, Long> handles;
+    
+    /**
+     * Creates a new off-heap cache using 1 MiB slabs.
+     * @param maxBytes the maximum direct memory taken by the cached values, including chunk overhead
+     * @param serializer encodes and decodes the values
+     * @throws IllegalArgumentException if maxBytes is less than 1
+     * @throws NullPointerException if serializer is null
+     */
+    public OffHeapLRUCache(long maxBytes, Serializer<V> serializer) {
+        this(maxBytes, DEFAULT_SLAB_SIZE, serializer);
+    }
+    
+    /**
+     * Creates a new off-heap cache with the given slab size. Values larger than a slab cannot be cached.
+     * @param maxBytes the maximum direct memory taken by the cached values, including chunk overhead
+     * @param slabSize the slab size in bytes, a power of two between 64 bytes and 4 MiB
+     * @param serializer encodes and decodes the values
+     * @throws IllegalArgumentException if maxBytes is less than 1 or the slab size is invalid
+     * @throws NullPointerException if serializer is null
+     */
+    public OffHeapLRUCache(long maxBytes, int slabSize, Serializer<V> serializer) {
+        if (serializer == null) {
+            throw new NullPointerException("Serializer cannot be null");
+        }
+        
+        this.serializer = serializer;
+        this.allocator = new SlabAllocator(slabSize);
+        this.handles = new LRUCache<K, Long>(maxBytes, (key, handle) -> SlabAllocator.chunkSize(handle)) {
+            @Override
+            protected void onRemoval(K key, Long handle, RemovalCause cause) {
+                allocator.free(handle);
+            }
+        };
+    }
+    
+    /**
+     * Serializes a value into direct memory and maps the key to it, evicting least recently used
+     * entries until the cache fits within its byte limit.
+     * @param key the key to add
+     * @param value the value to add
+     * @throws NullPointerException if key or value is null
+     * @throws IllegalArgumentException if the serialized value does not fit into a slab
+     */
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Key and value cannot be null");
+        }
+        handles.put(key, allocator.store(value, serializer));
+    }
+    
+    /**
+     * Retrieves and deserializes a value, marking it as the most recently used entry.
+     * @param key the key to look up
+     * @return an Optional containing the value if found, or empty if not found
+     * @throws NullPointerException if key is null
+     */
+    public Optional<V> get(K key) {
+        Optional<Long> handle = handles.get(key);
+        if (handle.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(allocator.load(handle.get(), serializer));
+    }
+    
+    /**
+     * Removes an entry from the cache and frees its memory.
+     * @param key the key to remove
+     * @return true if the entry was removed, false if it didn't exist
+     * @throws NullPointerException if key is null
+     */
+    public boolean remove(K key) {
+        return handles.remove(key);
+    }
+    
+    /**
+     * Returns the current size of the cache.
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        return handles.size();
+    }
+    
+    /**
+     * Removes all entries from the cache. Their slabs are kept for reuse rather than released.
+     */
+    public void clear() {
+        handles.clear();
+    }
+    
+    /**
+     * Returns the direct memory held by the cache's chunks, which is what the byte limit bounds.
+     * @return the bytes taken by allocated chunks
+     */
+    public long usedBytes() {
+        return handles.weightedSize();
+    }
+    
+    /**
+     * Returns the direct memory reserved in slabs, including free chunks and empty slabs.
+     * @return the reserved bytes
+     */
+    public long reservedBytes() {
+        return allocator.reservedBytes();
+    }
+    
+    /**
+     * Returns the share of reserved direct memory that does not hold serialized values, from
+     * chunk headers, rounding up to size classes, and free space in partially used or empty slabs.
+     * @return a value between 0 (no waste) and 1 (nothing stored)
+     */
+    public double fragmentation() {
+        return allocator.fragmentation();
+    }
+}
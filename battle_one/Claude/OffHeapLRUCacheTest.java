@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLRUCacheTest {
+    private OffHeapLRUCache<String, byte[]> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new OffHeapLRUCache<>(4096, 1024, Serializer.byteArray());
+    }
+
+    @Test
+    @DisplayName("Should return the stored bytes from direct memory")
+    void get_StoredValue_ReturnsCopy() {
+        cache.put("a", new byte[] {1, 2, 3});
+
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.get("a").orElseThrow());
+        assertFalse(cache.get("b").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should evict by chunk bytes and reuse the freed chunks")
+    void put_OverByteLimit_EvictsAndReusesSlabs() {
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("key" + i, new byte[100]);
+        }
+
+        // 100 byte payloads use 128 byte chunks, so 32 of them fit into 4 KiB
+        assertEquals(32, cache.size());
+        assertEquals(4096, cache.usedBytes());
+        // A new value is written before the eviction it causes frees a chunk, so one spare
+        // slab is reserved; after that freed chunks are reused instead of reserving more
+        assertEquals(4096 + 1024, cache.reservedBytes());
+        assertTrue(cache.get("key999").isPresent());
+        assertFalse(cache.get("key0").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should free the previous chunk when a key is overwritten or removed")
+    void putAndRemove_ExistingKey_FreesChunks() {
+        cache.put("a", new byte[10]);
+        cache.put("a", new byte[20]);
+
+        assertEquals(20, cache.get("a").orElseThrow().length);
+        assertEquals(64, cache.usedBytes());
+
+        assertTrue(cache.remove("a"));
+        assertEquals(0, cache.usedBytes());
+        assertEquals(1.0, cache.fragmentation(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should report the unused share of reserved memory as fragmentation")
+    void fragmentation_PartiallyFilledSlab_ReportsWaste() {
+        cache.put("a", new byte[56]);
+
+        // One 1 KiB slab holds a single 64 byte chunk with 56 payload bytes
+        assertEquals(1024, cache.reservedBytes());
+        assertEquals(1.0 - 56.0 / 1024, cache.fragmentation(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should reject values that do not fit into a slab")
+    void put_ValueLargerThanSlab_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> cache.put("a", new byte[2048]));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should size UTF-8 strings exactly, including unpaired surrogates")
+    void put_Utf8String_ReadsBackWhatWasWritten() {
+        OffHeapLRUCache<String, String> strings = new OffHeapLRUCache<>(4096, 1024, Serializer.utf8());
+        strings.put("a", "caf\u00e9 \u20ac \uD83D\uDE00");
+        strings.put("b", "a\uD800b");
+
+        assertEquals("caf\u00e9 \u20ac \uD83D\uDE00", strings.get("a").orElseThrow());
+        // getBytes writes an unpaired surrogate as '?'
+        assertEquals("a?b", strings.get("b").orElseThrow());
+    }
+}
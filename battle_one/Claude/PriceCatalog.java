@@ -0,0 +1,25 @@
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A source of item prices for {@link ShoppingCart}. Prices are fetched many items at a time, so
+ * that pricing a large cart costs one call rather than one per line, which matters when the
+ * catalog is a remote service. {@link CachingPriceCatalog} puts a cache in front of a catalog,
+ * and {@link InMemoryPriceCatalog} serves prices from memory for tests and demos.
+ */
+public interface PriceCatalog {
+    /**
+     * Returns the prices of a set of items.
+     * @param itemIds the item IDs to price
+     * @return the unit price in cents of every item the catalog knows; unknown items are left out
+     */
+    Map<String, Long> getPrices(Set<String> itemIds);
+    
+    /**
+     * Returns the version of the catalog's prices, which increases whenever any price changes. Carts
+     * and caches compare it on every total to decide whether their prices are stale, so it should
+     * be cheap to call.
+     * @return the current price version
+     */
+    long version();
+}
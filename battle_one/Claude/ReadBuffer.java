@@ -0,0 +1,87 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lossy set of striped ring buffers used to record cache reads without taking a lock.
+ * Readers are spread across stripes by thread, and a read is silently dropped when its stripe
+ * is full or another reader wins the race for the same slot. The buffered elements are
+ * consumed in batches by a single thread at a time, typically one holding the cache's write lock.
+ * @param <E> the type of the recorded elements
+ */
+final class ReadBuffer<E> {
+    static final int BUFFER_SIZE = 32;
+    static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+    private static final int MASK = BUFFER_SIZE - 1;
+    
+    private final Stripe<E>[] stripes;
+    private final int stripeMask;
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ReadBuffer() {
+        int count = Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.stripeMask = count - 1;
+    }
+    
+    /**
+     * Records an element in the calling thread's stripe.
+     * @param element the element to record
+     * @return true if the stripe has filled up enough that the caller should try to drain it
+     */
+    boolean record(E element) {
+        long id = Thread.currentThread().getId();
+        Stripe<E> stripe = stripes[(int) (id * 0x9E3779B97F4A7C15L >>> 32) & stripeMask];
+        return stripe.offer(element);
+    }
+    
+    /**
+     * Hands every published element to the consumer and empties the buffers.
+     * Must not be called by more than one thread at a time.
+     * @param consumer receives each buffered element in per-stripe order
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+    
+    private static final class Stripe<E> {
+        private final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+        
+        boolean offer(E element) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long size = tail - head;
+            if (size >= BUFFER_SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) (tail & MASK), element);
+                return size + 1 >= DRAIN_THRESHOLD;
+            }
+            return false;
+        }
+        
+        void drainTo(Consumer<E> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head != tail; head++) {
+                int index = (int) (head & MASK);
+                E element = slots.get(index);
+                if (element == null) {
+                    // The slot was claimed but its element is not visible yet; pick it up next time
+                    break;
+                }
+                slots.lazySet(index, null);
+                consumer.accept(element);
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.Date;
+
+/**
+ * The data a user enters to register, independent of the form it was entered in. Fields may be
+ * null when the user left them empty; telling whether the data is acceptable is the job of
+ * {@link RegistrationValidator}.
+ */
+public final class Registration {
+    /**
+     * The genders the registration form offers.
+     */
+    public enum Gender {
+        MALE,
+        FEMALE,
+        OTHER
+    }
+    
+    private final String username;
+    private final String email;
+    private final char[] password;
+    private final Date birthDate;
+    private final Gender gender;
+    
+    /**
+     * Creates a registration. The password array is kept as it is rather than copied, so the
+     * caller can clear it once the registration has been processed.
+     * @param username the chosen username
+     * @param email the email address
+     * @param password the chosen password
+     * @param birthDate the birth date
+     * @param gender the selected gender
+     */
+    public Registration(String username, String email, char[] password, Date birthDate, Gender gender) {
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.birthDate = birthDate;
+        this.gender = gender;
+    }
+    
+    /**
+     * @return the chosen username, possibly null
+     */
+    public String username() {
+        return username;
+    }
+    
+    /**
+     * @return the email address, possibly null
+     */
+    public String email() {
+        return email;
+    }
+    
+    /**
+     * @return the chosen password, possibly null
+     */
+    public char[] password() {
+        return password;
+    }
+    
+    /**
+     * @return the birth date, possibly null
+     */
+    public Date birthDate() {
+        return birthDate;
+    }
+    
+    /**
+     * @return the selected gender, possibly null
+     */
+    public Gender gender() {
+        return gender;
+    }
+}
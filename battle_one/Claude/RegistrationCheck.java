@@ -0,0 +1,20 @@
+/**
+ * An additional rule about one field of a registration, such as whether a username is already
+ * taken, that {@link RegistrationValidator} runs after its own rules. A check only runs when the
+ * field passed the validator's own rules, so it can rely on the field being well formed.
+ * Implementations must be thread-safe, since a validator may be shared between threads.
+ */
+public interface RegistrationCheck {
+    /**
+     * Returns the field this check is about.
+     * @return the field
+     */
+    FieldError.Field field();
+    
+    /**
+     * Checks a registration.
+     * @param registration the registration, whose field passed the validator's own rules
+     * @return the error, or null if the registration passes
+     */
+    FieldError check(Registration registration);
+}
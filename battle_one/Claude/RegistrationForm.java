@@ -1,24 +1,40 @@
 import javax.swing.*;
-import com.toedter.calendar.JDateChooser;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.regex.*;
-import java.util.Date;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
 import javax.swing.border.EmptyBorder;
 
 public class RegistrationForm extends JFrame {
+    private static final int VALIDATION_DELAY_MILLIS = 300;
+
     private JTextField usernameField;
     private JTextField emailField;
     private JPasswordField passwordField;
-    private JDateChooser dateChooser;
+    private LazyDateChooser dateChooser;
     private ButtonGroup genderGroup;
     private JRadioButton maleButton;
     private JRadioButton femaleButton;
     private JRadioButton otherButton;
     private JButton submitButton;
     private JLabel errorLabel;
+    private final RegistrationValidator validator;
+    // The current error of each field, in the order of the form
+    private final Map<FieldError.Field, FieldError> fieldErrors = new EnumMap<>(FieldError.Field.class);
 
     public RegistrationForm() {
+        this(new RegistrationValidator());
+    }
+
+    public RegistrationForm(RegistrationValidator validator) {
+        this.validator = validator;
         setTitle("User Registration");
         setSize(400, 500);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -56,11 +72,11 @@ public class RegistrationForm extends JFrame {
         gbc.gridx = 1;
         mainPanel.add(passwordField, gbc);
 
-        // Date picker
+        // Date picker, built when it first gets the focus so the window opens sooner
         gbc.gridx = 0;
         gbc.gridy = 3;
         mainPanel.add(new JLabel("Birth Date:"), gbc);
-        dateChooser = new JDateChooser();
+        dateChooser = new LazyDateChooser();
         gbc.gridx = 1;
         mainPanel.add(dateChooser, gbc);
 
@@ -105,61 +121,170 @@ public class RegistrationForm extends JFrame {
         // Add action listener to submit button
         submitButton.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                if (validateForm()) {
-                    // Process the registration
+                submit();
+            }
+        });
+
+        // Re-check a field shortly after the user stops changing it
+        validateWhileTyping(usernameField, FieldError.Field.USERNAME);
+        validateWhileTyping(emailField, FieldError.Field.EMAIL);
+        validateWhileTyping(passwordField, FieldError.Field.PASSWORD);
+        dateChooser.addPropertyChangeListener("date", new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent e) {
+                showFieldError(FieldError.Field.BIRTH_DATE, validateField(FieldError.Field.BIRTH_DATE));
+            }
+        });
+        ActionListener genderListener = new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                showFieldError(FieldError.Field.GENDER, validateField(FieldError.Field.GENDER));
+            }
+        };
+        maleButton.addActionListener(genderListener);
+        femaleButton.addActionListener(genderListener);
+        otherButton.addActionListener(genderListener);
+
+        add(mainPanel);
+    }
+
+    // Takes a snapshot of the fields on the event dispatch thread and registers it in the
+    // background, so that slow registration work never freezes the form
+    private void submit() {
+        final Registration registration = new Registration(
+            usernameField.getText(),
+            emailField.getText(),
+            passwordField.getPassword(),
+            dateChooser.getDate(),
+            selectedGender());
+        submitButton.setEnabled(false);
+
+        new SwingWorker<ValidationResult, Void>() {
+            protected ValidationResult doInBackground() {
+                return register(registration);
+            }
+
+            protected void done() {
+                Arrays.fill(registration.password(), '\0');
+                submitButton.setEnabled(true);
+                ValidationResult result;
+                try {
+                    result = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    errorLabel.setText("Registration failed: " + cause.getMessage());
+                    return;
+                }
+
+                fieldErrors.clear();
+                for (FieldError error : result.errors()) {
+                    fieldErrors.put(error.field(), error);
+                }
+                showErrors();
+                if (result.isValid()) {
                     JOptionPane.showMessageDialog(RegistrationForm.this,
                         "Registration successful!",
                         "Success",
                         JOptionPane.INFORMATION_MESSAGE);
                 }
             }
-        });
+        }.execute();
+    }
 
-        add(mainPanel);
+    // Runs on a worker thread; this is where uniqueness checks, hashing and storage belong
+    private ValidationResult register(Registration registration) {
+        return validator.validate(registration);
     }
 
-    private boolean validateForm() {
-        StringBuilder errors = new StringBuilder();
+    private void validateWhileTyping(JTextComponent field, final FieldError.Field which) {
+        final Timer timer = new Timer(VALIDATION_DELAY_MILLIS, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                showFieldError(which, validateField(which));
+            }
+        });
+        timer.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                timer.restart();
+            }
 
-        // Validate username
-        if (usernameField.getText().trim().length() < 3) {
-            errors.append("Username must be at least 3 characters long\n");
-        }
+            public void removeUpdate(DocumentEvent e) {
+                timer.restart();
+            }
 
-        // Validate email
-        String emailRegex = "^[A-Za-z0-9+_.-]+@(.+)$";
-        Pattern pattern = Pattern.compile(emailRegex);
-        if (!pattern.matcher(emailField.getText().trim()).matches()) {
-            errors.append("Invalid email address\n");
-        }
+            public void changedUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+        });
+    }
 
-        // Validate password
-        if (new String(passwordField.getPassword()).length() < 6) {
-            errors.append("Password must be at least 6 characters long\n");
+    private FieldError validateField(FieldError.Field field) {
+        FieldError error;
+        switch (field) {
+            case USERNAME:
+                error = validator.validateUsername(usernameField.getText());
+                break;
+            case EMAIL:
+                error = validator.validateEmail(emailField.getText());
+                break;
+            case PASSWORD:
+                char[] password = passwordField.getPassword();
+                error = validator.validatePassword(password);
+                Arrays.fill(password, '\0');
+                break;
+            case BIRTH_DATE:
+                error = validator.validateBirthDate(dateChooser.getDate());
+                break;
+            default:
+                error = validator.validateGender(selectedGender());
+                break;
         }
+        if (error != null) {
+            return error;
+        }
+
+        // Checks such as a taken username get the whole form, though only the field matters
+        Registration registration = new Registration(
+            usernameField.getText(),
+            emailField.getText(),
+            passwordField.getPassword(),
+            dateChooser.getDate(),
+            selectedGender());
+        error = validator.validateChecks(registration, field);
+        Arrays.fill(registration.password(), '\0');
+        return error;
+    }
 
-        // Validate birth date
-        if (dateChooser.getDate() == null) {
-            errors.append("Please select a birth date\n");
+    private void showFieldError(FieldError.Field field, FieldError error) {
+        if (error == null) {
+            fieldErrors.remove(field);
         } else {
-            Date currentDate = new Date();
-            if (dateChooser.getDate().after(currentDate)) {
-                errors.append("Birth date cannot be in the future\n");
-            }
+            fieldErrors.put(field, error);
         }
+        showErrors();
+    }
 
-        // Validate gender selection
-        if (!maleButton.isSelected() && !femaleButton.isSelected() && !otherButton.isSelected()) {
-            errors.append("Please select a gender\n");
+    private void showErrors() {
+        if (fieldErrors.isEmpty()) {
+            errorLabel.setText("");
+            return;
         }
-
-        if (errors.length() > 0) {
-            errorLabel.setText("<html>" + errors.toString().replace("\n", "<br>") + "</html>");
-            return false;
+        StringBuilder errors = new StringBuilder("<html>");
+        for (FieldError error : fieldErrors.values()) {
+            errors.append(error.message()).append("<br>");
         }
+        errorLabel.setText(errors.append("</html>").toString());
+    }
 
-        errorLabel.setText("");
-        return true;
+    private Registration.Gender selectedGender() {
+        if (maleButton.isSelected()) {
+            return Registration.Gender.MALE;
+        }
+        if (femaleButton.isSelected()) {
+            return Registration.Gender.FEMALE;
+        }
+        if (otherButton.isSelected()) {
+            return Registration.Gender.OTHER;
+        }
+        return null;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,695 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Imports registrations in bulk from a CSV or NDJSON file, checking every row with the same
+ * {@link RegistrationValidator} rules as the registration form and sorting the rows into an
+ * accepted and a rejected file.
+ *
+ * Only the rules of this tree's form ({@code validateForm}) are applied. The other form's
+ * {@code handleSubmit} rules, such as its stricter email pattern, live in a validator of its own in
+ * a separate source root that this class cannot reach, so a row accepted here may still be
+ * rejected by that form.
+ *
+ * The input is split into chunks of a few megabytes that are processed in parallel on a
+ * {@link ForkJoinPool}. Each chunk is read through its own memory-mapped window and owns the rows
+ * that start inside it, so rows never need to be handed between tasks, and its output is buffered
+ * in a fixed-size buffer that is appended to the shared output files when full. Memory use
+ * therefore depends on the pool's parallelism, not on the size of the file. Rows keep their order
+ * within a chunk, but chunks are written in the order they finish.
+ *
+ * CSV input must start with a header naming the columns username, email, password, birthDate and
+ * gender in any order; fields may be quoted, with doubled quotes for a quote, but cannot contain
+ * line breaks. NDJSON input has one flat object per line with the same keys, whose values are
+ * strings or null. Birth dates are ISO dates (yyyy-MM-dd) in UTC and genders are male, female or
+ * other, ignoring case.
+ *
+ * Accepted rows are copied unchanged to the accepted file. Each rejected row is written to the
+ * rejected file as the names of the broken rules, separated by commas, a tab and the original
+ * row; rows that cannot be parsed are marked {@code MALFORMED}, and lines longer than the
+ * importer's limit {@code LINE_TOO_LONG}, followed by their byte offset instead of their text.
+ */
+public class RegistrationImporter {
+    /**
+     * The supported input formats.
+     */
+    public enum Format {
+        CSV,
+        NDJSON;
+        
+        /**
+         * Picks the format from a file's extension: .csv for CSV, .ndjson, .jsonl or .json for NDJSON.
+         * @param file the input file
+         * @return the format
+         * @throws IllegalArgumentException if the extension is not recognized
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Cannot tell the format of " + file + " from its extension");
+        }
+    }
+    
+    private static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+    private static final int MAX_LINE_LENGTH = 64 << 10;
+    private static final int OUTPUT_BUFFER_SIZE = 256 << 10;
+    private static final String[] COLUMNS = {"username", "email", "password", "birthdate", "gender"};
+    private static final int USERNAME = 0;
+    private static final int EMAIL = 1;
+    private static final int PASSWORD = 2;
+    private static final int BIRTH_DATE = 3;
+    private static final int GENDER = 4;
+    private static final byte[] MALFORMED = "MALFORMED\t".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEWLINE = {'\n'};
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    
+    private final RegistrationValidator validator;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    
+    /**
+     * Creates an importer that runs on the common fork-join pool.
+     * @param validator checks the rows
+     * @throws NullPointerException if validator is null
+     */
+    public RegistrationImporter(RegistrationValidator validator) {
+        this(validator, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Creates an importer that runs on the given pool, using as many threads as it offers.
+     * @param validator checks the rows
+     * @param pool runs the import
+     * @throws NullPointerException if validator or pool is null
+     */
+    public RegistrationImporter(RegistrationValidator validator, ForkJoinPool pool) {
+        this(validator, pool, DEFAULT_CHUNK_SIZE);
+    }
+    
+    RegistrationImporter(RegistrationValidator validator, ForkJoinPool pool, int chunkSize) {
+        if (validator == null || pool == null) {
+            throw new NullPointerException("Validator and pool cannot be null");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
+        }
+        this.validator = validator;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Imports a file whose format is given by its extension, see {@link Format#of}.
+     * @param input the file to import
+     * @param accepted the file to write accepted rows to, replaced if it exists
+     * @param rejected the file to write rejected rows to, replaced if it exists
+     * @return the counts of the run
+     * @throws IOException if a file cannot be read or written, or a CSV header is invalid
+     */
+    public ImportReport importFile(Path input, Path accepted, Path rejected) throws IOException {
+        return importFile(input, Format.of(input), accepted, rejected);
+    }
+    
+    /**
+     * Imports a file in the given format.
+     * @param input the file to import
+     * @param format the format of the file
+     * @param accepted the file to write accepted rows to, replaced if it exists
+     * @param rejected the file to write rejected rows to, replaced if it exists
+     * @return the counts of the run
+     * @throws IOException if a file cannot be read or written, or a CSV header is invalid
+     */
+    public ImportReport importFile(Path input, Format format, Path accepted, Path rejected) throws IOException {
+        if (input == null || format == null || accepted == null || rejected == null) {
+            throw new NullPointerException("Files and format cannot be null");
+        }
+        long started = System.nanoTime();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel acceptedOut = openOutput(accepted);
+             FileChannel rejectedOut = openOutput(rejected)) {
+            Job job = new Job(in, format, acceptedOut, rejectedOut);
+            if (job.dataStart < job.size) {
+                pool.invoke(job.new Chunk(job.dataStart, job.size));
+            }
+            return new ImportReport(job.accepted.get(), job.rejected.get(), job.malformed.get(),
+                job.errorCounts, System.nanoTime() - started);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Imports a file from the command line and prints the report.
+     * Usage: {@code java RegistrationImporter <input.csv|input.ndjson> <accepted> <rejected>}
+     * @param args the input, accepted and rejected files
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: RegistrationImporter <input.csv|input.ndjson> <accepted> <rejected>");
+            System.exit(2);
+        }
+        RegistrationImporter importer = new RegistrationImporter(new RegistrationValidator());
+        System.out.println(importer.importFile(Path.of(args[0]), Path.of(args[1]), Path.of(args[2])));
+    }
+    
+    private int outputBufferSize() {
+        return (int) Math.min(OUTPUT_BUFFER_SIZE, (long) chunkSize + MAX_LINE_LENGTH);
+    }
+    
+    private static FileChannel openOutput(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    }
+    
+    /**
+     * The state shared by the chunks of one import.
+     */
+    private final class Job {
+        private final FileChannel in;
+        private final Format format;
+        private final FileChannel acceptedOut;
+        private final FileChannel rejectedOut;
+        private final long size;
+        private final long dataStart;
+        // For CSV, the column of each field, in the order of COLUMNS; -1 if absent
+        private final int[] columnOf;
+        private final int columnCount;
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong malformed = new AtomicLong();
+        private final AtomicLongArray errorCounts = new AtomicLongArray(FieldError.values().length);
+        
+        Job(FileChannel in, Format format, FileChannel acceptedOut, FileChannel rejectedOut) throws IOException {
+            this.in = in;
+            this.format = format;
+            this.acceptedOut = acceptedOut;
+            this.rejectedOut = rejectedOut;
+            this.size = in.size();
+            
+            MappedByteBuffer head = in.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_LINE_LENGTH));
+            int start = startsWith(head, UTF8_BOM) ? UTF8_BOM.length : 0;
+            this.columnOf = new int[COLUMNS.length];
+            if (format == Format.CSV) {
+                int newline = indexOf(head, start, head.limit(), (byte) '\n');
+                if (newline < 0 && head.limit() < size) {
+                    throw new IOException("CSV header is longer than " + MAX_LINE_LENGTH + " bytes");
+                }
+                int end = newline < 0 ? head.limit() : newline;
+                String[] header = parseCsv(decode(head, start, stripCarriageReturn(head, start, end)), -1);
+                if (header == null) {
+                    throw new IOException("Malformed CSV header");
+                }
+                Arrays.fill(columnOf, -1);
+                for (int column = 0; column < header.length; column++) {
+                    int field = fieldIndex(header[column]);
+                    if (field >= 0) {
+                        columnOf[field] = column;
+                    }
+                }
+                for (int field = 0; field < COLUMNS.length; field++) {
+                    if (columnOf[field] < 0) {
+                        throw new IOException("CSV header has no " + COLUMNS[field] + " column");
+                    }
+                }
+                this.columnCount = header.length;
+                this.dataStart = newline < 0 ? size : newline + 1;
+            } else {
+                this.columnCount = 0;
+                this.dataStart = start;
+            }
+        }
+        
+        /**
+         * A byte range of the input. Splits itself until it is at most one chunk long, then
+         * imports the rows that start inside it.
+         */
+        private final class Chunk extends RecursiveAction {
+            private final long start;
+            private final long end;
+            
+            Chunk(long start, long end) {
+                this.start = start;
+                this.end = end;
+            }
+            
+            @Override
+            protected void compute() {
+                if (end - start > chunkSize) {
+                    long middle = start + (end - start) / 2;
+                    invokeAll(new Chunk(start, middle), new Chunk(middle, end));
+                    return;
+                }
+                try {
+                    importRows();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            
+            private void importRows() throws IOException {
+                // Map one byte before the chunk to see whether it begins a row, and enough after it
+                // to finish the last row that starts inside it
+                long from = start == dataStart ? start : start - 1;
+                long to = Math.min(size, end + MAX_LINE_LENGTH);
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                int owned = (int) (end - from);
+                int position = 0;
+                if (start != dataStart) {
+                    int newline = indexOf(window, 0, owned, (byte) '\n');
+                    if (newline < 0) {
+                        return;
+                    }
+                    position = newline + 1;
+                }
+                
+                Rows rows = new Rows();
+                while (position < owned) {
+                    int newline = indexOf(window, position, window.limit(), (byte) '\n');
+                    if (newline < 0 && to < size) {
+                        rows.tooLong(from + position);
+                        break;
+                    }
+                    int lineEnd = newline < 0 ? window.limit() : newline;
+                    if (lineEnd - position > MAX_LINE_LENGTH) {
+                        rows.tooLong(from + position);
+                    } else {
+                        rows.importRow(window, position, stripCarriageReturn(window, position, lineEnd));
+                    }
+                    position = lineEnd + 1;
+                }
+                rows.finish();
+            }
+        }
+        
+        /**
+         * The output and counts of one chunk, merged into the job when the chunk is done.
+         */
+        private final class Rows {
+            private final ByteBuffer acceptedBuffer = ByteBuffer.allocate(outputBufferSize());
+            private final ByteBuffer rejectedBuffer = ByteBuffer.allocate(outputBufferSize());
+            private final long[] counts = new long[FieldError.values().length];
+            private final FieldError[] errors = new FieldError[COLUMNS.length];
+            private long acceptedRows;
+            private long rejectedRows;
+            private long malformedRows;
+            
+            void importRow(ByteBuffer window, int start, int end) throws IOException {
+                if (start == end) {
+                    return;
+                }
+                String[] fields = format == Format.CSV
+                    ? csvFields(decode(window, start, end))
+                    : ndjsonFields(decode(window, start, end));
+                ByteBuffer row = window.slice(start, end - start);
+                if (fields == null) {
+                    malformedRows++;
+                    rejectedRows++;
+                    writeRecord(rejectedBuffer, rejectedOut, ByteBuffer.wrap(MALFORMED), row);
+                    return;
+                }
+                
+                int errorCount = validate(fields);
+                if (errorCount == 0) {
+                    acceptedRows++;
+                    writeRecord(acceptedBuffer, acceptedOut, row);
+                    return;
+                }
+                rejectedRows++;
+                StringBuilder reasons = new StringBuilder();
+                for (int i = 0; i < errorCount; i++) {
+                    counts[errors[i].ordinal()]++;
+                    reasons.append(i == 0 ? "" : ",").append(errors[i].name());
+                }
+                reasons.append('\t');
+                writeRecord(rejectedBuffer, rejectedOut, StandardCharsets.UTF_8.encode(reasons.toString()), row);
+            }
+            
+            void tooLong(long offset) throws IOException {
+                malformedRows++;
+                rejectedRows++;
+                writeRecord(rejectedBuffer, rejectedOut,
+                    StandardCharsets.US_ASCII.encode("LINE_TOO_LONG\t@" + offset));
+            }
+            
+            void finish() throws IOException {
+                flush(acceptedBuffer, acceptedOut);
+                flush(rejectedBuffer, rejectedOut);
+                accepted.addAndGet(acceptedRows);
+                rejected.addAndGet(rejectedRows);
+                malformed.addAndGet(malformedRows);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] != 0) {
+                        errorCounts.addAndGet(i, counts[i]);
+                    }
+                }
+            }
+            
+            // Fills errors with the broken rules in field order and returns how many there are
+            private int validate(String[] fields) {
+                char[] password = fields[PASSWORD] == null ? null : fields[PASSWORD].toCharArray();
+                FieldError birthDateError = null;
+                Date birthDate = null;
+                String birthDateText = fields[BIRTH_DATE];
+                if (birthDateText != null && !birthDateText.isBlank()) {
+                    try {
+                        LocalDate date = LocalDate.parse(birthDateText.trim());
+                        birthDate = Date.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+                    } catch (DateTimeParseException e) {
+                        birthDateError = FieldError.BIRTH_DATE_UNPARSEABLE;
+                    }
+                }
+                FieldError genderError = null;
+                Registration.Gender gender = null;
+                String genderText = fields[GENDER];
+                if (genderText != null && !genderText.isBlank()) {
+                    try {
+                        gender = Registration.Gender.valueOf(genderText.trim().toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        genderError = FieldError.GENDER_UNKNOWN;
+                    }
+                }
+                Registration registration = new Registration(fields[USERNAME], fields[EMAIL], password, birthDate, gender);
+                
+                int count = 0;
+                count = add(count, registration, FieldError.Field.USERNAME, validator.validateUsername(fields[USERNAME]));
+                count = add(count, registration, FieldError.Field.EMAIL, validator.validateEmail(fields[EMAIL]));
+                count = add(count, registration, FieldError.Field.PASSWORD, validator.validatePassword(password));
+                count = add(count, registration, FieldError.Field.BIRTH_DATE,
+                    birthDateError != null ? birthDateError : validator.validateBirthDate(birthDate));
+                count = add(count, registration, FieldError.Field.GENDER,
+                    genderError != null ? genderError : validator.validateGender(gender));
+                return count;
+            }
+            
+            // Records the built-in rule's error, or else the first error of the validator's checks
+            private int add(int count, Registration registration, FieldError.Field field, FieldError error) {
+                return add(count, error != null ? error : validator.validateChecks(registration, field));
+            }
+            
+            private int add(int count, FieldError error) {
+                if (error == null) {
+                    return count;
+                }
+                errors[count] = error;
+                return count + 1;
+            }
+            
+            // Writes the parts and a newline as one line. Buffers are only flushed between whole
+            // lines, so the output of chunks that flush at the same time never interleaves mid-line.
+            private void writeRecord(ByteBuffer buffer, FileChannel out, ByteBuffer... parts) throws IOException {
+                int length = 1;
+                for (ByteBuffer part : parts) {
+                    length += part.remaining();
+                }
+                if (length > buffer.remaining()) {
+                    flush(buffer, out);
+                }
+                if (length > buffer.remaining()) {
+                    // Only when small chunks got small buffers; write the line straight through
+                    ByteBuffer[] line = Arrays.copyOf(parts, parts.length + 1);
+                    line[parts.length] = ByteBuffer.wrap(NEWLINE);
+                    synchronized (out) {
+                        while (line[parts.length].hasRemaining()) {
+                            out.write(line);
+                        }
+                    }
+                    return;
+                }
+                for (ByteBuffer part : parts) {
+                    buffer.put(part);
+                }
+                buffer.put((byte) '\n');
+            }
+            
+            private void flush(ByteBuffer buffer, FileChannel out) throws IOException {
+                buffer.flip();
+                synchronized (out) {
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+                buffer.clear();
+            }
+        }
+        
+        // Returns the fields in the order of COLUMNS, or null if the row is malformed
+        private String[] csvFields(String line) {
+            String[] columns = parseCsv(line, columnCount);
+            if (columns == null) {
+                return null;
+            }
+            String[] fields = new String[COLUMNS.length];
+            for (int field = 0; field < COLUMNS.length; field++) {
+                fields[field] = columns[columnOf[field]];
+            }
+            return fields;
+        }
+    }
+    
+    /**
+     * Splits a CSV line into its fields.
+     * @param line the line without its line break
+     * @param expected the number of fields the line must have, or -1 for any number
+     * @return the fields, or null if a quote is not closed or the number of fields is wrong
+     */
+    static String[] parseCsv(String line, int expected) {
+        List<String> fields = new ArrayList<>(expected < 0 ? COLUMNS.length : expected);
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            field.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        return null;
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    return null;
+                }
+            } else {
+                while (i < line.length() && line.charAt(i) != ',') {
+                    field.append(line.charAt(i++));
+                }
+            }
+            fields.add(field.toString());
+            if (i >= line.length()) {
+                break;
+            }
+            i++;
+        }
+        if (expected >= 0 && fields.size() != expected) {
+            return null;
+        }
+        return fields.toArray(new String[0]);
+    }
+    
+    /**
+     * Reads the fields of a flat JSON object with string or null values.
+     * @param line the line holding the object
+     * @return the fields in the order of COLUMNS, absent ones null, or null if the object is malformed
+     */
+    static String[] ndjsonFields(String line) {
+        String[] fields = new String[COLUMNS.length];
+        JsonCursor cursor = new JsonCursor(line);
+        if (!cursor.consume('{')) {
+            return null;
+        }
+        if (cursor.consume('}')) {
+            return cursor.atEnd() ? fields : null;
+        }
+        do {
+            String key = cursor.string();
+            if (key == null || !cursor.consume(':')) {
+                return null;
+            }
+            String value;
+            if (cursor.literal("null")) {
+                value = null;
+            } else {
+                value = cursor.string();
+                if (value == null) {
+                    return null;
+                }
+            }
+            int field = fieldIndex(key);
+            if (field >= 0) {
+                fields[field] = value;
+            }
+        } while (cursor.consume(','));
+        return cursor.consume('}') && cursor.atEnd() ? fields : null;
+    }
+    
+    /**
+     * A position in a line of JSON that skips whitespace before every token.
+     */
+    private static final class JsonCursor {
+        private final String text;
+        private int position;
+        
+        JsonCursor(String text) {
+            this.text = text;
+        }
+        
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+        
+        boolean literal(String word) {
+            skipWhitespace();
+            if (text.startsWith(word, position)) {
+                position += word.length();
+                return true;
+            }
+            return false;
+        }
+        
+        boolean atEnd() {
+            skipWhitespace();
+            return position == text.length();
+        }
+        
+        // Returns the decoded string at the position, or null if there is none
+        String string() {
+            if (!consume('"')) {
+                return null;
+            }
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    return null;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append(escaped);
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            return null;
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            return null;
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            return null;
+        }
+        
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+    
+    // Matches a column name or JSON key to a field, ignoring case, '_' and '-'
+    private static int fieldIndex(String name) {
+        String normalized = name.trim().replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+        for (int field = 0; field < COLUMNS.length; field++) {
+            if (COLUMNS[field].equals(normalized)) {
+                return field;
+            }
+        }
+        return -1;
+    }
+    
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        return StandardCharsets.UTF_8.decode(buffer.slice(start, end - start)).toString();
+    }
+    
+    private static int stripCarriageReturn(ByteBuffer buffer, int start, int end) {
+        return end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+    }
+    
+    private static boolean startsWith(ByteBuffer buffer, byte[] prefix) {
+        if (buffer.limit() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
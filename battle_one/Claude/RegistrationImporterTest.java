@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+class RegistrationImporterTest {
+    @TempDir
+    Path directory;
+
+    private RegistrationValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new RegistrationValidator(Clock.fixed(Instant.parse("2024-06-01T00:00:00Z"), ZoneOffset.UTC));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should sort CSV rows into accepted and rejected files and count errors per field")
+    void importFile_Csv_SortsRowsAndCountsErrors() throws IOException {
+        Path input = write("users.csv",
+            "gender,username,email,password,birthDate\r\n"
+            + "female,alice,alice@example.com,secret,1990-04-12\r\n"
+            + "male,\"bo, \"\"b\"\"\",bob@example.com,hunter22,1985-01-01\r\n"
+            + "other,al,not-an-email,short,2030-01-01\r\n"
+            + "robot,carol,carol@example.com,password,12/31/1990\r\n"
+            + "\r\n"
+            + "female,dave,dave@example.com\r\n");
+        Path accepted = directory.resolve("accepted.csv");
+        Path rejected = directory.resolve("rejected.txt");
+
+        ImportReport report = new RegistrationImporter(validator).importFile(input, accepted, rejected);
+
+        assertEquals(5, report.totalRows());
+        assertEquals(2, report.acceptedRows());
+        assertEquals(3, report.rejectedRows());
+        assertEquals(1, report.malformedRows());
+        assertEquals(1, report.errorCount(FieldError.USERNAME_TOO_SHORT));
+        assertEquals(1, report.errorCount(FieldError.BIRTH_DATE_IN_FUTURE));
+        assertEquals(1, report.errorCount(FieldError.BIRTH_DATE_UNPARSEABLE));
+        assertEquals(2, report.errorCount(FieldError.Field.BIRTH_DATE));
+        assertEquals(1, report.errorCount(FieldError.Field.GENDER));
+        assertEquals(List.of(
+            "female,alice,alice@example.com,secret,1990-04-12",
+            "male,\"bo, \"\"b\"\"\",bob@example.com,hunter22,1985-01-01"), Files.readAllLines(accepted));
+        assertEquals(List.of(
+            "USERNAME_TOO_SHORT,EMAIL_INVALID,PASSWORD_TOO_SHORT,BIRTH_DATE_IN_FUTURE\tother,al,not-an-email,short,2030-01-01",
+            "BIRTH_DATE_UNPARSEABLE,GENDER_UNKNOWN\trobot,carol,carol@example.com,password,12/31/1990",
+            "MALFORMED\tfemale,dave,dave@example.com"), Files.readAllLines(rejected));
+    }
+
+    @Test
+    @DisplayName("Should read NDJSON objects with escapes, nulls and unknown keys")
+    void importFile_Ndjson_ParsesObjects() throws IOException {
+        Path input = write("users.ndjson",
+            "{\"username\": \"\\u00e9mile\", \"email\": \"emile@example.com\", \"password\": \"p\\\"ssw0rd\","
+            + " \"birth_date\": \"1970-01-01\", \"gender\": \"MALE\", \"source\": \"crm\"}\n"
+            + "{\"username\": \"zoe\", \"email\": null, \"password\": \"secret1\", \"birthDate\": null, \"gender\": \"female\"}\n"
+            + "{\"username\": \"broken\"\n");
+        Path accepted = directory.resolve("accepted.ndjson");
+        Path rejected = directory.resolve("rejected.txt");
+
+        ImportReport report = new RegistrationImporter(validator).importFile(input, accepted, rejected);
+
+        assertEquals(1, report.acceptedRows());
+        assertEquals(2, report.rejectedRows());
+        assertEquals(1, report.malformedRows());
+        assertEquals(1, report.errorCount(FieldError.EMAIL_INVALID));
+        assertEquals(1, report.errorCount(FieldError.BIRTH_DATE_MISSING));
+        assertTrue(Files.readString(accepted).startsWith("{\"username\": \"\\u00e9mile\""));
+    }
+
+    @Test
+    @DisplayName("Should import every row exactly once however the file is split into chunks")
+    void importFile_SmallChunks_ImportsEveryRowOnce() throws IOException {
+        StringBuilder csv = new StringBuilder("username,email,password,birthDate,gender\n");
+        List<String> expectedAccepted = new ArrayList<>();
+        List<String> expectedRejected = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String row = "user" + i + ",user" + i + "@example.com," + (i % 7 == 0 ? "pw" : "password" + i)
+                + ",1990-01-01,other";
+            csv.append(row).append('\n');
+            if (i % 7 == 0) {
+                expectedRejected.add("PASSWORD_TOO_SHORT\t" + row);
+            } else {
+                expectedAccepted.add(row);
+            }
+        }
+        Path input = write("users.csv", csv.toString());
+        Path accepted = directory.resolve("accepted.csv");
+        Path rejected = directory.resolve("rejected.txt");
+        Collections.sort(expectedAccepted);
+        Collections.sort(expectedRejected);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunkSize : new int[] {1, 37, 4096}) {
+                ImportReport report = new RegistrationImporter(validator, pool, chunkSize)
+                    .importFile(input, accepted, rejected);
+
+                assertEquals(2_000, report.totalRows(), "chunk size " + chunkSize);
+                assertEquals(expectedRejected.size(), report.errorCount(FieldError.PASSWORD_TOO_SHORT));
+                List<String> acceptedLines = new ArrayList<>(Files.readAllLines(accepted));
+                Collections.sort(acceptedLines);
+                assertEquals(expectedAccepted, acceptedLines, "chunk size " + chunkSize);
+                // The reason prefix and its row must reach the file together, whatever the interleaving
+                List<String> rejectedLines = new ArrayList<>(Files.readAllLines(rejected));
+                Collections.sort(rejectedLines);
+                assertEquals(expectedRejected, rejectedLines, "chunk size " + chunkSize);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail when the CSV header lacks a required column")
+    void importFile_MissingColumn_ThrowsIOException() throws IOException {
+        Path input = write("users.csv", "username,email,password,gender\nalice,a@b,secret,female\n");
+
+        IOException e = assertThrows(IOException.class, () -> new RegistrationImporter(validator)
+            .importFile(input, directory.resolve("a"), directory.resolve("r")));
+        assertTrue(e.getMessage().contains("birthdate"));
+    }
+}
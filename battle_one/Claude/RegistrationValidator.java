@@ -0,0 +1,229 @@
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Checks a {@link Registration} against the rules of the registration form, without any Swing
+ * dependency, so the same rules can run on a server, in a batch import or in a test.
+ *
+ * The rules are fixed when the class is loaded: fields are checked by scanning their characters
+ * in place instead of matching regular expressions, and every error is a {@link FieldError}
+ * constant. A valid registration therefore costs no allocation at all and is answered with the
+ * shared {@link ValidationResult#VALID}; only an invalid one builds a result. Instances hold no
+ * mutable state and can be shared between threads.
+ *
+ * Rules that need more than the field itself, such as a lookup of taken usernames, are added as
+ * {@link RegistrationCheck}s, which run for every field that passed the built-in rules.
+ */
+public class RegistrationValidator {
+    private static final int MIN_USERNAME_LENGTH = 3;
+    private static final int MIN_PASSWORD_LENGTH = 6;
+    
+    private final Clock clock;
+    private final RegistrationCheck[] checks;
+    
+    /**
+     * Creates a validator that compares birth dates with the system clock.
+     */
+    public RegistrationValidator() {
+        this(Clock.systemUTC());
+    }
+    
+    /**
+     * Creates a validator that compares birth dates with the given clock.
+     * @param clock the source of the current time
+     * @throws NullPointerException if clock is null
+     */
+    public RegistrationValidator(Clock clock) {
+        this(clock, new RegistrationCheck[0]);
+    }
+    
+    /**
+     * Creates a validator that compares birth dates with the given clock and runs the given
+     * checks after its own rules, in the given order.
+     * @param clock the source of the current time
+     * @param checks the additional checks
+     * @throws NullPointerException if clock or a check is null
+     */
+    public RegistrationValidator(Clock clock, RegistrationCheck... checks) {
+        if (clock == null) {
+            throw new NullPointerException("Clock cannot be null");
+        }
+        for (RegistrationCheck check : checks) {
+            if (check == null) {
+                throw new NullPointerException("Checks cannot be null");
+            }
+        }
+        this.clock = clock;
+        this.checks = checks.clone();
+    }
+    
+    /**
+     * Checks every field of a registration.
+     * @param registration the registration to check
+     * @return {@link ValidationResult#VALID}, or the errors in the order of the form's fields
+     * @throws NullPointerException if registration is null
+     */
+    public ValidationResult validate(Registration registration) {
+        if (registration == null) {
+            throw new NullPointerException("Registration cannot be null");
+        }
+        List<FieldError> errors = null;
+        errors = add(errors, validateUsername(registration.username()));
+        errors = add(errors, validateEmail(registration.email()));
+        errors = add(errors, validatePassword(registration.password()));
+        errors = add(errors, validateBirthDate(registration.birthDate()));
+        errors = add(errors, validateGender(registration.gender()));
+        for (RegistrationCheck check : checks) {
+            if (!hasError(errors, check.field())) {
+                errors = add(errors, check.check(registration));
+            }
+        }
+        if (errors == null) {
+            return ValidationResult.VALID;
+        }
+        // Checks report after the built-in rules; keep the errors in field order all the same
+        errors.sort(Comparator.comparing(FieldError::field));
+        return ValidationResult.of(errors);
+    }
+    
+    /**
+     * Runs the additional checks about one field, for callers that validate field by field. The
+     * caller is expected to have checked the field with the matching built-in rule first.
+     * @param registration the registration
+     * @param field the field whose checks to run
+     * @return the first error, or null if every check passes
+     */
+    public FieldError validateChecks(Registration registration, FieldError.Field field) {
+        for (RegistrationCheck check : checks) {
+            if (check.field() == field) {
+                FieldError error = check.check(registration);
+                if (error != null) {
+                    return error;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Checks that a username has at least 3 characters, ignoring surrounding whitespace.
+     * @param username the username, or null if none was entered
+     * @return the error, or null if the username is valid
+     */
+    public FieldError validateUsername(String username) {
+        if (username == null) {
+            return FieldError.USERNAME_TOO_SHORT;
+        }
+        int start = trimStart(username);
+        return trimEnd(username, start) - start < MIN_USERNAME_LENGTH ? FieldError.USERNAME_TOO_SHORT : null;
+    }
+    
+    /**
+     * Checks that an email address, ignoring surrounding whitespace, is a non-empty local part of
+     * letters, digits and {@code + _ . -}, an {@code @}, and a non-empty domain on a single line.
+     * @param email the email address, or null if none was entered
+     * @return the error, or null if the address is valid
+     */
+    public FieldError validateEmail(String email) {
+        if (email == null) {
+            return FieldError.EMAIL_INVALID;
+        }
+        int start = trimStart(email);
+        int end = trimEnd(email, start);
+        int at = start;
+        while (at < end && isLocalPartChar(email.charAt(at))) {
+            at++;
+        }
+        if (at == start || at >= end - 1 || email.charAt(at) != '@') {
+            return FieldError.EMAIL_INVALID;
+        }
+        for (int i = at + 1; i < end; i++) {
+            if (isLineTerminator(email.charAt(i))) {
+                return FieldError.EMAIL_INVALID;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Checks that a password has at least 6 characters. Whitespace counts.
+     * @param password the password, or null if none was entered
+     * @return the error, or null if the password is valid
+     */
+    public FieldError validatePassword(char[] password) {
+        return password == null || password.length < MIN_PASSWORD_LENGTH ? FieldError.PASSWORD_TOO_SHORT : null;
+    }
+    
+    /**
+     * Checks that a birth date was given and is not in the future.
+     * @param birthDate the birth date, or null if none was selected
+     * @return the error, or null if the birth date is valid
+     */
+    public FieldError validateBirthDate(Date birthDate) {
+        if (birthDate == null) {
+            return FieldError.BIRTH_DATE_MISSING;
+        }
+        return birthDate.getTime() > clock.millis() ? FieldError.BIRTH_DATE_IN_FUTURE : null;
+    }
+    
+    /**
+     * Checks that a gender was selected.
+     * @param gender the gender, or null if none was selected
+     * @return the error, or null if a gender was selected
+     */
+    public FieldError validateGender(Registration.Gender gender) {
+        return gender == null ? FieldError.GENDER_MISSING : null;
+    }
+    
+    private static List<FieldError> add(List<FieldError> errors, FieldError error) {
+        if (error == null) {
+            return errors;
+        }
+        if (errors == null) {
+            errors = new ArrayList<>(FieldError.values().length);
+        }
+        errors.add(error);
+        return errors;
+    }
+    
+    private static boolean hasError(List<FieldError> errors, FieldError.Field field) {
+        if (errors != null) {
+            for (FieldError error : errors) {
+                if (error.field() == field) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    // Bounds of the text String.trim would keep, found without creating the trimmed string
+    private static int trimStart(String text) {
+        int start = 0;
+        while (start < text.length() && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+    
+    private static int trimEnd(String text, int start) {
+        int end = text.length();
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+    
+    private static boolean isLocalPartChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+            || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+    
+    // The characters a regular expression's '.' does not match
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+class RegistrationValidatorTest {
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private RegistrationValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new RegistrationValidator(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static Registration valid() {
+        return new Registration("alice", "alice@example.com", "secret".toCharArray(),
+            Date.from(Instant.parse("1990-04-12T00:00:00Z")), Registration.Gender.FEMALE);
+    }
+
+    @Test
+    @DisplayName("Should return the shared valid result for a valid registration")
+    void validate_ValidRegistration_ReturnsSharedValidResult() {
+        ValidationResult result = validator.validate(valid());
+
+        assertTrue(result.isValid());
+        assertSame(ValidationResult.VALID, result);
+        assertTrue(result.errors().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report every broken rule in field order")
+    void validate_EmptyRegistration_ReportsAllErrorsInFieldOrder() {
+        ValidationResult result = validator.validate(new Registration(null, "", new char[0], null, null));
+
+        assertFalse(result.isValid());
+        assertEquals(List.of(FieldError.USERNAME_TOO_SHORT, FieldError.EMAIL_INVALID,
+            FieldError.PASSWORD_TOO_SHORT, FieldError.BIRTH_DATE_MISSING, FieldError.GENDER_MISSING),
+            result.errors());
+        assertEquals(FieldError.BIRTH_DATE_MISSING, result.errorFor(FieldError.Field.BIRTH_DATE));
+        assertEquals("Please select a gender", result.errorFor(FieldError.Field.GENDER).message());
+    }
+
+    @Test
+    @DisplayName("Should ignore surrounding whitespace when checking the username length")
+    void validateUsername_SurroundingWhitespace_IsIgnored() {
+        assertNull(validator.validateUsername("abc"));
+        assertEquals(FieldError.USERNAME_TOO_SHORT, validator.validateUsername("  ab  "));
+        assertNull(validator.validateUsername(" a b "));
+    }
+
+    @Test
+    @DisplayName("Should accept the same email addresses as the form's original pattern")
+    void validateEmail_MatchesOriginalPattern() {
+        assertNull(validator.validateEmail("john.doe+tag@example.com"));
+        assertNull(validator.validateEmail("  a@b  "));
+        assertNull(validator.validateEmail("a@b@c"));
+        assertEquals(FieldError.EMAIL_INVALID, validator.validateEmail("@example.com"));
+        assertEquals(FieldError.EMAIL_INVALID, validator.validateEmail("alice@"));
+        assertEquals(FieldError.EMAIL_INVALID, validator.validateEmail("al ice@example.com"));
+        assertEquals(FieldError.EMAIL_INVALID, validator.validateEmail("alice@exa\nmple.com"));
+        assertEquals(FieldError.EMAIL_INVALID, validator.validateEmail("alice.example.com"));
+    }
+
+    @Test
+    @DisplayName("Should reject passwords shorter than 6 characters")
+    void validatePassword_TooShort_ReturnsError() {
+        assertEquals(FieldError.PASSWORD_TOO_SHORT, validator.validatePassword("12345".toCharArray()));
+        assertNull(validator.validatePassword("      ".toCharArray()));
+    }
+
+    @Test
+    @DisplayName("Should reject birth dates after the validator's clock")
+    void validateBirthDate_FutureDate_ReturnsError() {
+        assertNull(validator.validateBirthDate(Date.from(NOW)));
+        assertEquals(FieldError.BIRTH_DATE_IN_FUTURE, validator.validateBirthDate(Date.from(NOW.plusMillis(1))));
+    }
+
+    @Test
+    @DisplayName("Should not allocate when validating a valid registration")
+    void validate_ValidRegistration_DoesNotAllocate() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        Registration registration = valid();
+        for (int i = 0; i < 20_000; i++) {
+            validator.validate(registration);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            validator.validate(registration);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Leave room for the measurement itself; one allocation per call would be 10,000 objects
+        assertTrue(allocated < 10_000, "Allocated " + allocated + " bytes");
+    }
+}
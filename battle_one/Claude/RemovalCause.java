@@ -0,0 +1,13 @@
+/**
+ * The reason an entry left a cache.
+ */
+public enum RemovalCause {
+    /** The entry was removed by the user through remove or clear. */
+    EXPLICIT,
+    /** The entry's value was overwritten by a put for the same key. */
+    REPLACED,
+    /** The entry was evicted to keep the cache within its size or weight bound. */
+    EVICTED,
+    /** The entry's expiration time passed. */
+    EXPIRED
+}
@@ -0,0 +1,19 @@
+/**
+ * Receives a notification whenever an entry leaves a cache, for example to close a handle or
+ * write a dirty value back. Unlike {@link LRUCache#onRemoval}, listeners are called outside the
+ * cache's lock, on the cache's executor, so a slow listener does not slow down the operation that
+ * caused the removal.
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+    /**
+     * Called after an entry was removed. Notifications may be delivered concurrently and in a
+     * different order than the removals happened.
+     * @param key the key of the removed entry
+     * @param value the value that was removed or replaced
+     * @param cause why the entry was removed
+     */
+    void onRemoval(K key, V value, RemovalCause cause);
+}
@@ -0,0 +1,252 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A cache that splits its key space by hash into independently locked {@link LRUCache} segments,
+ * so that writers to different segments never contend with each other. Recency and eviction are
+ * tracked per segment, which makes the eviction order approximately rather than strictly LRU
+ * across the whole cache.
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ */
+public class SegmentedLRUCache<K, V> {
+    private final LRUCache<K, V>[] segments;
+    private final int segmentMask;
+    
+    /**
+     * Creates a new segmented cache with one segment per available processor.
+     * @param maxSize the maximum number of entries the cache can hold
+     * @throws IllegalArgumentException if maxSize is less than 1
+     */
+    public SegmentedLRUCache(int maxSize) {
+        this(maxSize, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Creates a new segmented cache with the given number of segments.
+     * @param maxSize the maximum number of entries the cache can hold
+     * @param segmentCount the number of segments, rounded up to a power of two
+     * @throws IllegalArgumentException if maxSize or segmentCount is less than 1
+     */
+    public SegmentedLRUCache(int maxSize, int segmentCount) {
+        this(maxSize, segmentCount, false);
+    }
+    
+    /**
+     * Creates a new segmented cache with the given number of segments and read mode.
+     * @param maxSize the maximum number of entries the cache can hold
+     * @param segmentCount the number of segments, rounded up to a power of two
+     * @param bufferedReads whether each segment buffers its reads, see {@link LRUCache#LRUCache(int, boolean)}
+     * @throws IllegalArgumentException if maxSize or segmentCount is less than 1
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SegmentedLRUCache(int maxSize, int segmentCount, boolean bufferedReads) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        if (segmentCount < 1) {
+            throw new IllegalArgumentException("Segment count must be greater than 0");
+        }
+        
+        // Every segment needs room for at least one entry
+        int count = 1;
+        while (count < segmentCount && count < (1 << 16) && count * 2 <= maxSize) {
+            count <<= 1;
+        }
+        
+        this.segments = new LRUCache[count];
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            int capacity = maxSize / count + (i < maxSize % count ? 1 : 0);
+            segments[i] = new LRUCache<>(capacity, bufferedReads);
+        }
+    }
+    
+    /**
+     * Adds a key-value pair to the segment owning the key, evicting that segment's least
+     * recently used entry if it is full.
+     * @param key the key to add
+     * @param value the value to add
+     * @throws NullPointerException if key or value is null
+     */
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Key and value cannot be null");
+        }
+        segmentFor(key).put(key, value);
+    }
+    
+    /**
+     * Retrieves a value from the cache and updates its recency within its segment.
+     * @param key the key to look up
+     * @return an Optional containing the value if found, or empty if not found
+     * @throws NullPointerException if key is null
+     */
+    public Optional<V> get(K key) {
+        if (key == null) {
+            throw new NullPointerException("Key cannot be null");
+        }
+        return segmentFor(key).get(key);
+    }
+    
+    /**
+     * Removes an entry from the cache.
+     * @param key the key to remove
+     * @return true if the entry was removed, false if it didn't exist
+     * @throws NullPointerException if key is null
+     */
+    public boolean remove(K key) {
+        if (key == null) {
+            throw new NullPointerException("Key cannot be null");
+        }
+        return segmentFor(key).remove(key);
+    }
+    
+    /**
+     * Looks up many keys at once, taking each involved segment's lock once for the whole batch.
+     * @param keys the keys to look up
+     * @return the keys that were present mapped to their values, in the order they were requested
+     * @throws NullPointerException if keys is null or contains null
+     */
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        if (keys == null) {
+            throw new NullPointerException("Keys cannot be null");
+        }
+        
+        List<K> ordered = new ArrayList<>();
+        keys.forEach(ordered::add);
+        List<List<K>> batches = groupBySegment(ordered);
+        
+        Map<K, V> found = new HashMap<>();
+        for (int i = 0; i < segments.length; i++) {
+            if (batches.get(i) != null) {
+                found.putAll(segments[i].getAll(batches.get(i)));
+            }
+        }
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : ordered) {
+            V value = found.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Adds many entries at once, taking each involved segment's lock once for the whole batch.
+     * @param entries the entries to add
+     * @throws NullPointerException if entries is null or contains a null key or value
+     */
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        if (entries == null) {
+            throw new NullPointerException("Entries cannot be null");
+        }
+        
+        List<Map<K, V>> batches = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            batches.add(null);
+        }
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new NullPointerException("Key and value cannot be null");
+            }
+            int index = segmentIndex(entry.getKey());
+            if (batches.get(index) == null) {
+                batches.set(index, new LinkedHashMap<>());
+            }
+            batches.get(index).put(entry.getKey(), entry.getValue());
+        }
+        for (int i = 0; i < segments.length; i++) {
+            if (batches.get(i) != null) {
+                segments[i].putAll(batches.get(i));
+            }
+        }
+    }
+    
+    /**
+     * Removes many entries at once, taking each involved segment's lock once for the whole batch.
+     * @param keys the keys to remove
+     * @return the number of entries that were removed
+     * @throws NullPointerException if keys is null or contains null
+     */
+    public int invalidateAll(Iterable<? extends K> keys) {
+        if (keys == null) {
+            throw new NullPointerException("Keys cannot be null");
+        }
+        
+        List<List<K>> batches = groupBySegment(keys);
+        int removed = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (batches.get(i) != null) {
+                removed += segments[i].invalidateAll(batches.get(i));
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * Returns the number of entries across all segments. The segments are counted one at a
+     * time without a global lock, so the result is an estimate while writers are active.
+     * @return the number of entries in the cache
+     */
+    public int size() {
+        int size = 0;
+        for (LRUCache<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+    
+    /**
+     * Removes all entries from the cache. Segments are cleared one after another, so entries
+     * written concurrently to an already cleared segment are kept.
+     */
+    public void clear() {
+        for (LRUCache<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+    
+    /**
+     * Returns the number of segments the key space is split into.
+     * @return the segment count
+     */
+    public int segmentCount() {
+        return segments.length;
+    }
+    
+    private List<List<K>> groupBySegment(Iterable<? extends K> keys) {
+        // Only segments that receive keys get a list; the others stay null
+        List<List<K>> batches = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            batches.add(null);
+        }
+        for (K key : keys) {
+            if (key == null) {
+                throw new NullPointerException("Keys cannot contain null");
+            }
+            int index = segmentIndex(key);
+            if (batches.get(index) == null) {
+                batches.set(index, new ArrayList<>());
+            }
+            batches.get(index).add(key);
+        }
+        return batches;
+    }
+    
+    private LRUCache<K, V> segmentFor(K key) {
+        return segments[segmentIndex(key)];
+    }
+    
+    private int segmentIndex(K key) {
+        // Use the high bits of a remixed hash so segment choice does not correlate
+        // with the bucket index used by each segment's own hash table
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h >>> 16) & segmentMask;
+    }
+}
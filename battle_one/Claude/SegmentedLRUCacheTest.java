@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedLRUCacheTest {
+
+    @Test
+    @DisplayName("Should never hold more entries than the configured maximum")
+    void put_ManyKeys_StaysWithinMaxSize() {
+        SegmentedLRUCache<Integer, Integer> cache = new SegmentedLRUCache<>(100, 8);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertEquals(8, cache.segmentCount());
+        assertTrue(cache.size() <= 100);
+        assertEquals(9_999, cache.get(9_999).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should round the segment count to a power of two no larger than the capacity")
+    void constructor_SegmentCount_RoundedAndBounded() {
+        assertEquals(8, new SegmentedLRUCache<String, String>(1_000, 5).segmentCount());
+        assertEquals(2, new SegmentedLRUCache<String, String>(3, 64).segmentCount());
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedLRUCache<String, String>(10, 0));
+    }
+
+    @Test
+    @DisplayName("Should remove and clear entries across segments")
+    void removeAndClear_PopulatedCache_EmptiesSegments() {
+        SegmentedLRUCache<String, Integer> cache = new SegmentedLRUCache<>(64, 4);
+        for (int i = 0; i < 32; i++) {
+            cache.put("key" + i, i);
+        }
+
+        assertTrue(cache.remove("key7"));
+        assertFalse(cache.get("key7").isPresent());
+        assertEquals(31, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should stay consistent under concurrent writers")
+    void put_ConcurrentWriters_StaysBounded() throws Exception {
+        SegmentedLRUCache<Integer, Integer> cache = new SegmentedLRUCache<>(1_000, 16, true);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t * 100_000;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        cache.put(offset + i, i);
+                        cache.get(offset + i / 2);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(cache.size() <= 1_000);
+    }
+
+    @Test
+    @DisplayName("Should spread bulk operations over the segments owning each key")
+    void bulkOperations_KeysAcrossSegments_ApplyToEachKey() {
+        SegmentedLRUCache<Integer, Integer> cache = new SegmentedLRUCache<>(1_000, 8);
+        Map<Integer, Integer> entries = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            entries.put(i, i * 10);
+        }
+        cache.putAll(entries);
+
+        List<Integer> keys = List.of(150, 3, 999, 42);
+        assertEquals(List.of(150, 3, 42), new ArrayList<>(cache.getAll(keys).keySet()));
+        assertEquals(1_500, cache.getAll(keys).get(150));
+        assertEquals(3, cache.invalidateAll(keys));
+        assertEquals(197, cache.size());
+    }
+}
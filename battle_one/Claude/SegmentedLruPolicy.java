@@ -0,0 +1,102 @@
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Segmented LRU: new keys start in a probation segment and move to a protected segment on their
+ * second use. Victims are taken from probation first, so keys seen only once, such as those of a
+ * scan, are evicted before anything that has proven popular. When the protected segment is full
+ * its least recently used key is demoted back to probation rather than evicted.
+ * @param <K> the type of keys tracked by the policy
+ */
+public final class SegmentedLruPolicy<K> implements EvictionPolicy<K> {
+    private static final double DEFAULT_PROTECTED_SHARE = 0.8;
+    
+    private final int protectedCapacity;
+    private final LinkedHashSet<K> probation;
+    private final LinkedHashSet<K> protectedSegment;
+    
+    /**
+     * Creates a segmented LRU policy that reserves 80% of the capacity for protected keys.
+     * @param maxSize the number of entries the cache holds
+     * @throws IllegalArgumentException if maxSize is less than 1
+     */
+    public SegmentedLruPolicy(int maxSize) {
+        this(maxSize, DEFAULT_PROTECTED_SHARE);
+    }
+    
+    /**
+     * Creates a segmented LRU policy with the given share of protected keys.
+     * @param maxSize the number of entries the cache holds
+     * @param protectedShare the fraction of maxSize kept in the protected segment, below 1
+     * @throws IllegalArgumentException if maxSize is less than 1 or protectedShare is outside [0, 1)
+     */
+    public SegmentedLruPolicy(int maxSize, double protectedShare) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        if (!(protectedShare >= 0.0 && protectedShare < 1.0)) {
+            throw new IllegalArgumentException("Protected share must be at least 0 and less than 1");
+        }
+        
+        this.protectedCapacity = (int) (maxSize * protectedShare);
+        this.probation = new LinkedHashSet<>();
+        this.protectedSegment = new LinkedHashSet<>();
+    }
+    
+    @Override
+    public void onInsert(K key) {
+        probation.add(key);
+    }
+    
+    @Override
+    public void onAccess(K key) {
+        if (probation.remove(key)) {
+            protectedSegment.add(key);
+            if (protectedSegment.size() > protectedCapacity) {
+                probation.add(pollFirst(protectedSegment));
+            }
+        } else if (protectedSegment.remove(key)) {
+            protectedSegment.add(key);
+        }
+    }
+    
+    @Override
+    public void onRemove(K key) {
+        if (!probation.remove(key)) {
+            protectedSegment.remove(key);
+        }
+    }
+    
+    @Override
+    public K evict() {
+        K victim = pollFirst(probation);
+        return victim != null ? victim : pollFirst(protectedSegment);
+    }
+    
+    /**
+     * Returns the key {@link #evict()} would choose, without removing it.
+     */
+    K peekVictim() {
+        if (!probation.isEmpty()) {
+            return probation.iterator().next();
+        }
+        return protectedSegment.isEmpty() ? null : protectedSegment.iterator().next();
+    }
+    
+    int size() {
+        return probation.size() + protectedSegment.size();
+    }
+    
+    /**
+     * Removes and returns the least recently used key of a segment, or null if it is empty.
+     */
+    static <K> K pollFirst(LinkedHashSet<K> segment) {
+        Iterator<K> iterator = segment.iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        K first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+}
@@ -0,0 +1,97 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes values to and from bytes so that they can be stored outside the Java heap.
+ * Implementations must be thread-safe.
+ * @param <T> the type of the serialized values
+ */
+public interface Serializer<T> {
+    /**
+     * Returns the exact number of bytes {@link #write} produces for the value.
+     * @param value the value to measure
+     * @return the serialized size in bytes
+     */
+    int serializedSize(T value);
+
+    /**
+     * Writes the value starting at the buffer's position. The buffer has exactly
+     * {@link #serializedSize} bytes remaining.
+     * @param value the value to write
+     * @param target the buffer to write into
+     */
+    void write(T value, ByteBuffer target);
+
+    /**
+     * Reads a value back from a buffer holding exactly the bytes written for it.
+     * @param source the buffer to read from
+     * @return the decoded value
+     */
+    T read(ByteBuffer source);
+
+    /**
+     * Returns a serializer that stores byte arrays as they are.
+     * @return the byte array serializer
+     */
+    static Serializer<byte[]> byteArray() {
+        return new Serializer<>() {
+            @Override
+            public int serializedSize(byte[] value) {
+                return value.length;
+            }
+
+            @Override
+            public void write(byte[] value, ByteBuffer target) {
+                target.put(value);
+            }
+
+            @Override
+            public byte[] read(ByteBuffer source) {
+                byte[] value = new byte[source.remaining()];
+                source.get(value);
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Returns a serializer that stores strings as UTF-8.
+     * @return the string serializer
+     */
+    static Serializer<String> utf8() {
+        return new Serializer<>() {
+            @Override
+            public int serializedSize(String value) {
+                int size = 0;
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c < 0x80) {
+                        size += 1;
+                    } else if (c < 0x800) {
+                        size += 2;
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        size += 4;
+                        i++;
+                    } else if (Character.isSurrogate(c)) {
+                        // getBytes replaces an unpaired surrogate with a single '?'
+                        size += 1;
+                    } else {
+                        size += 3;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public void write(String value, ByteBuffer target) {
+                target.put(value.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public String read(ByteBuffer source) {
+                return StandardCharsets.UTF_8.decode(source).toString();
+            }
+        };
+    }
+}
@@ -0,0 +1,286 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A shopping cart that keeps its subtotal as a running sum in cents. Adding or removing a line
+ * adjusts the sum by that line's amount, so {@link #getTotal} is constant time however many
+ * lines the cart holds, and money is counted exactly instead of accumulating rounding errors in
+ * doubles. A discount is kept in basis points and applied to the subtotal, rounding half up to
+ * the cent.
+ *
+ * Prices come from a {@link PriceCatalog} and are looked up when a total is asked for, not as
+ * items are added: the lines without a price are then priced with a single batch call, so a
+ * large cart costs one catalog round trip, and later totals are constant time again. If the
+ * catalog's version has moved on since the cart was priced, every line is priced afresh.
+ *
+ * Priced lines are parallel arrays of item numbers, quantities and unit prices found through an
+ * {@link IntIntHashMap} from item number to line, so a cart of tens of thousands of lines holds no
+ * per-line objects. Item IDs are only interned through {@link ItemIds} once the catalog has priced
+ * them: until then a new line waits under its item ID, so IDs the catalog does not know never
+ * enter the process-wide table. Not thread-safe.
+ */
+public class ShoppingCart {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int BASIS_POINTS = 10_000;
+    private static final long UNPRICED = -1;
+    private static final Map<String, Long> DEFAULT_PRICES = Map.of("ITEM001", 1_000L, "ITEM002", 2_000L);
+    
+    private final PriceCatalog catalog;
+    private int[] items;
+    private int[] quantities;
+    private long[] unitPrices;
+    // Maps item numbers to line index + 1, as an absent key reads as 0
+    private final IntIntHashMap lineOf = new IntIntHashMap();
+    private int lines;
+    // Lines never priced yet, by item ID, with their quantities
+    private final Map<String, Integer> pending = new HashMap<>();
+    // The sum over priced lines, and how many lines still need a price
+    private long subtotalCents;
+    private int unpricedLines;
+    private long pricedVersion;
+    private int discountBasisPoints;
+    
+    /**
+     * Creates an empty cart priced from the built-in demo price list.
+     */
+    public ShoppingCart() {
+        this(DEFAULT_PRICES);
+    }
+    
+    /**
+     * Creates an empty cart priced from a fixed price list.
+     * @param pricesInCents the unit price of every item that can be added, in cents
+     * @throws NullPointerException if the price list, an item ID or a price is null
+     * @throws IllegalArgumentException if a price is negative
+     */
+    public ShoppingCart(Map<String, Long> pricesInCents) {
+        this(new InMemoryPriceCatalog(pricesInCents));
+    }
+    
+    /**
+     * Creates an empty cart priced from a catalog.
+     * @param catalog the catalog to price lines from
+     * @throws NullPointerException if catalog is null
+     */
+    public ShoppingCart(PriceCatalog catalog) {
+        if (catalog == null) {
+            throw new NullPointerException("Price catalog cannot be null");
+        }
+        this.catalog = catalog;
+        this.pricedVersion = catalog.version();
+        this.items = new int[INITIAL_CAPACITY];
+        this.quantities = new int[INITIAL_CAPACITY];
+        this.unitPrices = new long[INITIAL_CAPACITY];
+    }
+    
+    /**
+     * Adds a quantity of an item, adding to the line if the item is already in the cart.
+     * @param itemId the item ID
+     * @param quantity the quantity to add
+     * @throws NullPointerException if itemId is null
+     * @throws IllegalArgumentException if quantity is not positive
+     * @throws ArithmeticException if the line quantity or the subtotal would overflow
+     */
+    public void addItem(String itemId, int quantity) {
+        if (itemId == null) {
+            throw new NullPointerException("Item ID cannot be null");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        
+        int line = find(itemId);
+        if (line < 0) {
+            pending.merge(itemId, quantity, Math::addExact);
+            return;
+        }
+        int total = Math.addExact(quantities[line], quantity);
+        if (unitPrices[line] != UNPRICED) {
+            subtotalCents = Math.addExact(subtotalCents, Math.multiplyExact(unitPrices[line], (long) quantity));
+        }
+        quantities[line] = total;
+    }
+    
+    /**
+     * Removes an item's line from the cart.
+     * @param itemId the item ID
+     * @throws NullPointerException if itemId is null
+     * @throws IllegalArgumentException if the item is not in the cart
+     */
+    public void removeItem(String itemId) {
+        if (itemId == null) {
+            throw new NullPointerException("Item ID cannot be null");
+        }
+        if (pending.remove(itemId) != null) {
+            return;
+        }
+        int line = find(itemId);
+        if (line < 0) {
+            throw new IllegalArgumentException("Item not in cart: " + itemId);
+        }
+        if (unitPrices[line] == UNPRICED) {
+            unpricedLines--;
+        } else {
+            subtotalCents -= unitPrices[line] * quantities[line];
+        }
+        delete(line);
+    }
+    
+    /**
+     * Returns the quantity of an item in the cart.
+     * @param itemId the item ID
+     * @return the quantity, or 0 if the item is not in the cart
+     * @throws NullPointerException if itemId is null
+     */
+    public int getItemQuantity(String itemId) {
+        if (itemId == null) {
+            throw new NullPointerException("Item ID cannot be null");
+        }
+        Integer waiting = pending.get(itemId);
+        if (waiting != null) {
+            return waiting;
+        }
+        int line = find(itemId);
+        return line < 0 ? 0 : quantities[line];
+    }
+    
+    /**
+     * Returns the number of lines in the cart.
+     * @return the line count
+     */
+    public int getLineCount() {
+        return lines + pending.size();
+    }
+    
+    /**
+     * Sets the discount on the subtotal, replacing any earlier one. The percentage is kept to
+     * hundredths of a percent.
+     * @param percentage the discount, from 0 to 100
+     * @throws IllegalArgumentException if the percentage is outside 0 to 100
+     */
+    public void applyDiscount(double percentage) {
+        if (!(percentage >= 0 && percentage <= 100)) {
+            throw new IllegalArgumentException("Discount percentage must be between 0 and 100");
+        }
+        discountBasisPoints = (int) Math.round(percentage * 100);
+    }
+    
+    /**
+     * Returns the subtotal less the discount, in cents, first pricing any lines that need it.
+     * @return the total in cents
+     * @throws IllegalStateException if the catalog has no price for an item in the cart
+     * @throws ArithmeticException if the subtotal would overflow
+     */
+    public long getTotalCents() {
+        price();
+        if (discountBasisPoints == 0) {
+            return subtotalCents;
+        }
+        // The subtotal times 10,000 would overflow a long above about 9 trillion dollars
+        long whole = subtotalCents / BASIS_POINTS;
+        long part = subtotalCents % BASIS_POINTS;
+        long discount = whole * discountBasisPoints + (part * discountBasisPoints + BASIS_POINTS / 2) / BASIS_POINTS;
+        return subtotalCents - discount;
+    }
+    
+    /**
+     * Returns the subtotal less the discount, first pricing any lines that need it.
+     * @return the total in currency units
+     * @throws IllegalStateException if the catalog has no price for an item in the cart
+     * @throws ArithmeticException if the subtotal would overflow
+     */
+    public double getTotal() {
+        return getTotalCents() / 100.0;
+    }
+    
+    // Prices every unpriced and pending line with one catalog call, after unpricing them all if
+    // the catalog has a new version
+    private void price() {
+        long version = catalog.version();
+        if (version != pricedVersion) {
+            Arrays.fill(unitPrices, 0, lines, UNPRICED);
+            subtotalCents = 0;
+            unpricedLines = lines;
+            pricedVersion = version;
+        }
+        if (unpricedLines == 0 && pending.isEmpty()) {
+            return;
+        }
+        
+        Set<String> itemIds = new HashSet<>(pending.keySet());
+        for (int line = 0; line < lines; line++) {
+            if (unitPrices[line] == UNPRICED) {
+                itemIds.add(ItemIds.idOf(items[line]));
+            }
+        }
+        Map<String, Long> prices = catalog.getPrices(itemIds);
+        long subtotal = subtotalCents;
+        for (int line = 0; line < lines; line++) {
+            if (unitPrices[line] == UNPRICED) {
+                long price = priceOf(prices, ItemIds.idOf(items[line]));
+                subtotal = Math.addExact(subtotal, Math.multiplyExact(price, (long) quantities[line]));
+            }
+        }
+        for (Map.Entry<String, Integer> line : pending.entrySet()) {
+            long price = priceOf(prices, line.getKey());
+            subtotal = Math.addExact(subtotal, Math.multiplyExact(price, (long) line.getValue()));
+        }
+        // Only commit once every line has a price, so a failure leaves the cart as it was
+        for (int line = 0; line < lines; line++) {
+            if (unitPrices[line] == UNPRICED) {
+                unitPrices[line] = prices.get(ItemIds.idOf(items[line]));
+            }
+        }
+        for (Map.Entry<String, Integer> line : pending.entrySet()) {
+            insert(ItemIds.intern(line.getKey()), line.getValue(), prices.get(line.getKey()));
+        }
+        pending.clear();
+        subtotalCents = subtotal;
+        unpricedLines = 0;
+    }
+    
+    private static long priceOf(Map<String, Long> prices, String itemId) {
+        Long price = prices.get(itemId);
+        if (price == null || price < 0) {
+            throw new IllegalStateException("No price for item: " + itemId);
+        }
+        return price;
+    }
+    
+    private int find(String itemId) {
+        int item = ItemIds.numberOf(itemId);
+        return item < 0 ? -1 : find(item);
+    }
+    
+    private int find(int item) {
+        return lineOf.get(item) - 1;
+    }
+    
+    private void insert(int item, int quantity, long unitPrice) {
+        if (lines == items.length) {
+            int capacity = lines * 2;
+            items = Arrays.copyOf(items, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            unitPrices = Arrays.copyOf(unitPrices, capacity);
+        }
+        items[lines] = item;
+        quantities[lines] = quantity;
+        unitPrices[lines] = unitPrice;
+        lineOf.put(item, ++lines);
+    }
+    
+    // Moves the last line into the removed one's place, keeping the lines dense
+    private void delete(int line) {
+        lineOf.remove(items[line]);
+        int last = --lines;
+        if (line != last) {
+            items[line] = items[last];
+            quantities[line] = quantities[last];
+            unitPrices[line] = unitPrices[last];
+            lineOf.put(items[line], line + 1);
+        }
+    }
+}
@@ -3,6 +3,9 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.HashMap;
+import java.util.Map;
+
 class ShoppingCartTest {
     private ShoppingCart cart;
     private static final String ITEM_ID_1 = "ITEM001";
@@ -139,4 +142,110 @@ class ShoppingCartTest {
         cart.applyDiscount(10.0);     // *0.9 = 18.0
         assertEquals(18.0, cart.getTotal(), DELTA);
     }
+
+    @Test
+    @DisplayName("Should round the discount half up to the cent")
+    void getTotalCents_Discount_RoundsHalfUpToTheCent() {
+        ShoppingCart priced = new ShoppingCart(Map.of(ITEM_ID_1, 150L, ITEM_ID_2, 1_999L));
+        priced.addItem(ITEM_ID_1, 1);
+        priced.applyDiscount(1.0);
+        // 1% of 150 cents is 1.5 cents
+        assertEquals(148, priced.getTotalCents());
+
+        priced.addItem(ITEM_ID_2, 1);
+        priced.applyDiscount(33.33);
+        // 33.33% of 2,149 cents is 716.26 cents
+        assertEquals(1_433, priced.getTotalCents());
+    }
+
+    @Test
+    @DisplayName("Should keep the other lines intact when lines are removed from the middle of the cart")
+    void removeItem_ManyLines_KeepsOtherLinesIntact() {
+        Map<String, Long> prices = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            prices.put("ITEM" + i, 100L);
+        }
+        ShoppingCart large = new ShoppingCart(prices);
+        for (int i = 0; i < 1_000; i++) {
+            large.addItem("ITEM" + i, i + 1);
+        }
+
+        // Each removal moves the last line into the removed one's place
+        for (int i = 0; i < 500; i++) {
+            large.removeItem("ITEM" + i);
+        }
+
+        assertEquals(500, large.getLineCount());
+        assertEquals(0, large.getItemQuantity("ITEM0"));
+        assertEquals(501, large.getItemQuantity("ITEM500"));
+        assertEquals(1_000, large.getItemQuantity("ITEM999"));
+        // 100 cents times the quantities 501 to 1,000
+        assertEquals(100L * (501 + 1_000) * 500 / 2, large.getTotalCents());
+    }
+
+    @Test
+    @DisplayName("Should fail to total a cart holding an item missing from the price list")
+    void getTotal_UnpricedItem_ThrowsException() {
+        cart.addItem("UNKNOWN", 1);
+        cart.addItem(ITEM_ID_1, 1);
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> cart.getTotal());
+        assertEquals("No price for item: UNKNOWN", exception.getMessage());
+        cart.removeItem("UNKNOWN");
+        assertEquals(ITEM_PRICE_1, cart.getTotal(), DELTA);
+    }
+
+    @Test
+    @DisplayName("Should not intern an item the catalog has not priced")
+    void addItem_UnknownItem_IsNotInterned() {
+        cart.addItem("CART-ONLY-ITEM", 2);
+
+        assertThrows(IllegalStateException.class, () -> cart.getTotal());
+        assertEquals(-1, ItemIds.numberOf("CART-ONLY-ITEM"));
+        assertEquals(2, cart.getItemQuantity("CART-ONLY-ITEM"));
+        assertEquals(1, cart.getLineCount());
+        cart.removeItem("CART-ONLY-ITEM");
+        assertEquals(0, cart.getLineCount());
+    }
+
+    @Test
+    @DisplayName("Should price all new lines of a large cart with one catalog call")
+    void getTotal_LargeCart_PricesInOneBatch() {
+        Map<String, Long> prices = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            prices.put("SKU" + i, 100L + i);
+        }
+        InMemoryPriceCatalog catalog = new InMemoryPriceCatalog(prices);
+        ShoppingCart large = new ShoppingCart(catalog);
+        long expected = 0;
+        for (int i = 0; i < 20_000; i++) {
+            large.addItem("SKU" + i, 1);
+            expected += 100L + i;
+        }
+
+        assertEquals(expected, large.getTotalCents());
+        assertEquals(1, catalog.getBatchCount());
+        large.addItem("SKU0", 1);
+        assertEquals(expected + 100, large.getTotalCents());
+        assertEquals(1, catalog.getBatchCount());
+        large.removeItem("SKU1");
+        large.addItem("SKU1", 2);
+        assertEquals(expected + 100 + 101, large.getTotalCents());
+        assertEquals(2, catalog.getBatchCount());
+    }
+
+    @Test
+    @DisplayName("Should reprice every line when the catalog version changes")
+    void getTotal_CatalogVersionChanged_Reprices() {
+        InMemoryPriceCatalog catalog = new InMemoryPriceCatalog(Map.of(ITEM_ID_1, 1_000L, ITEM_ID_2, 2_000L));
+        ShoppingCart priced = new ShoppingCart(catalog);
+        priced.addItem(ITEM_ID_1, 2);
+        priced.addItem(ITEM_ID_2, 1);
+        assertEquals(4_000, priced.getTotalCents());
+
+        catalog.setPrice(ITEM_ID_2, 2_500L);
+
+        assertEquals(4_500, priced.getTotalCents());
+        assertEquals(2, catalog.getBatchCount());
+    }
 }
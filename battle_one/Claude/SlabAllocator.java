@@ -0,0 +1,317 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Stores serialized values in direct memory for off-heap caches. Memory is reserved in fixed-size
+ * slabs, each carved into chunks of one power-of-two size class. Freed chunks are threaded onto a
+ * free list kept inside the slab itself and reused by later allocations of the same class, and a
+ * slab whose chunks have all been freed goes back to a shared pool from which any size class can
+ * take it.
+ *
+ * Every chunk starts with a header holding a generation stamp and the payload length. A handle
+ * carries the generation it was issued with, so readers can copy a value without locking and then
+ * detect whether the chunk was freed or reused underneath them.
+ */
+final class SlabAllocator {
+    static final int MIN_CHUNK_SIZE = 64;
+    static final int HEADER_SIZE = 8;
+    static final int MAX_SLAB_SIZE = 1 << 22;
+    
+    // Handle layout, from the most significant bit: slab (20), chunk (16), size class (5), generation (23)
+    private static final int MAX_SLABS = 1 << 20;
+    private static final int GENERATION_MASK = (1 << 23) - 1;
+    
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    
+    private final int slabSize;
+    private final ArrayDeque<Slab>[] partialSlabs;
+    private final ArrayDeque<Slab> emptySlabs;
+    private volatile Slab[] slabs;
+    private int slabCount;
+    private int generation;
+    private long payloadBytes;
+    
+    /**
+     * Creates an allocator that reserves direct memory in slabs of the given size.
+     * @param slabSize the slab size in bytes, a power of two between 64 bytes and 4 MiB
+     * @throws IllegalArgumentException if the slab size is out of range or not a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SlabAllocator(int slabSize) {
+        if (slabSize < MIN_CHUNK_SIZE || slabSize > MAX_SLAB_SIZE || Integer.bitCount(slabSize) != 1) {
+            throw new IllegalArgumentException("Slab size must be a power of two between "
+                + MIN_CHUNK_SIZE + " and " + MAX_SLAB_SIZE + " bytes");
+        }
+        
+        this.slabSize = slabSize;
+        int sizeClasses = Integer.numberOfTrailingZeros(slabSize / MIN_CHUNK_SIZE) + 1;
+        this.partialSlabs = new ArrayDeque[sizeClasses];
+        for (int i = 0; i < sizeClasses; i++) {
+            partialSlabs[i] = new ArrayDeque<>();
+        }
+        this.emptySlabs = new ArrayDeque<>();
+        this.slabs = new Slab[16];
+    }
+    
+    /**
+     * Serializes a value into a newly allocated chunk.
+     * @param value the value to store
+     * @param serializer encodes the value
+     * @return the handle of the chunk holding the value
+     * @throws IllegalArgumentException if the serialized value does not fit into a single slab
+     */
+    <T> long store(T value, Serializer<? super T> serializer) {
+        int length = serializer.serializedSize(value);
+        if (length < 0 || length > slabSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Serialized value of " + length
+                + " bytes does not fit into a " + slabSize + " byte slab");
+        }
+        
+        long handle = reserve(length);
+        Slab slab = slabs[slabIndex(handle)];
+        int offset = offset(handle);
+        ByteBuffer target = slab.buffer.duplicate();
+        target.limit(offset + HEADER_SIZE + length).position(offset + HEADER_SIZE);
+        try {
+            serializer.write(value, target);
+        } catch (RuntimeException | Error e) {
+            release(handle, length);
+            throw e;
+        }
+        
+        slab.buffer.putInt(offset + 4, length);
+        // Publishing the generation makes the chunk readable through this handle
+        INT.setRelease(slab.buffer, offset, generation(handle));
+        return handle;
+    }
+    
+    /**
+     * Deserializes the value held by a chunk without taking a lock.
+     * @param handle the handle returned by {@link #store}
+     * @param serializer decodes the value
+     * @return the value, or null if the chunk was freed or reused since the handle was issued
+     */
+    <T> T load(long handle, Serializer<T> serializer) {
+        Slab[] current = slabs;
+        int index = slabIndex(handle);
+        Slab slab = index < current.length ? current[index] : null;
+        int sizeClass = sizeClass(handle);
+        if (slab == null || slab.sizeClass != sizeClass) {
+            return null;
+        }
+        
+        int offset = offset(handle);
+        int generation = generation(handle);
+        if ((int) INT.getAcquire(slab.buffer, offset) != generation) {
+            return null;
+        }
+        int length = slab.buffer.getInt(offset + 4);
+        if (length < 0 || length > chunkSizeOf(sizeClass) - HEADER_SIZE) {
+            return null;
+        }
+        
+        ByteBuffer source = slab.buffer.duplicate();
+        source.limit(offset + HEADER_SIZE + length).position(offset + HEADER_SIZE);
+        T value;
+        try {
+            value = serializer.read(source.asReadOnlyBuffer());
+        } catch (RuntimeException e) {
+            if (isLive(slab, offset, sizeClass, generation)) {
+                throw e;
+            }
+            return null;
+        }
+        return isLive(slab, offset, sizeClass, generation) ? value : null;
+    }
+    
+    /**
+     * Frees the chunk behind a handle so that it can be reused. Each handle must be freed only once.
+     * @param handle the handle returned by {@link #store}
+     */
+    void free(long handle) {
+        Slab slab = slabs[slabIndex(handle)];
+        release(handle, slab.buffer.getInt(offset(handle) + 4));
+    }
+    
+    /**
+     * Returns the size of the chunk behind a handle, which is the memory the value occupies.
+     * @param handle the handle returned by {@link #store}
+     * @return the chunk size in bytes
+     */
+    static int chunkSize(long handle) {
+        return chunkSizeOf(sizeClass(handle));
+    }
+    
+    /**
+     * Returns the direct memory reserved by all slabs, including slabs waiting in the empty pool.
+     * @return the reserved bytes
+     */
+    synchronized long reservedBytes() {
+        return (long) slabCount * slabSize;
+    }
+    
+    /**
+     * Returns the bytes taken by the serialized values themselves, excluding headers and padding.
+     * @return the payload bytes
+     */
+    synchronized long payloadBytes() {
+        return payloadBytes;
+    }
+    
+    /**
+     * Returns the share of reserved memory that does not hold payload: chunk headers, rounding up
+     * to a size class, free chunks in partially used slabs and slabs sitting in the empty pool.
+     * @return a value between 0 (no waste) and 1 (nothing stored)
+     */
+    synchronized double fragmentation() {
+        long reserved = (long) slabCount * slabSize;
+        return reserved == 0 ? 0.0 : 1.0 - (double) payloadBytes / reserved;
+    }
+    
+    private synchronized long reserve(int length) {
+        int sizeClass = sizeClassFor(HEADER_SIZE + length);
+        ArrayDeque<Slab> partial = partialSlabs[sizeClass];
+        Slab slab = partial.peekFirst();
+        if (slab == null) {
+            slab = takeEmptySlab();
+            slab.assign(sizeClass, chunkSizeOf(sizeClass));
+            partial.addFirst(slab);
+            slab.partial = true;
+        }
+        
+        int chunk = slab.take();
+        if (!slab.hasRoom()) {
+            partial.pollFirst();
+            slab.partial = false;
+        }
+        payloadBytes += length;
+        
+        generation = generation == GENERATION_MASK ? 1 : generation + 1;
+        return ((long) slab.index << 44) | ((long) chunk << 28) | ((long) sizeClass << 23) | generation;
+    }
+    
+    private synchronized void release(long handle, int length) {
+        Slab slab = slabs[slabIndex(handle)];
+        int offset = offset(handle);
+        INT.setVolatile(slab.buffer, offset, 0);
+        slab.release(chunkIndex(handle), offset);
+        payloadBytes -= length;
+        
+        ArrayDeque<Slab> partial = partialSlabs[slab.sizeClass];
+        if (slab.live == 0) {
+            if (slab.partial) {
+                partial.remove(slab);
+                slab.partial = false;
+            }
+            emptySlabs.push(slab);
+        } else if (!slab.partial) {
+            partial.addLast(slab);
+            slab.partial = true;
+        }
+    }
+    
+    private Slab takeEmptySlab() {
+        Slab slab = emptySlabs.poll();
+        if (slab != null) {
+            return slab;
+        }
+        if (slabCount == MAX_SLABS) {
+            throw new IllegalStateException("Slab allocator is limited to " + MAX_SLABS + " slabs");
+        }
+        
+        slab = new Slab(slabCount, ByteBuffer.allocateDirect(slabSize).order(ByteOrder.nativeOrder()));
+        Slab[] current = slabs;
+        if (slabCount == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[slabCount++] = slab;
+        slabs = current;
+        return slab;
+    }
+    
+    private static boolean isLive(Slab slab, int offset, int sizeClass, int generation) {
+        // Order the reads of the value before the second look at the header
+        VarHandle.acquireFence();
+        return slab.sizeClass == sizeClass && (int) INT.getVolatile(slab.buffer, offset) == generation;
+    }
+    
+    private static int sizeClassFor(int size) {
+        int rounded = Math.max(MIN_CHUNK_SIZE, Integer.highestOneBit(size - 1) << 1);
+        return Integer.numberOfTrailingZeros(rounded / MIN_CHUNK_SIZE);
+    }
+    
+    private static int chunkSizeOf(int sizeClass) {
+        return MIN_CHUNK_SIZE << sizeClass;
+    }
+    
+    private static int slabIndex(long handle) {
+        return (int) (handle >>> 44);
+    }
+    
+    private static int offset(long handle) {
+        return chunkIndex(handle) * chunkSizeOf(sizeClass(handle));
+    }
+    
+    private static int chunkIndex(long handle) {
+        return (int) (handle >>> 28) & 0xFFFF;
+    }
+    
+    private static int sizeClass(long handle) {
+        return (int) (handle >>> 23) & 0x1F;
+    }
+    
+    private static int generation(long handle) {
+        return (int) handle & GENERATION_MASK;
+    }
+    
+    private static final class Slab {
+        final int index;
+        final ByteBuffer buffer;
+        volatile int sizeClass = -1;
+        int chunkSize;
+        int chunkCount;
+        int carved;
+        int freeHead;
+        int live;
+        boolean partial;
+        
+        Slab(int index, ByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+        
+        void assign(int sizeClass, int chunkSize) {
+            this.sizeClass = sizeClass;
+            this.chunkSize = chunkSize;
+            this.chunkCount = buffer.capacity() / chunkSize;
+            this.carved = 0;
+            this.freeHead = -1;
+            this.live = 0;
+        }
+        
+        boolean hasRoom() {
+            return freeHead >= 0 || carved < chunkCount;
+        }
+        
+        int take() {
+            live++;
+            if (freeHead < 0) {
+                return carved++;
+            }
+            // Free chunks keep the index of the next free chunk where the payload length normally is
+            int chunk = freeHead;
+            freeHead = buffer.getInt(chunk * chunkSize + 4);
+            return chunk;
+        }
+        
+        void release(int chunk, int offset) {
+            live--;
+            buffer.putInt(offset + 4, freeHead);
+            freeHead = chunk;
+        }
+    }
+}
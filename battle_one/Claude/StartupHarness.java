@@ -0,0 +1,109 @@
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics;
+import java.awt.Window;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures how quickly {@link RegistrationForm} opens: the time from JVM start and from the start
+ * of {@code main} until the form's first frame is painted, and the number of classes loaded by
+ * then. A transparent glass pane marks the first paint. Run it in a fresh JVM for every sample,
+ * since a warm JVM has already loaded the classes being counted; add {@code -Xlog:class+load} to
+ * see which ones they are.
+ *
+ * Needs a display. Usage: {@code java StartupHarness [max-millis] [max-classes]}, defaulting to
+ * 1,500 ms from JVM start and 3,000 classes. Exits with status 1 if either limit was exceeded or
+ * the form built its date chooser before being focused.
+ */
+public final class StartupHarness {
+    private static final long DEFAULT_MAX_MILLIS = 1_500;
+    private static final int DEFAULT_MAX_CLASSES = 3_000;
+    private static final long PAINT_TIMEOUT_SECONDS = 30;
+    
+    private StartupHarness() {
+    }
+    
+    public static void main(String[] args) throws InterruptedException, InvocationTargetException {
+        long started = System.nanoTime();
+        long maxMillis = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_MAX_MILLIS;
+        int maxClasses = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_CLASSES;
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        
+        CountDownLatch painted = new CountDownLatch(1);
+        long[] firstPaint = new long[1];
+        int[] classesAtPaint = new int[1];
+        long[] uptimeAtPaint = new long[1];
+        RegistrationForm[] form = new RegistrationForm[1];
+        SwingUtilities.invokeAndWait(() -> {
+            form[0] = new RegistrationForm();
+            JComponent marker = new JComponent() {
+                @Override
+                protected void paintComponent(Graphics g) {
+                    if (painted.getCount() > 0) {
+                        firstPaint[0] = System.nanoTime();
+                        uptimeAtPaint[0] = runtime.getUptime();
+                        classesAtPaint[0] = classLoading.getLoadedClassCount();
+                        painted.countDown();
+                    }
+                }
+            };
+            marker.setOpaque(false);
+            form[0].setGlassPane(marker);
+            marker.setVisible(true);
+            form[0].setVisible(true);
+        });
+        if (!painted.await(PAINT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The form was not painted within " + PAINT_TIMEOUT_SECONDS + " s");
+        }
+        
+        boolean[] eager = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> {
+            eager[0] = isDateChooserBuilt(form[0]);
+            for (Window window : Window.getWindows()) {
+                window.dispose();
+            }
+        });
+        
+        long fromMain = TimeUnit.NANOSECONDS.toMillis(firstPaint[0] - started);
+        System.out.printf("First frame: %,d ms after JVM start, %,d ms after main; %,d classes loaded%n",
+            uptimeAtPaint[0], fromMain, classesAtPaint[0]);
+        boolean failed = false;
+        if (uptimeAtPaint[0] > maxMillis) {
+            System.out.println("FAIL: first frame later than " + maxMillis + " ms");
+            failed = true;
+        }
+        if (classesAtPaint[0] > maxClasses) {
+            System.out.println("FAIL: more than " + maxClasses + " classes loaded before the first frame");
+            failed = true;
+        }
+        if (eager[0]) {
+            System.out.println("FAIL: the date chooser was built before it was focused");
+            failed = true;
+        }
+        if (failed) {
+            System.exit(1);
+        }
+        System.out.println("PASS");
+        System.exit(0);
+    }
+    
+    private static boolean isDateChooserBuilt(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof LazyDateChooser && ((LazyDateChooser) component).isBuilt()) {
+                return true;
+            }
+            if (component instanceof Container && isDateChooserBuilt((Container) component)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the statistics of one cache. The recording methods sit on the cache's hot paths:
+ * the enabled counter uses {@link LongAdder}s, which spread concurrent increments over
+ * per-thread cells instead of contending on one word, and the disabled counter returns after one
+ * branch on its enabled flag. That flag is an instance field, so the JIT does not drop the calls;
+ * callers that would read a clock only to pass the time here check {@link #isEnabled} first.
+ */
+class StatsCounter {
+    static final StatsCounter DISABLED = new StatsCounter(false);
+    
+    private final boolean enabled;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+    private final LongAdder lockWaitCount = new LongAdder();
+    private final LongAdder totalLockWaitTime = new LongAdder();
+    
+    private StatsCounter(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    static StatsCounter enabled() {
+        return new StatsCounter(true);
+    }
+    
+    boolean isEnabled() {
+        return enabled;
+    }
+    
+    void recordHit() {
+        if (enabled) {
+            hitCount.increment();
+        }
+    }
+    
+    void recordMiss() {
+        if (enabled) {
+            missCount.increment();
+        }
+    }
+    
+    void recordLoadSuccess(long loadNanos) {
+        if (enabled) {
+            loadSuccessCount.increment();
+            totalLoadTime.add(loadNanos);
+        }
+    }
+    
+    void recordLoadFailure(long loadNanos) {
+        if (enabled) {
+            loadFailureCount.increment();
+            totalLoadTime.add(loadNanos);
+        }
+    }
+    
+    void recordEviction(int weight) {
+        if (enabled) {
+            evictionCount.increment();
+            evictionWeight.add(weight);
+        }
+    }
+    
+    void recordLockWait(long waitNanos) {
+        if (enabled) {
+            lockWaitCount.increment();
+            totalLockWaitTime.add(waitNanos);
+        }
+    }
+    
+    CacheStats snapshot(LatencyHistogram getLatency, LatencyHistogram putLatency) {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(),
+            loadFailureCount.sum(), totalLoadTime.sum(), evictionCount.sum(), evictionWeight.sum(),
+            lockWaitCount.sum(), totalLockWaitTime.sum(),
+            getLatency == null ? null : getLatency.copy(),
+            putLatency == null ? null : putLatency.copy());
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * A source of nanosecond time used to decide when cache entries expire. Tests can supply a
+ * manually advanced ticker instead of sleeping.
+ */
+@FunctionalInterface
+public interface Ticker {
+    /**
+     * Returns the current time in nanoseconds, measured from an arbitrary fixed origin.
+     * @return the current time in nanoseconds
+     */
+    long read();
+
+    /**
+     * Returns a ticker backed by {@link System#nanoTime()}.
+     * @return the system ticker
+     */
+    static Ticker systemTicker() {
+        return System::nanoTime;
+    }
+}
@@ -0,0 +1,293 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A two-level cache: an on-heap {@link LRUCache} in front of a log-structured store on local
+ * disk. Entries evicted from memory are demoted to disk instead of being dropped, and a hit on disk
+ * promotes the entry back into memory, so the working set can be many times larger than the heap
+ * and costs a disk read rather than a recomputation when it falls out of memory.
+ *
+ * Evicted entries are handed over in the memory tier's removal callback, which runs under its
+ * lock, so they are only parked in a map there; the thread that caused the eviction writes them
+ * to disk after the lock is released, or leaves them to a concurrent caller already doing so.
+ * Parked entries stay readable until they are on disk.
+ * Writes, removals and promotions of the same key are ordered by a striped lock, so a demotion
+ * or promotion that races with a newer write never brings back the older value.
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ */
+public class TieredCache<K, V> implements Closeable {
+    private static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    private static final int STRIPES = 64;
+    private static final int DEMOTION_BATCH = 64;
+    
+    private final LRUCache<K, V> memory;
+    private final DiskTier<K, V> disk;
+    private final ConcurrentHashMap<K, V> demoting;
+    private final ReentrantLock demotionLock;
+    private final Object[] stripes;
+    
+    /**
+     * Creates a new two-level cache using 64 MiB segment files, compacted on the common pool.
+     * @param maxSize the maximum number of entries kept in memory
+     * @param directory the directory for the disk tier's segment files; files left there by an
+     *                  earlier instance are deleted
+     * @param maxDiskBytes the disk space the segment files may take
+     * @param keySerializer encodes and decodes keys for the disk tier
+     * @param valueSerializer encodes and decodes values for the disk tier
+     * @throws IllegalArgumentException if maxSize is less than 1 or maxDiskBytes is smaller than two segments
+     * @throws NullPointerException if directory or a serializer is null
+     * @throws UncheckedIOException if the directory cannot be prepared
+     */
+    public TieredCache(int maxSize, Path directory, long maxDiskBytes,
+                       Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(maxSize, directory, maxDiskBytes, DEFAULT_SEGMENT_SIZE, keySerializer, valueSerializer,
+            ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Creates a new two-level cache with the given segment size and compaction executor.
+     * Entries whose serialized form is larger than a segment are not demoted.
+     * @param maxSize the maximum number of entries kept in memory
+     * @param directory the directory for the disk tier's segment files; files left there by an
+     *                  earlier instance are deleted
+     * @param maxDiskBytes the disk space the segment files may take
+     * @param segmentSize the size of one segment file in bytes
+     * @param keySerializer encodes and decodes keys for the disk tier
+     * @param valueSerializer encodes and decodes values for the disk tier
+     * @param executor runs the disk tier's compaction
+     * @throws IllegalArgumentException if maxSize or segmentSize is less than 1 or maxDiskBytes is
+     *                                  smaller than two segments
+     * @throws NullPointerException if directory, a serializer or executor is null
+     * @throws UncheckedIOException if the directory cannot be prepared
+     */
+    public TieredCache(int maxSize, Path directory, long maxDiskBytes, int segmentSize,
+                       Serializer<K> keySerializer, Serializer<V> valueSerializer, Executor executor) {
+        if (directory == null || keySerializer == null || valueSerializer == null || executor == null) {
+            throw new NullPointerException("Directory, serializers and executor cannot be null");
+        }
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be greater than 0");
+        }
+        if (maxDiskBytes < 2L * segmentSize) {
+            throw new IllegalArgumentException("Disk size must be at least two segments");
+        }
+        
+        this.demoting = new ConcurrentHashMap<>();
+        this.demotionLock = new ReentrantLock();
+        this.stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        this.memory = new LRUCache<K, V>(maxSize) {
+            @Override
+            protected void onRemoval(K key, V value, RemovalCause cause) {
+                if (cause == RemovalCause.EVICTED) {
+                    demoting.put(key, value);
+                }
+            }
+        };
+        try {
+            this.disk = new DiskTier<>(directory, maxDiskBytes, segmentSize, keySerializer, valueSerializer, executor);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open disk tier in " + directory, e);
+        }
+    }
+    
+    /**
+     * Adds a key-value pair to the memory tier, replacing any copy on disk. Entries this evicts
+     * from memory are written to disk on the way out, by this or a concurrent caller.
+     * @param key the key to add
+     * @param value the value to add
+     * @throws NullPointerException if key or value is null
+     */
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Key and value cannot be null");
+        }
+        synchronized (stripeOf(key)) {
+            demoting.remove(key);
+            disk.invalidate(key);
+            memory.put(key, value);
+        }
+        demote();
+    }
+    
+    /**
+     * Retrieves a value from memory, or from disk, in which case the entry moves back into memory.
+     * @param key the key to look up
+     * @return an Optional containing the value if found in either tier, or empty if not found
+     * @throws NullPointerException if key is null
+     * @throws UncheckedIOException if the disk tier cannot be read
+     */
+    public Optional<V> get(K key) {
+        Optional<V> value = memory.get(key);
+        if (value.isPresent()) {
+            return value;
+        }
+        
+        V parked = demoting.get(key);
+        if (parked != null) {
+            promote(key, parked, null);
+            return Optional.of(parked);
+        }
+        
+        // A location can go stale when compaction moves the record; the index then has the new one
+        DiskTier.Location location = disk.locate(key);
+        while (location != null) {
+            V stored = read(location);
+            if (stored != null) {
+                promote(key, stored, location);
+                return Optional.of(stored);
+            }
+            DiskTier.Location moved = disk.locate(key);
+            location = moved == location ? null : moved;
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Removes an entry from both tiers.
+     * @param key the key to remove
+     * @return true if the entry was removed, false if it didn't exist
+     * @throws NullPointerException if key is null
+     */
+    public boolean remove(K key) {
+        if (key == null) {
+            throw new NullPointerException("Key cannot be null");
+        }
+        synchronized (stripeOf(key)) {
+            boolean removed = demoting.remove(key) != null;
+            if (disk.locate(key) != null) {
+                disk.invalidate(key);
+                removed = true;
+            }
+            return memory.remove(key) || removed;
+        }
+    }
+    
+    /**
+     * Returns the number of entries held in memory.
+     * @return the size of the memory tier
+     */
+    public int size() {
+        return memory.size();
+    }
+    
+    /**
+     * Returns the number of entries held only on disk, including those still being written there.
+     * @return the size of the disk tier
+     */
+    public int diskSize() {
+        return disk.size() + demoting.size();
+    }
+    
+    /**
+     * Returns the disk space taken by the segment files, including records that compaction has
+     * not reclaimed yet.
+     * @return the bytes used on disk
+     */
+    public long diskBytes() {
+        return disk.totalBytes();
+    }
+    
+    /**
+     * Removes all entries from both tiers and deletes the disk tier's sealed segment files.
+     * @throws UncheckedIOException if a segment file cannot be deleted
+     */
+    public void clear() {
+        demotionLock.lock();
+        try {
+            memory.clear();
+            demoting.clear();
+            disk.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clear disk tier", e);
+        } finally {
+            demotionLock.unlock();
+        }
+    }
+    
+    /**
+     * Discards all entries and deletes the disk tier's files. The cache must not be used afterwards.
+     * @throws IOException if a segment file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        demotionLock.lock();
+        try {
+            memory.clear();
+            demoting.clear();
+            disk.close();
+        } finally {
+            demotionLock.unlock();
+        }
+    }
+    
+    private void promote(K key, V value, DiskTier.Location location) {
+        synchronized (stripeOf(key)) {
+            // Only promote if no newer write or demotion replaced the entry in the meantime
+            boolean current = location == null ? demoting.remove(key, value) : disk.remove(key, location);
+            if (current) {
+                memory.put(key, value);
+            }
+        }
+        demote();
+    }
+    
+    // Writes parked entries to disk. One thread at a time does this, and only for a bounded batch,
+    // so that under constant eviction no single caller ends up doing everyone's writes
+    private void demote() {
+        if (!demoting.isEmpty() && demotionLock.tryLock()) {
+            try {
+                Iterator<Map.Entry<K, V>> parked = demoting.entrySet().iterator();
+                for (int i = 0; i < DEMOTION_BATCH && parked.hasNext(); i++) {
+                    Map.Entry<K, V> entry = parked.next();
+                    K key = entry.getKey();
+                    V value = entry.getValue();
+                    DiskTier.Location location = write(key, value);
+                    synchronized (stripeOf(key)) {
+                        if (demoting.remove(key, value) && location != null) {
+                            disk.publish(key, location);
+                        } else if (location != null) {
+                            disk.discard(location);
+                        }
+                    }
+                }
+            } finally {
+                demotionLock.unlock();
+            }
+        }
+    }
+    
+    private DiskTier.Location write(K key, V value) {
+        try {
+            return disk.append(key, value);
+        } catch (IOException e) {
+            // The entry is simply not demoted, as if the disk tier were full
+            return null;
+        }
+    }
+    
+    private V read(DiskTier.Location location) {
+        try {
+            return disk.read(location);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read from disk tier", e);
+        }
+    }
+    
+    private Object stripeOf(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
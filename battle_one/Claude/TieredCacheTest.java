@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+class TieredCacheTest {
+    @TempDir
+    Path directory;
+
+    private TieredCache<String, String> cache;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should demote evicted entries to disk and promote them back on a hit")
+    void get_EvictedEntry_PromotesFromDisk() {
+        cache = newCache(2, 1 << 20, 4096);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.diskSize());
+
+        assertEquals("A", cache.get("a").orElse(null));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.diskSize());
+        assertEquals("B", cache.get("b").orElse(null));
+        assertEquals("C", cache.get("c").orElse(null));
+    }
+
+    @Test
+    @DisplayName("Should never return an older value from disk after a put or remove")
+    void putAndRemove_EntryOnDisk_ReplaceDiskCopy() {
+        cache = newCache(1, 1 << 20, 4096);
+        cache.put("a", "old");
+        cache.put("b", "B");
+        cache.put("a", "new");
+        cache.put("c", "C");
+        assertEquals("new", cache.get("a").orElse(null));
+
+        cache.put("d", "D");
+        assertTrue(cache.remove("a"));
+        assertTrue(cache.get("a").isEmpty());
+        assertFalse(cache.remove("a"));
+    }
+
+    @Test
+    @DisplayName("Should keep the disk tier within its byte limit by dropping the oldest segments")
+    void put_ManyEvictions_BoundsDiskUsage() {
+        cache = newCache(1, 1024, 256);
+        for (int i = 0; i < 200; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+
+        assertTrue(cache.diskBytes() <= 1024, () -> "Disk tier uses " + cache.diskBytes() + " bytes");
+        assertEquals("value198", cache.get("key198").orElse(null));
+        assertTrue(cache.get("key0").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rewrite mostly dead segments and keep their live records readable")
+    void compact_MostlyDeadSegments_KeepsLiveRecords() throws IOException {
+        try (DiskTier<String, String> disk = new DiskTier<>(directory, 1 << 20, 128,
+                Serializer.utf8(), Serializer.utf8(), Runnable::run)) {
+            for (int i = 0; i < 40; i++) {
+                String key = "key" + i;
+                disk.publish(key, disk.append(key, "value" + i));
+            }
+            for (int i = 0; i < 40; i++) {
+                if (i % 10 != 0) {
+                    disk.invalidate("key" + i);
+                }
+            }
+            long before = disk.totalBytes();
+            disk.compact();
+
+            assertTrue(disk.totalBytes() < before);
+            assertEquals(4, disk.size());
+            for (int i = 0; i < 40; i += 10) {
+                assertEquals("value" + i, disk.read(disk.locate("key" + i)));
+            }
+        }
+    }
+
+    private TieredCache<String, String> newCache(int maxSize, long maxDiskBytes, int segmentSize) {
+        return new TieredCache<>(maxSize, directory, maxDiskBytes, segmentSize,
+            Serializer.utf8(), Serializer.utf8(), Runnable::run);
+    }
+}
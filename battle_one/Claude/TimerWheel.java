@@ -0,0 +1,163 @@
+/*
+ * Adapted from TimerWheel in Caffeine (https://github.com/ben-manes/caffeine).
+ * Copyright 2017 Ben Manes. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Modified: the wheel holds this cache's LRUCache.Node entries, is driven under the cache's
+ * write lock and hands expired entries to a callback instead of evicting them itself.
+ */
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel that finds expired cache entries in amortized constant time.
+ * Each level is a ring of buckets covering a power-of-two span of nanoseconds, from about a
+ * second per bucket at the lowest level to days at the highest. An entry is placed in the bucket
+ * of the coarsest level that can still tell its expiration time apart from the current time, and
+ * cascades to finer levels as the wheel turns. Advancing the wheel only visits the buckets whose
+ * time has passed instead of scanning every entry.
+ *
+ * The bucket counts and spans and the way the wheel advances and expires entries follow
+ * Caffeine's TimerWheel; see the license header above.
+ *
+ * The wheel is not thread-safe; the owning cache calls it while holding its write lock.
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+final class TimerWheel<K, V> {
+    static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    static final long[] SPANS = {
+        1L << 30, // ~1.07 seconds
+        1L << 36, // ~1.15 minutes
+        1L << 42, // ~1.22 hours
+        1L << 47, // ~1.63 days
+        1L << 49, // ~6.5 days
+        1L << 49, // ~6.5 days
+    };
+    static final int[] SHIFT = {30, 36, 42, 47, 49};
+
+    private final LRUCache.Node<K, V>[][] wheel;
+    private final Consumer<LRUCache.Node<K, V>> expirer;
+    private long nanos;
+
+    /**
+     * Creates a wheel positioned at the given time.
+     * @param nanos the current ticker time
+     * @param expirer removes an entry whose expiration time has passed
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimerWheel(long nanos, Consumer<LRUCache.Node<K, V>> expirer) {
+        this.nanos = nanos;
+        this.expirer = expirer;
+        this.wheel = new LRUCache.Node[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new LRUCache.Node[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                LRUCache.Node<K, V> sentinel = new LRUCache.Node<>(null, null, 0);
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Turns the wheel to the given time, expiring the entries whose time has passed and moving
+     * the rest of the visited buckets' entries down to finer levels.
+     * @param currentTimeNanos the current ticker time
+     */
+    void advance(long currentTimeNanos) {
+        long previousTimeNanos = nanos;
+        nanos = currentTimeNanos;
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTimeNanos >>> SHIFT[i];
+            long currentTicks = currentTimeNanos >>> SHIFT[i];
+            if (currentTicks - previousTicks <= 0L) {
+                break;
+            }
+            expire(i, previousTicks, currentTicks - previousTicks);
+        }
+    }
+
+    /**
+     * Places an entry in the bucket for its expiration time, first removing it from any bucket
+     * it was in. Entries that never expire are only removed.
+     * @param node the entry to schedule
+     */
+    void schedule(LRUCache.Node<K, V> node) {
+        deschedule(node);
+        if (node.expiresAt == LRUCache.NEVER) {
+            return;
+        }
+        LRUCache.Node<K, V> sentinel = findBucket(node.expiresAt);
+        node.timerNext = sentinel;
+        node.timerPrev = sentinel.timerPrev;
+        sentinel.timerPrev.timerNext = node;
+        sentinel.timerPrev = node;
+    }
+
+    /**
+     * Removes an entry from the wheel if it is scheduled.
+     * @param node the entry to remove
+     */
+    void deschedule(LRUCache.Node<K, V> node) {
+        if (node.timerNext != null) {
+            node.timerNext.timerPrev = node.timerPrev;
+            node.timerPrev.timerNext = node.timerNext;
+            node.timerNext = null;
+            node.timerPrev = null;
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta) {
+        LRUCache.Node<K, V>[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+
+        for (int i = start; i < end; i++) {
+            LRUCache.Node<K, V> sentinel = buckets[i & mask];
+            LRUCache.Node<K, V> node = sentinel.timerNext;
+            sentinel.timerPrev = sentinel;
+            sentinel.timerNext = sentinel;
+
+            while (node != sentinel) {
+                LRUCache.Node<K, V> next = node.timerNext;
+                node.timerPrev = null;
+                node.timerNext = null;
+                // Reads may have pushed the expiration time back since the entry was scheduled
+                if (node.expiresAt - nanos > 0L) {
+                    schedule(node);
+                } else {
+                    expirer.accept(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private LRUCache.Node<K, V> findBucket(long time) {
+        long duration = time - nanos;
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[length][0];
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Replays an access trace against {@link LRUCache} with each eviction policy and prints the hit
+ * ratios. Every access is a get followed by a put on a miss, as a read-through client would do.
+ *
+ * Usage: {@code java TraceReplay [cacheSize] [traceFile]}. A trace file holds one key per line.
+ * Without one, a synthetic trace is generated: Zipf-distributed reads over 100,000 keys with a
+ * one-off scan of 20,000 new keys after every 50,000 reads, like a batch job running alongside
+ * interactive traffic.
+ */
+public final class TraceReplay {
+    private static final int DEFAULT_CACHE_SIZE = 5_000;
+    private static final int KEY_SPACE = 100_000;
+    private static final double ZIPF_EXPONENT = 0.9;
+    private static final int READS = 1_000_000;
+    private static final int SCAN_INTERVAL = 50_000;
+    private static final int SCAN_LENGTH = 20_000;
+    
+    private TraceReplay() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        int cacheSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CACHE_SIZE;
+        String[] trace = args.length > 1 ? readTrace(Path.of(args[1])) : syntheticTrace(new Random(42));
+        System.out.printf("%,d accesses, cache size %,d%n", trace.length, cacheSize);
+        
+        report("LRU", trace, size -> null, cacheSize);
+        report("SLRU", trace, SegmentedLruPolicy::new, cacheSize);
+        report("ARC", trace, ArcPolicy::new, cacheSize);
+        report("W-TinyLFU", trace, WindowTinyLfuPolicy::new, cacheSize);
+    }
+    
+    /**
+     * Replays a trace and returns the share of accesses that hit.
+     * @param trace the keys in access order
+     * @param policy the eviction policy, or null for plain LRU
+     * @param cacheSize the maximum number of entries
+     * @return the hit ratio between 0 and 1
+     */
+    static double hitRatio(String[] trace, EvictionPolicy<String> policy, int cacheSize) {
+        LRUCache.Builder<String, Boolean> builder = LRUCache.<String, Boolean>builder().maximumSize(cacheSize);
+        if (policy != null) {
+            builder.evictionPolicy(policy);
+        }
+        LRUCache<String, Boolean> cache = builder.build();
+        
+        long hits = 0;
+        for (String key : trace) {
+            if (cache.get(key).isPresent()) {
+                hits++;
+            } else {
+                cache.put(key, Boolean.TRUE);
+            }
+        }
+        return trace.length == 0 ? 0.0 : (double) hits / trace.length;
+    }
+    
+    /**
+     * Generates the synthetic Zipf-plus-scans trace described in the class comment.
+     * @param random the source of randomness
+     * @return the keys in access order
+     */
+    static String[] syntheticTrace(Random random) {
+        double[] cumulative = new double[KEY_SPACE];
+        double sum = 0;
+        for (int rank = 0; rank < KEY_SPACE; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            cumulative[rank] = sum;
+        }
+        
+        List<String> trace = new ArrayList<>(READS + READS / SCAN_INTERVAL * SCAN_LENGTH);
+        int scanKey = 0;
+        for (int i = 1; i <= READS; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace.add("k" + (rank < 0 ? -rank - 1 : rank));
+            if (i % SCAN_INTERVAL == 0) {
+                for (int j = 0; j < SCAN_LENGTH; j++) {
+                    trace.add("scan" + scanKey++);
+                }
+            }
+        }
+        return trace.toArray(new String[0]);
+    }
+    
+    private static void report(String name, String[] trace, IntFunction<EvictionPolicy<String>> policy, int cacheSize) {
+        long start = System.nanoTime();
+        double ratio = hitRatio(trace, policy.apply(cacheSize), cacheSize);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%-10s hit ratio %6.2f%%  (%,d ms)%n", name, ratio * 100, millis);
+    }
+    
+    private static String[] readTrace(Path file) throws IOException {
+        List<String> trace = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    trace.add(line.trim());
+                }
+            }
+        }
+        return trace.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,122 @@
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Window;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.AbstractButton;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Checks that {@link RegistrationForm} stays responsive while a script types into its fields.
+ * The script inserts one character every 20 ms, round-robin over the text fields, and presses the
+ * submit button every 50 characters. Meanwhile a probe posts an empty task to the event dispatch
+ * thread every 2 ms and records how long each one waited, which is the delay a repaint or key
+ * press would see. The form passes if no probe waited longer than one 60 Hz frame, 16 ms.
+ *
+ * Needs a display. Usage: {@code java TypingLatencyHarness [characters]}, defaulting to 1,000
+ * characters. Exits with status 1 if the form was too slow.
+ */
+public final class TypingLatencyHarness {
+    private static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+    private static final long KEYSTROKE_INTERVAL_MILLIS = 20;
+    private static final long PROBE_INTERVAL_MILLIS = 2;
+    private static final int SUBMIT_EVERY = 50;
+    
+    private TypingLatencyHarness() {
+    }
+    
+    public static void main(String[] args) throws InterruptedException, InvocationTargetException {
+        int characters = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        
+        List<JTextComponent> fields = new ArrayList<>();
+        List<AbstractButton> buttons = new ArrayList<>();
+        JFrame[] form = new JFrame[1];
+        SwingUtilities.invokeAndWait(() -> {
+            form[0] = new RegistrationForm();
+            form[0].setVisible(true);
+            collect(form[0].getContentPane(), fields, buttons);
+        });
+        AbstractButton submit = null;
+        for (AbstractButton button : buttons) {
+            if ("Register".equals(button.getText())) {
+                submit = button;
+            }
+        }
+        if (fields.isEmpty() || submit == null) {
+            throw new IllegalStateException("Could not find the form's text fields and submit button");
+        }
+        
+        LatencyHistogram waits = new LatencyHistogram();
+        AtomicLong worst = new AtomicLong();
+        Thread probe = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long posted = System.nanoTime();
+                SwingUtilities.invokeLater(() -> {
+                    long wait = System.nanoTime() - posted;
+                    waits.record(wait);
+                    worst.accumulateAndGet(wait, Math::max);
+                });
+                try {
+                    Thread.sleep(PROBE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "edt-probe");
+        probe.setDaemon(true);
+        probe.start();
+        
+        AbstractButton submitButton = submit;
+        for (int i = 0; i < characters; i++) {
+            JTextComponent field = fields.get(i % fields.size());
+            char c = (char) ('a' + i % 26);
+            boolean press = (i + 1) % SUBMIT_EVERY == 0;
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    field.getDocument().insertString(field.getDocument().getLength(), String.valueOf(c), null);
+                } catch (BadLocationException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (press && submitButton.isEnabled()) {
+                    submitButton.doClick(0);
+                }
+            });
+            Thread.sleep(KEYSTROKE_INTERVAL_MILLIS);
+        }
+        probe.interrupt();
+        probe.join();
+        SwingUtilities.invokeAndWait(() -> {
+            // Close any success dialog a submission opened, then the form itself
+            for (Window window : Window.getWindows()) {
+                window.dispose();
+            }
+        });
+        
+        System.out.printf("%,d keystrokes, %,d probes: EDT wait p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+            characters, waits.count(), waits.percentile(0.5) / 1e6, waits.percentile(0.99) / 1e6, worst.get() / 1e6);
+        if (worst.get() > FRAME_BUDGET_NANOS) {
+            System.out.println("FAIL: the event dispatch thread was blocked for longer than one frame");
+            System.exit(1);
+        }
+        System.out.println("PASS");
+    }
+    
+    private static void collect(Container container, List<JTextComponent> fields, List<AbstractButton> buttons) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JTextComponent && ((JTextComponent) component).isEditable()) {
+                fields.add((JTextComponent) component);
+            } else if (component instanceof AbstractButton) {
+                buttons.add((AbstractButton) component);
+            }
+            if (component instanceof Container) {
+                collect((Container) component, fields, buttons);
+            }
+        }
+    }
+}
@@ -0,0 +1,391 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers whether a username is taken from local files, fast enough to ask on every keystroke
+ * and without a round trip to the user database.
+ *
+ * The bulk of the names live in an immutable index file written by {@link #build}: the names
+ * sorted and front-coded in blocks of 16, an array of block offsets, and a Bloom filter, all read
+ * through memory maps. A lookup first asks the Bloom filter, which rules out about 99% of free
+ * names without touching the names at all; otherwise it binary-searches the block offsets by each
+ * block's first name and decodes a single block. Names registered since the index was built are
+ * appended to a journal next to it and kept in memory, so registrations are added one at a time
+ * without rewriting the index; the next build folds the journal in.
+ *
+ * Usernames are compared after trimming and lowercasing, so "Alice" and " alice" are the same
+ * name. Lookups are thread-safe and lock-free; {@link #add} is serialized.
+ */
+public class UsernameIndex implements RegistrationCheck, Closeable {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    
+    private final FileChannel journal;
+    private final Set<ByteKey> journaled;
+    private final long nameCount;
+    private final int blockCount;
+    private final int hashCount;
+    private final int longestName;
+    private final MappedByteBuffer names;
+    private final LongBuffer blockOffsets;
+    private final LongBuffer bloom;
+    private final long bloomBits;
+    
+    private UsernameIndex(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = IndexFiles.readHeader(channel, UsernameIndexBuilder.HEADER_SIZE,
+                UsernameIndexBuilder.MAGIC, UsernameIndexBuilder.VERSION, "username index", file);
+            this.nameCount = header.getLong();
+            this.blockCount = header.getInt();
+            this.hashCount = header.getInt();
+            int bloomWords = header.getInt();
+            this.longestName = header.getInt();
+            long indexOffset = header.getLong();
+            long bloomOffset = header.getLong();
+            if (indexOffset > Integer.MAX_VALUE
+                || bloomOffset != indexOffset + (long) blockCount * Long.BYTES
+                || bloomOffset + (long) bloomWords * Long.BYTES > channel.size()) {
+                throw new IOException("Corrupt or truncated username index: " + file);
+            }
+            
+            // Names, block offsets and filter are mapped separately; none of the maps needs the channel open
+            this.names = channel.map(FileChannel.MapMode.READ_ONLY, 0, indexOffset);
+            this.blockOffsets = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset,
+                (long) blockCount * Long.BYTES).asLongBuffer();
+            this.bloom = channel.map(FileChannel.MapMode.READ_ONLY, bloomOffset,
+                (long) bloomWords * Long.BYTES).asLongBuffer();
+            this.bloomBits = (long) bloomWords * Long.SIZE;
+        }
+        
+        this.journaled = ConcurrentHashMap.newKeySet();
+        Path journalFile = file.resolveSibling(file.getFileName() + JOURNAL_SUFFIX);
+        this.journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            replayJournal();
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Opens an index file and its journal, creating the journal if there is none.
+     * @param file an index file written by {@link #build}
+     * @return the index
+     * @throws IOException if the file cannot be read or is not a username index
+     */
+    public static UsernameIndex open(Path file) throws IOException {
+        return new UsernameIndex(file);
+    }
+    
+    /**
+     * Builds an index file from a list of usernames, such as an export of the user table, plus the
+     * names in the journal of an earlier index at the same path, then deletes that journal. An
+     * index open on the target keeps reading the old file and must be reopened; it must not add
+     * names while the build runs.
+     * @param names a UTF-8 text file with one username per line
+     * @param file the index file to write; its journal is folded in and removed
+     * @return the number of distinct names in the index
+     * @throws IOException if a file cannot be read or written
+     */
+    public static long build(Path names, Path file) throws IOException {
+        if (names == null || file == null) {
+            throw new NullPointerException("Files cannot be null");
+        }
+        Path journalFile = file.resolveSibling(file.getFileName() + JOURNAL_SUFFIX);
+        List<byte[]> journaled = new ArrayList<>();
+        if (Files.exists(journalFile)) {
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+                readJournal(channel, journaled);
+            }
+        }
+        long count = UsernameIndexBuilder.build(names, journaled, file);
+        Files.deleteIfExists(journalFile);
+        return count;
+    }
+    
+    /**
+     * Builds an index from the command line.
+     * Usage: {@code java UsernameIndex <names.txt> <index>}
+     * @param args the names file and the index file
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: UsernameIndex <names.txt> <index>");
+            System.exit(2);
+        }
+        long started = System.nanoTime();
+        long count = build(Path.of(args[0]), Path.of(args[1]));
+        System.out.printf("Indexed %,d names in %.1f s%n", count, (System.nanoTime() - started) / 1e9);
+    }
+    
+    /**
+     * Returns whether a username is taken.
+     * @param username the username to look up
+     * @return true if the index or its journal holds the name
+     * @throws NullPointerException if username is null
+     */
+    public boolean contains(String username) {
+        if (username == null) {
+            throw new NullPointerException("Username cannot be null");
+        }
+        byte[] name = normalize(username);
+        return journaled.contains(new ByteKey(name)) || (mightContain(name) && indexContains(name));
+    }
+    
+    /**
+     * Registers a username by appending it to the journal, unless it is already taken.
+     * @param username the username to add
+     * @return true if the name was added, false if it was already taken
+     * @throws NullPointerException if username is null
+     * @throws IllegalArgumentException if username is blank
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    public synchronized boolean add(String username) {
+        if (username == null) {
+            throw new NullPointerException("Username cannot be null");
+        }
+        byte[] name = normalize(username);
+        if (name.length == 0) {
+            throw new IllegalArgumentException("Username cannot be blank");
+        }
+        if (contains(username)) {
+            return false;
+        }
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + name.length);
+        record.putInt(name.length).put(name).flip();
+        try {
+            long position = journal.size();
+            while (record.hasRemaining()) {
+                position += journal.write(record, position);
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the username journal", e);
+        }
+        journaled.add(new ByteKey(name));
+        return true;
+    }
+    
+    /**
+     * Returns the number of names in the index file and the journal together.
+     * @return the number of taken names
+     */
+    public long size() {
+        return nameCount + journaled.size();
+    }
+    
+    @Override
+    public FieldError.Field field() {
+        return FieldError.Field.USERNAME;
+    }
+    
+    @Override
+    public FieldError check(Registration registration) {
+        return contains(registration.username()) ? FieldError.USERNAME_TAKEN : null;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+    
+    /**
+     * Returns the key a username is stored under: trimmed, lowercased and encoded as UTF-8.
+     */
+    static byte[] normalize(String username) {
+        return username.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    static void addToBloom(long[] bloom, int hashCount, byte[] name) {
+        long bits = (long) bloom.length * Long.SIZE;
+        long hash = hash(name);
+        long h1 = hash;
+        long h2 = hash >>> 32 | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+    
+    private boolean mightContain(byte[] name) {
+        long hash = hash(name);
+        long h1 = hash;
+        long h2 = hash >>> 32 | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bloomBits);
+            if ((bloom.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean indexContains(byte[] name) {
+        // Find the last block whose first name is not greater than the name
+        int low = 0;
+        int high = blockCount - 1;
+        int block = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = (int) blockOffsets.get(middle);
+            int length = readVarint(position);
+            int cmp = compare(position + varintSize(length), length, name);
+            if (cmp == 0) {
+                return true;
+            }
+            if (cmp < 0) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0) {
+            return false;
+        }
+        
+        // Decode the block's names into a scratch buffer, stopping at the first greater name
+        byte[] current = new byte[longestName];
+        int position = (int) blockOffsets.get(block);
+        int length = readVarint(position);
+        position += varintSize(length);
+        names.get(position, current, 0, length);
+        position += length;
+        long remaining = Math.min(UsernameIndexBuilder.BLOCK_SIZE, nameCount - (long) block * UsernameIndexBuilder.BLOCK_SIZE) - 1;
+        for (long i = 0; i < remaining; i++) {
+            int shared = readVarint(position);
+            position += varintSize(shared);
+            int suffix = readVarint(position);
+            position += varintSize(suffix);
+            names.get(position, current, shared, suffix);
+            position += suffix;
+            length = shared + suffix;
+            int cmp = Arrays.compareUnsigned(current, 0, length, name, 0, name.length);
+            if (cmp >= 0) {
+                return cmp == 0;
+            }
+        }
+        return false;
+    }
+    
+    // Compares the stored name at position with the given one in unsigned byte order
+    private int compare(int position, int length, byte[] name) {
+        int common = Math.min(length, name.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(names.get(position + i) & 0xFF, name[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, name.length);
+    }
+    
+    private int readVarint(int position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = names.get(position++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+    
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+    
+    // 64-bit FNV-1a, finished with the MurmurHash3 mixer so that both halves are well distributed
+    private static long hash(byte[] name) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : name) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+    
+    private void replayJournal() throws IOException {
+        List<byte[]> names = new ArrayList<>();
+        long end = readJournal(journal, names);
+        // Drop a record torn by a crash during an append
+        if (end < journal.size()) {
+            journal.truncate(end);
+        }
+        for (byte[] name : names) {
+            journaled.add(new ByteKey(name));
+        }
+    }
+    
+    // Reads every complete record and returns where the last one ends
+    private static long readJournal(FileChannel channel, List<byte[]> names) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        while (position + Integer.BYTES <= size) {
+            length.clear();
+            while (length.hasRemaining() && channel.read(length, position + length.position()) > 0) {
+                // Keep reading until the length is complete
+            }
+            int nameLength = length.getInt(0);
+            if (nameLength <= 0 || position + Integer.BYTES + nameLength > size) {
+                break;
+            }
+            ByteBuffer name = ByteBuffer.allocate(nameLength);
+            while (name.hasRemaining() && channel.read(name, position + Integer.BYTES + name.position()) > 0) {
+                // Keep reading until the name is complete
+            }
+            names.add(name.array());
+            position += Integer.BYTES + nameLength;
+        }
+        return position;
+    }
+    
+    /**
+     * A byte array compared by content, for the set of journaled names.
+     */
+    private static final class ByteKey {
+        private final byte[] bytes;
+        private final int hash;
+        
+        ByteKey(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ByteKey && Arrays.equals(bytes, ((ByteKey) o).bytes);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
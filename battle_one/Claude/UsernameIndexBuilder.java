@@ -0,0 +1,251 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the file read by {@link UsernameIndex}. Names are normalized and sorted with an external
+ * merge sort: they are read in runs that fit comfortably in memory, each run is sorted and
+ * spilled to a temporary file, and the runs are merged into the index while duplicates are
+ * dropped. Memory use is bounded by the run size and the Bloom filter, whatever the number of
+ * names. The file layout is:
+ *
+ * <pre>
+ * header: magic (int), version (int), name count (long), block count (int), hash count (int),
+ *         Bloom filter words (int), longest name (int), index offset (long), Bloom offset (long)
+ * blocks: up to 16 names each; the first in full as length (varint) and bytes, the others as the
+ *         length of the prefix shared with the previous name (varint), suffix length (varint)
+ *         and suffix bytes
+ * index:  the file offset of every block (long)
+ * Bloom:  the filter's bit words (long)
+ * </pre>
+ *
+ * Names are stored as UTF-8 and sorted by unsigned byte order, which is code point order.
+ */
+final class UsernameIndexBuilder {
+    static final int MAGIC = 0x55494458;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+    static final int BLOCK_SIZE = 16;
+    
+    private static final int RUN_SIZE = 1 << 20;
+    private static final int HASH_COUNT = 7;
+    // About 1% false positives at seven hashes
+    private static final int BITS_PER_NAME = 10;
+    
+    private UsernameIndexBuilder() {
+    }
+    
+    /**
+     * Builds an index from a text file with one name per line and from the names of extra, and
+     * atomically replaces the target file.
+     * @param names a UTF-8 text file with one username per line; blank lines are skipped
+     * @param extra more normalized names, such as those of an index's journal
+     * @param target the index file to write
+     * @return the number of distinct names written
+     * @throws IOException if a file cannot be read or written
+     */
+    static long build(Path names, List<byte[]> extra, Path target) throws IOException {
+        try (IndexFiles.Runs runs = new IndexFiles.Runs(target.toAbsolutePath().getParent(), "usernames-")) {
+            long total = 0;
+            List<byte[]> run = new ArrayList<>(extra);
+            try (BufferedReader reader = Files.newBufferedReader(names, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    byte[] name = UsernameIndex.normalize(line);
+                    if (name.length == 0) {
+                        continue;
+                    }
+                    run.add(name);
+                    if (run.size() >= RUN_SIZE) {
+                        total += run.size();
+                        spill(run, runs);
+                        run.clear();
+                    }
+                }
+            }
+            total += run.size();
+            if (!run.isEmpty()) {
+                spill(run, runs);
+            }
+            long expectedNames = total;
+            return IndexFiles.replace(target, channel -> write(runs, expectedNames, channel));
+        }
+    }
+    
+    private static void spill(List<byte[]> run, IndexFiles.Runs runs) throws IOException {
+        run.sort(Arrays::compareUnsigned);
+        runs.spill(out -> {
+            byte[] previous = null;
+            for (byte[] name : run) {
+                if (previous == null || !Arrays.equals(previous, name)) {
+                    out.writeInt(name.length);
+                    out.write(name);
+                }
+                previous = name;
+            }
+        });
+    }
+    
+    private static long write(IndexFiles.Runs runs, long expectedNames, FileChannel channel) throws IOException {
+        long bits = Math.max(64, expectedNames * BITS_PER_NAME);
+        long[] bloom = new long[(int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) >>> 6)];
+        
+        channel.position(HEADER_SIZE);
+        CountingOutput out = new CountingOutput(Channels.newOutputStream(channel), HEADER_SIZE);
+        LongList blockOffsets = new LongList();
+        long count = 0;
+        int longest = 0;
+        byte[] previous = null;
+        try (IndexFiles.Merge<NameReader> merge = runs.merge(NameReader::new,
+                 (a, b) -> Arrays.compareUnsigned(a.current, b.current))) {
+            NameReader reader;
+            while ((reader = merge.next()) != null) {
+                byte[] name = reader.current;
+                if (previous != null && Arrays.equals(previous, name)) {
+                    continue;
+                }
+                
+                if (count % BLOCK_SIZE == 0) {
+                    blockOffsets.add(out.position());
+                    out.writeVarint(name.length);
+                    out.write(name);
+                } else {
+                    int shared = sharedPrefix(previous, name);
+                    out.writeVarint(shared);
+                    out.writeVarint(name.length - shared);
+                    out.write(name, shared, name.length - shared);
+                }
+                UsernameIndex.addToBloom(bloom, HASH_COUNT, name);
+                longest = Math.max(longest, name.length);
+                previous = name;
+                count++;
+            }
+        }
+        
+        long indexOffset = out.position();
+        for (int i = 0; i < blockOffsets.size(); i++) {
+            out.writeLong(blockOffsets.get(i));
+        }
+        long bloomOffset = out.position();
+        for (long word : bloom) {
+            out.writeLong(word);
+        }
+        out.flush();
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(count).putInt(blockOffsets.size()).putInt(HASH_COUNT)
+            .putInt(bloom.length).putInt(longest).putLong(indexOffset).putLong(bloomOffset);
+        channel.write(header.flip(), 0);
+        return count;
+    }
+    
+    private static int sharedPrefix(byte[] a, byte[] b) {
+        int mismatch = Arrays.mismatch(a, b);
+        return mismatch < 0 ? a.length : mismatch;
+    }
+    
+    /**
+     * Reads the names of a spilled run back in order.
+     */
+    private static final class NameReader extends IndexFiles.RunReader {
+        private byte[] current;
+        
+        NameReader(Path run) throws IOException {
+            super(run);
+        }
+        
+        @Override
+        boolean advance() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            current = new byte[length];
+            in.readFully(current);
+            return true;
+        }
+    }
+    
+    /**
+     * A buffered output that knows its position in the file.
+     */
+    private static final class CountingOutput {
+        private final DataOutputStream out;
+        // DataOutputStream counts in an int, which a large index outgrows
+        private long position;
+        
+        CountingOutput(OutputStream out, long start) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            this.position = start;
+        }
+        
+        long position() {
+            return position;
+        }
+        
+        void write(byte[] bytes) throws IOException {
+            write(bytes, 0, bytes.length);
+        }
+        
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            position += length;
+        }
+        
+        void writeLong(long value) throws IOException {
+            out.writeLong(value);
+            position += Long.BYTES;
+        }
+        
+        void writeVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                position++;
+                value >>>= 7;
+            }
+            out.write(value);
+            position++;
+        }
+        
+        void flush() throws IOException {
+            out.flush();
+        }
+    }
+    
+    /**
+     * A growable array of longs, for the block offsets.
+     */
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+        
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        long get(int index) {
+            return values[index];
+        }
+        
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+class UsernameIndexTest {
+    @TempDir
+    Path directory;
+
+    private Path names(List<String> names) throws IOException {
+        return Files.write(directory.resolve("names.txt"), names);
+    }
+
+    @Test
+    @DisplayName("Should find every indexed name and no other, ignoring case and surrounding whitespace")
+    void contains_BuiltIndex_FindsExactlyTheIndexedNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            names.add("user" + random.nextInt(1_000_000));
+        }
+        names.add("Zo\u00eb");
+        names.add("");
+        Collections.shuffle(names, random);
+        Path index = directory.resolve("usernames.idx");
+
+        long count = UsernameIndex.build(names(names), index);
+
+        assertEquals(names.stream().filter(n -> !n.isEmpty()).distinct().count(), count);
+        try (UsernameIndex usernames = UsernameIndex.open(index)) {
+            for (String name : names) {
+                if (!name.isEmpty()) {
+                    assertTrue(usernames.contains(name), name);
+                }
+            }
+            assertTrue(usernames.contains("  ZO\u00cb "));
+            for (int i = 0; i < 10_000; i++) {
+                String absent = "absent" + i;
+                assertFalse(usernames.contains(absent), absent);
+            }
+            assertFalse(usernames.contains("a"));
+            assertFalse(usernames.contains("zzzzzz"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep added names in the journal across reopening and fold them in on rebuild")
+    void add_NewName_IsJournaledAndFoldedIntoNextBuild() throws IOException {
+        Path source = names(List.of("alice", "bob"));
+        Path index = directory.resolve("usernames.idx");
+        UsernameIndex.build(source, index);
+
+        try (UsernameIndex usernames = UsernameIndex.open(index)) {
+            assertFalse(usernames.add("Alice"));
+            assertTrue(usernames.add("carol"));
+            assertFalse(usernames.add(" CAROL"));
+            assertEquals(3, usernames.size());
+        }
+        try (UsernameIndex usernames = UsernameIndex.open(index)) {
+            assertTrue(usernames.contains("carol"));
+        }
+
+        assertEquals(3, UsernameIndex.build(source, index));
+        assertFalse(Files.exists(directory.resolve("usernames.idx.journal")));
+        try (UsernameIndex usernames = UsernameIndex.open(index)) {
+            assertTrue(usernames.contains("carol"));
+            assertEquals(3, usernames.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report a taken username as a validation error in field order")
+    void validate_TakenUsername_ReportsUsernameTaken() throws IOException {
+        Path index = directory.resolve("usernames.idx");
+        UsernameIndex.build(names(List.of("alice")), index);
+
+        try (UsernameIndex usernames = UsernameIndex.open(index)) {
+            RegistrationValidator validator = new RegistrationValidator(Clock.systemUTC(), usernames);
+            ValidationResult result = validator.validate(new Registration("Alice", "not-an-email",
+                "secret".toCharArray(), new Date(0), Registration.Gender.OTHER));
+
+            assertEquals(List.of(FieldError.USERNAME_TAKEN, FieldError.EMAIL_INVALID), result.errors());
+            assertTrue(validator.validate(new Registration("alicia", "alicia@example.com",
+                "secret".toCharArray(), new Date(0), Registration.Gender.OTHER)).isValid());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a file that is not a username index")
+    void open_NotAnIndex_ThrowsIOException() throws IOException {
+        Path file = Files.writeString(directory.resolve("bogus.idx"), "not an index at all, just some text here");
+
+        assertThrows(IOException.class, () -> UsernameIndex.open(file));
+    }
+
+    @Test
+    @DisplayName("Should leave one complete index and no temporary files when builds of the same file overlap")
+    void build_ConcurrentBuildsOfSameFile_LeaveOneCompleteIndex() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            names.add("user" + i);
+        }
+        Path source = names(names);
+        Path index = directory.resolve("usernames.idx");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> builds = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                builds.add(executor.submit(() -> UsernameIndex.build(source, index)));
+            }
+            for (Future<Long> build : builds) {
+                assertEquals(20_000, build.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(source, index), files.sorted().toList());
+        }
+        try (UsernameIndex usernames = UsernameIndex.open(index)) {
+            assertTrue(usernames.contains("user0"));
+            assertTrue(usernames.contains("user19999"));
+        }
+    }
+}
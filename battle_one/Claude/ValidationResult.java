@@ -0,0 +1,57 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of validating a registration: either {@link #VALID}, shared by every valid
+ * registration, or the list of rules it broke in field order.
+ */
+public final class ValidationResult {
+    /** The result of every registration that passes all rules. */
+    public static final ValidationResult VALID = new ValidationResult(Collections.emptyList());
+    
+    private final List<FieldError> errors;
+    
+    private ValidationResult(List<FieldError> errors) {
+        this.errors = errors;
+    }
+    
+    static ValidationResult of(List<FieldError> errors) {
+        return errors.isEmpty() ? VALID : new ValidationResult(Collections.unmodifiableList(new ArrayList<>(errors)));
+    }
+    
+    /**
+     * Returns whether the registration passed every rule.
+     * @return true if there are no errors
+     */
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+    
+    /**
+     * Returns the broken rules in the order of the form's fields.
+     * @return an unmodifiable list of errors, empty if the registration is valid
+     */
+    public List<FieldError> errors() {
+        return errors;
+    }
+    
+    /**
+     * Returns the first error about the given field.
+     * @param field the field to look up
+     * @return the error, or null if the field is valid
+     */
+    public FieldError errorFor(FieldError.Field field) {
+        for (FieldError error : errors) {
+            if (error.field() == field) {
+                return error;
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public String toString() {
+        return "ValidationResult" + errors;
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Calculates the weight of cache entries so that a cache can be bounded by the total weight
+ * of its contents, such as their approximate size in bytes, instead of by the number of entries.
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+    /**
+     * Returns the weight of an entry. The weight is computed once when the entry is written
+     * and is not re-evaluated while the entry stays in the cache.
+     * @param key the key of the entry
+     * @param value the value of the entry
+     * @return the weight of the entry, which must not be negative
+     */
+    int weigh(K key, V value);
+}
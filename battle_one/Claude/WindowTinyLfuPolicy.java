@@ -0,0 +1,81 @@
+import java.util.LinkedHashSet;
+
+/**
+ * Window TinyLFU (Einziger, Friedman and Manes). New keys enter a small LRU window holding 1% of
+ * the capacity; the rest is a segmented LRU main space. A key pushed out of the window is admitted
+ * to the main space only if a count-min sketch says it has been used more often than the key the
+ * main space would evict in its place. One-hit wonders and scans therefore pass through the window
+ * without displacing the frequently used working set, while the window still gives recent bursts
+ * a chance to build up frequency.
+ * @param <K> the type of keys tracked by the policy
+ */
+public final class WindowTinyLfuPolicy<K> implements EvictionPolicy<K> {
+    private static final double WINDOW_SHARE = 0.01;
+    
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final LinkedHashSet<K> window;
+    private final SegmentedLruPolicy<K> main;
+    private final CountMinSketch sketch;
+    
+    /**
+     * Creates a W-TinyLFU policy for a cache of the given size.
+     * @param maxSize the number of entries the cache holds
+     * @throws IllegalArgumentException if maxSize is less than 1
+     */
+    public WindowTinyLfuPolicy(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        
+        this.windowCapacity = Math.max(1, (int) (maxSize * WINDOW_SHARE));
+        this.mainCapacity = Math.max(1, maxSize - windowCapacity);
+        this.window = new LinkedHashSet<>();
+        this.main = new SegmentedLruPolicy<>(mainCapacity);
+        this.sketch = new CountMinSketch(maxSize);
+    }
+    
+    @Override
+    public void onInsert(K key) {
+        sketch.increment(key);
+        window.add(key);
+    }
+    
+    @Override
+    public void onAccess(K key) {
+        sketch.increment(key);
+        if (window.remove(key)) {
+            window.add(key);
+        } else {
+            main.onAccess(key);
+        }
+    }
+    
+    @Override
+    public void onRemove(K key) {
+        if (!window.remove(key)) {
+            main.onRemove(key);
+        }
+    }
+    
+    @Override
+    public K evict() {
+        // While the main space is filling up, keys leave the window without a contest
+        while (window.size() > windowCapacity && main.size() < mainCapacity) {
+            main.onInsert(SegmentedLruPolicy.pollFirst(window));
+        }
+        if (window.size() <= windowCapacity) {
+            K victim = main.evict();
+            return victim != null ? victim : SegmentedLruPolicy.pollFirst(window);
+        }
+        
+        K candidate = SegmentedLruPolicy.pollFirst(window);
+        K victim = main.peekVictim();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            main.onRemove(victim);
+            main.onInsert(candidate);
+            return victim;
+        }
+        return candidate;
+    }
+}
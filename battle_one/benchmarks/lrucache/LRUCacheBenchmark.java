@@ -0,0 +1,288 @@
+package lrucache;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks comparing the Claude and ChatGPT {@code LRUCache} implementations under
+ * get-heavy (90% reads), put-heavy (90% writes) and mixed (50/50) workloads, with uniform, Zipfian
+ * and scanning key distributions. The key space is twice the cache size, so uniform keys miss
+ * about half the time and a scan defeats LRU entirely. Every benchmark reports throughput and
+ * sampled latency, whose percentiles include p99, and the runner adds the GC profiler for the
+ * allocation rate.
+ *
+ * Both caches are a class named {@code LRUCache} in the unnamed package, which JMH benchmarks
+ * cannot reference and which cannot share one class path. Each implementation is therefore loaded
+ * from its own compiled classes directory, given as a system property, and called through method
+ * handles held in static final fields, which the JIT inlines like direct calls. JMH runs every
+ * parameter combination in a fresh fork, so each fork binds exactly one implementation.
+ *
+ * Compile each implementation directory to its own output directory, compile this module with
+ * jmh-core, jmh-generator-annprocess, jopt-simple and commons-math3 on the class path, and run:
+ * <pre>
+ * java -cp out/benchmarks:&lt;jmh jars&gt; lrucache.LRUCacheBenchmark out/Claude out/ChatGPT results/$(git rev-parse --short HEAD)
+ * </pre>
+ * The runner writes one JSON result file per thread count (1, 4, 16 and 64), so results can be
+ * compared across commits with any JMH result viewer.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LRUCacheBenchmark {
+    static final String CLASSES_PROPERTY = "lrucache.classes.";
+
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+    private static final int CACHE_SIZE = 1 << 16;
+    private static final int KEY_SPACE = CACHE_SIZE << 1;
+    private static final int SEQUENCE_LENGTH = 1 << 20;
+    private static final int SEQUENCE_MASK = SEQUENCE_LENGTH - 1;
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    // Read once by Bindings' static initializer, which runs on the first benchmark setup of a fork
+    private static volatile String selected;
+
+    @Param({"Claude", "Claude-bufferedReads", "ChatGPT"})
+    public String implementation;
+
+    @Param({"uniform", "zipfian", "scan"})
+    public String distribution;
+
+    private Object cache;
+    private Integer[] keys;
+
+    /**
+     * Fills the cache and precomputes the key sequence, boxed, so that the measured operations
+     * allocate only what the cache itself allocates.
+     */
+    @Setup
+    public void setUp() throws Throwable {
+        selected = implementation;
+        if (!Bindings.IMPLEMENTATION.equals(implementation)) {
+            throw new IllegalStateException("Each implementation needs its own fork; do not run with -f 0");
+        }
+
+        cache = Bindings.CONSTRUCTOR.invokeExact(CACHE_SIZE);
+        Integer[] boxed = new Integer[KEY_SPACE];
+        for (int key = 0; key < KEY_SPACE; key++) {
+            boxed[key] = key;
+        }
+        for (int key = 0; key < CACHE_SIZE; key++) {
+            Bindings.PUT.invokeExact(cache, (Object) boxed[key], (Object) boxed[key]);
+        }
+
+        int[] sequence = keySequence(distribution, new SplittableRandom(42));
+        keys = new Integer[SEQUENCE_LENGTH];
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            keys[i] = boxed[sequence[i]];
+        }
+    }
+
+    /**
+     * Each thread walks the shared key sequence from its own random starting point.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        @Setup
+        public void setUp() {
+            position = new SplittableRandom().nextInt(SEQUENCE_LENGTH);
+        }
+
+        int next() {
+            return position++;
+        }
+    }
+
+    @Benchmark
+    public Object getHeavy(Cursor cursor) throws Throwable {
+        int position = cursor.next();
+        Object key = keys[position & SEQUENCE_MASK];
+        if (position % 10 == 0) {
+            Bindings.PUT.invokeExact(cache, key, key);
+            return key;
+        }
+        return (Object) Bindings.GET.invokeExact(cache, key);
+    }
+
+    @Benchmark
+    public Object putHeavy(Cursor cursor) throws Throwable {
+        int position = cursor.next();
+        Object key = keys[position & SEQUENCE_MASK];
+        if (position % 10 == 0) {
+            return (Object) Bindings.GET.invokeExact(cache, key);
+        }
+        Bindings.PUT.invokeExact(cache, key, key);
+        return key;
+    }
+
+    @Benchmark
+    public Object mixed(Cursor cursor) throws Throwable {
+        int position = cursor.next();
+        Object key = keys[position & SEQUENCE_MASK];
+        if ((position & 1) == 0) {
+            return (Object) Bindings.GET.invokeExact(cache, key);
+        }
+        Bindings.PUT.invokeExact(cache, key, key);
+        return key;
+    }
+
+    /**
+     * Runs every benchmark at each thread count with the GC profiler and writes the results as JSON.
+     * @param args the compiled classes of the Claude and of the ChatGPT implementation, then the
+     *             directory for the result files, the working directory if omitted
+     * @throws IOException if the result directory cannot be created
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length < 2) {
+            System.err.println("Usage: LRUCacheBenchmark <Claude classes> <ChatGPT classes> [result directory]");
+            System.exit(2);
+        }
+        Path directory = Files.createDirectories(Paths.get(args.length > 2 ? args[2] : "."));
+        for (int threads : THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                .include("^" + LRUCacheBenchmark.class.getName() + "\\.")
+                .threads(threads)
+                .jvmArgsAppend(
+                    "-D" + CLASSES_PROPERTY + "Claude=" + Paths.get(args[0]).toAbsolutePath(),
+                    "-D" + CLASSES_PROPERTY + "ChatGPT=" + Paths.get(args[1]).toAbsolutePath())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(directory.resolve("lrucache-" + threads + "-threads.json").toString())
+                .build();
+            new Runner(options).run();
+        }
+    }
+
+    private static int[] keySequence(String distribution, SplittableRandom random) {
+        int[] sequence = new int[SEQUENCE_LENGTH];
+        switch (distribution) {
+            case "uniform":
+                for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+                    sequence[i] = random.nextInt(KEY_SPACE);
+                }
+                break;
+            case "zipfian":
+                ZipfianGenerator zipf = new ZipfianGenerator(KEY_SPACE, ZIPF_EXPONENT);
+                for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+                    // Scatter the popular ranks over the key space instead of clustering them at 0
+                    sequence[i] = (zipf.next(random) * 0x9E3779B1) & (KEY_SPACE - 1);
+                }
+                break;
+            case "scan":
+                for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+                    sequence[i] = i % KEY_SPACE;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown key distribution: " + distribution);
+        }
+        return sequence;
+    }
+
+    /**
+     * The constructor, get and put of the implementation selected for this fork, typed with plain
+     * Objects so that both caches fit: the Claude get returns an Optional, the ChatGPT one the value.
+     */
+    private static final class Bindings {
+        static final String IMPLEMENTATION = selected;
+        static final MethodHandle CONSTRUCTOR;
+        static final MethodHandle GET;
+        static final MethodHandle PUT;
+
+        static {
+            String name = IMPLEMENTATION.contains("-") ? IMPLEMENTATION.substring(0, IMPLEMENTATION.indexOf('-')) : IMPLEMENTATION;
+            String classes = System.getProperty(CLASSES_PROPERTY + name);
+            if (classes == null) {
+                throw new IllegalStateException("System property " + CLASSES_PROPERTY + name + " is not set");
+            }
+            try {
+                URLClassLoader loader = new URLClassLoader(new URL[] {Paths.get(classes).toUri().toURL()},
+                    ClassLoader.getPlatformClassLoader());
+                Class<?> type = Class.forName("LRUCache", true, loader);
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                MethodHandle constructor = IMPLEMENTATION.endsWith("-bufferedReads")
+                    ? MethodHandles.insertArguments(
+                        lookup.findConstructor(type, MethodType.methodType(void.class, int.class, boolean.class)), 1, true)
+                    : lookup.findConstructor(type, MethodType.methodType(void.class, int.class));
+                CONSTRUCTOR = constructor.asType(MethodType.methodType(Object.class, int.class));
+                GET = lookup.unreflect(type.getMethod("get", Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+                PUT = lookup.unreflect(type.getMethod("put", Object.class, Object.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class, Object.class));
+            } catch (ReflectiveOperationException | IOException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    /**
+     * Draws ranks from a Zipfian distribution over [0, n) with the closed-form approximation of
+     * Gray et al., "Quickly Generating Billion-Record Synthetic Databases", as used by YCSB.
+     */
+    private static final class ZipfianGenerator {
+        private final int n;
+        private final double theta;
+        private final double alpha;
+        private final double zetaN;
+        private final double eta;
+
+        ZipfianGenerator(int n, double theta) {
+            this.n = n;
+            this.theta = theta;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zetaN = zeta(n, theta);
+            this.eta = (1.0 - Math.pow(2.0 / n, 1.0 - theta)) / (1.0 - zeta(2, theta) / zetaN);
+        }
+
+        int next(SplittableRandom random) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, theta)) {
+                return 1;
+            }
+            return Math.min(n - 1, (int) (n * Math.pow(eta * u - eta + 1.0, alpha)));
+        }
+
+        private static double zeta(int n, double theta) {
+            double sum = 0.0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1.0 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+    }
+}